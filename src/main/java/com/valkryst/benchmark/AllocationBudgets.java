@@ -0,0 +1,140 @@
+package com.valkryst.benchmark;
+
+import lombok.NonNull;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * <p>
+ *     The maximum number of bytes which each benchmark may allocate per operation, as measured by JMH's GC profiler
+ *     ({@code gc.alloc.rate.norm}).
+ * </p>
+ *
+ * <p>
+ *     Budgets are read from the file in the {@code ALLOCATION_BUDGETS_FILE} environment variable or, if it isn't set,
+ *     from a resource chosen by the server which the benchmarks were run against. The embedded server runs in the
+ *     benchmarks' JVM, so its allocation is counted too, and it has its own budgets in the
+ *     {@code allocation-budgets-embedded.properties} resource. Every other server's budgets, which only cover the
+ *     client, are in the {@code allocation-budgets.properties} resource.
+ * </p>
+ *
+ * <p>
+ *     Each key is the name of a benchmark, either with or without its package, e.g.
+ *     {@code RelationshipLookup.benchmarkExistingRelationships}. The {@code default} key applies to all benchmarks
+ *     without their own budget. Benchmarks without a budget, when there is no default, aren't checked.
+ * </p>
+ */
+public class AllocationBudgets {
+    /** Name of the secondary result, from JMH's GC profiler, which holds the bytes allocated per operation. */
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    /** Name of the secondary result, from JMH's GC profiler, which holds the number of GC cycles. */
+    private static final String GC_COUNT_RESULT = "gc.count";
+
+    /** Budgets, in bytes per operation, by benchmark name. */
+    private final Properties budgets = new Properties();
+
+    /** Constructs a new AllocationBudgets, and loads the budgets. */
+    public AllocationBudgets() {
+        final var path = Environment.getString("ALLOCATION_BUDGETS_FILE", null);
+        final var resource = "embedded".equals(System.getenv("OPENFGA_API_URL")) ? "/allocation-budgets-embedded.properties" : "/allocation-budgets.properties";
+
+        try (final InputStream inputStream = path == null ? AllocationBudgets.class.getResourceAsStream(resource) : new FileInputStream(path)) {
+            if (inputStream != null) {
+                budgets.load(inputStream);
+            }
+        } catch (final IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the allocation, and GC count, of each result, and compares the allocation to its budget.
+     *
+     * @param results Results of a run.
+     * @return Whether every result was within its budget.
+     */
+    public boolean verify(final @NonNull Collection<RunResult> results) {
+        boolean withinBudget = true;
+
+        System.out.println();
+        System.out.printf("%-80s %16s %16s %10s %8s%n", "Benchmark", "Alloc (B/op)", "Budget (B/op)", "GC Count", "Status");
+
+        for (final var result : results) {
+            final var benchmark = result.getParams().getBenchmark();
+            final var label = new StringBuilder(simpleName(benchmark));
+            for (final var key : result.getParams().getParamsKeys()) {
+                label.append(' ').append(key).append('=').append(result.getParams().getParam(key));
+            }
+
+            final var allocation = result.getSecondaryResults().get(ALLOCATION_RESULT);
+            final var gcCount = result.getSecondaryResults().get(GC_COUNT_RESULT);
+            final var budget = budgetOf(benchmark);
+
+            final String status;
+            if (allocation == null) {
+                status = "NO DATA";
+            } else if (budget == null) {
+                status = "-";
+            } else if (allocation.getScore() > budget) {
+                status = "OVER";
+                withinBudget = false;
+            } else {
+                status = "OK";
+            }
+
+            System.out.printf(
+                "%-80s %16s %16s %10s %8s%n",
+                label,
+                allocation == null ? "-" : String.format("%.0f", allocation.getScore()),
+                budget == null ? "-" : String.format("%.0f", budget),
+                gcCount == null ? "-" : String.format("%.0f", gcCount.getScore()),
+                status
+            );
+        }
+
+        if (!withinBudget) {
+            System.err.println("One or more benchmarks allocated more than their budget.");
+        }
+
+        return withinBudget;
+    }
+
+    /**
+     * Retrieves the budget of a benchmark.
+     *
+     * @param benchmark Fully-qualified name of the benchmark method.
+     * @return The budget, in bytes per operation, or {@code null} if the benchmark has no budget.
+     */
+    private Double budgetOf(final String benchmark) {
+        for (final var key : new String[] { benchmark, simpleName(benchmark), "default" }) {
+            final var value = budgets.getProperty(key);
+            if (value != null) {
+                try {
+                    return Double.parseDouble(value.trim());
+                } catch (final NumberFormatException e) {
+                    System.err.println("The allocation budget of " + key + " must be a number, but it was: " + value);
+                    System.exit(1);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the package from the name of a benchmark.
+     *
+     * @param benchmark Fully-qualified name of the benchmark method, e.g. {@code com.example.Class.method}.
+     * @return Name of the benchmark, without its package, e.g. {@code Class.method}.
+     */
+    private static String simpleName(final String benchmark) {
+        return benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+    }
+}
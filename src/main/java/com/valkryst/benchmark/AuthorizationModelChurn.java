@@ -0,0 +1,125 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.model.AuthorizationModels;
+import dev.openfga.sdk.api.client.OpenFgaClient;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.model.WriteAuthorizationModelRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Measures the cost of changing the authorization model of a store, for models of increasing size.</p>
+ *
+ * <ul>
+ *     <li>{@link #benchmarkWriteAuthorizationModel()} measures the latency of writing a model.</li>
+ *     <li>
+ *         {@link #benchmarkFirstCheckAfterModelChange(ModelChange)} measures the latency of the first check which uses
+ *         a newly written model, before the server has cached it. Each invocation is preceded by a model change, so it
+ *         runs in single shot mode.
+ *     </li>
+ *     <li>
+ *         {@link #benchmarkPinnedModelCheck()} and {@link #benchmarkLatestModelCheck()} measure steady-state checks
+ *         which either pin the ID of the model, or leave the server to resolve the store's latest model.
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ *     Every model written by this benchmark is the same model, so the store's latest model never changes the result
+ *     of a check. The models are only removed along with the store, see {@link CleanupStrategy#STORE}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AuthorizationModelChurn extends BenchmarkBase {
+    /** Number of users, each with their own report, to write to the store before the benchmark begins. */
+    private static final int TOTAL_USERS = 1_000;
+
+    /** Number of types in the model, see {@link AuthorizationModels#generate(int)}. */
+    @Param({"10", "50", "100", "500"})
+    public int types;
+
+    /** The model, which is written to the store by each model change. */
+    private WriteAuthorizationModelRequest model;
+
+    /** Users which have been written to the store. */
+    private List<ClientTupleKey> users;
+
+    /** Client which doesn't pin a model ID, so that the server resolves the store's latest model for each check. */
+    private OpenFgaClient latestModelClient;
+
+    /** Number of lookups which have been performed. */
+    private final AtomicLong lookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        try {
+            final var json = AuthorizationModels.generate(types);
+            super.useAuthorizationModelJson(json);
+            model = parseAuthorizationModel(json);
+        } catch (final IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        users = super.createUsers(TOTAL_USERS, true);
+        super.deleteQueue.addAll(users);
+
+        latestModelClient = super.createClient(getApiUrl());
+        latestModelClient.setAuthorizationModelId(null);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public String benchmarkWriteAuthorizationModel() {
+        return super.writeAuthorizationModel(model);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 50)
+    public void benchmarkFirstCheckAfterModelChange(final ModelChange change) {
+        super.checkOpenFGA(change.client, nextUser(), true);
+    }
+
+    @Benchmark
+    public void benchmarkPinnedModelCheck() {
+        super.checkOpenFGA(nextUser(), true);
+    }
+
+    @Benchmark
+    public void benchmarkLatestModelCheck() {
+        super.checkOpenFGA(latestModelClient, nextUser(), true);
+    }
+
+    /** @return A tuple which exists in the store. */
+    private ClientTupleKey nextUser() {
+        return users.get((int) (lookups.getAndIncrement() % users.size()));
+    }
+
+    /** A thread's client, which is switched to a newly written model before each iteration. */
+    @State(Scope.Thread)
+    public static class ModelChange {
+        /** Client which pins the most recently written model. */
+        private OpenFgaClient client;
+
+        @Setup(Level.Trial)
+        public void setup(final AuthorizationModelChurn benchmark) {
+            client = benchmark.createClient(getApiUrl());
+        }
+
+        @Setup(Level.Iteration)
+        public void changeModel(final AuthorizationModelChurn benchmark) {
+            client.setAuthorizationModelId(benchmark.writeAuthorizationModel(benchmark.model));
+        }
+    }
+}
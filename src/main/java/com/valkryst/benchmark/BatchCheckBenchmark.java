@@ -0,0 +1,194 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import com.valkryst.benchmark.trace.ClientTracer;
+import dev.openfga.sdk.api.client.model.ClientCheckRequest;
+import dev.openfga.sdk.api.client.model.ClientCheckResponse;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.errors.FgaApiValidationError;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Compares resolving many relationships at once, by running a batch of checks in parallel, against resolving them
+ *     one at a time with {@link #benchmarkSingleCheck(Items)}.
+ * </p>
+ *
+ * <p>
+ *     Each batch alternates between tuples which exist and tuples which don't. The {@code items} counter is reported
+ *     next to the primary result, as items/s in throughput mode and as time/item in average time mode, so the batch
+ *     and single-check results can be compared directly.
+ * </p>
+ *
+ * <p>
+ *     The batches are run the same way as {@code OpenFgaClient.batchCheck}, which sends each check in the batch as its
+ *     own request, with no more than {@code maxParallelRequests} in flight at once. We don't call
+ *     {@code batchCheck} directly, as it creates a new thread pool on every call and never shuts it down. That would
+ *     exhaust the available threads long before the benchmark completes.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchCheckBenchmark extends BenchmarkBase {
+    /** The number of relationships to write to the OpenFGA API, before the benchmark begins. */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Tuples which can be used to lookup relationships, both existent and non-existent. */
+    private UserReportDataset dataset;
+
+    /** Number of lookups which have been performed. */
+    private final AtomicLong lookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        dataset = new UserReportDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkBatchCheck(final Batch batch, final Items items) {
+        final var futures = new ArrayList<Future<ClientCheckResponse>>(batch.batchSize);
+        final var expectations = new ArrayList<Boolean>(batch.batchSize);
+
+        for (final var tuple : nextTuples(batch.batchSize, expectations)) {
+            final var body = new ClientCheckRequest();
+            body.user(tuple.getUser());
+            body.relation(tuple.getRelation());
+            body._object(tuple.getObject());
+
+            futures.add(batch.executor.submit(() -> {
+                final var trace = ClientTracer.start();
+                final var response = super.openFgaClient.check(body, null).get();
+                ClientTracer.finish(trace);
+                return response;
+            }));
+        }
+
+        try {
+            for (int i = 0 ; i < futures.size() ; i++) {
+                final var response = futures.get(i).get();
+
+                if (response.getStatusCode() != 200) {
+                    System.err.println("Failed to lookup relationship:\n" + response.getRawResponse());
+                    System.exit(1);
+                }
+
+                if (!expectations.get(i).equals(response.getAllowed())) {
+                    System.err.println("Expected relationship existence to be " + expectations.get(i) + ", but it was not:\n" + response.getRawResponse());
+                    System.exit(1);
+                }
+            }
+        } catch (final InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (final ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof ExecutionException) {
+                cause = cause.getCause();
+            }
+
+            if (cause instanceof FgaApiValidationError) {
+                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+            } else if (cause instanceof FgaInvalidParameterException) {
+                cause.printStackTrace();
+            } else {
+                e.printStackTrace();
+            }
+
+            System.exit(1);
+        }
+
+        items.items += futures.size();
+    }
+
+    @Benchmark
+    public void benchmarkSingleCheck(final Items items) {
+        final var expectations = new ArrayList<Boolean>(1);
+        final var tuple = nextTuples(1, expectations).getFirst();
+
+        super.checkOpenFGA(tuple, expectations.getFirst());
+
+        items.items++;
+    }
+
+    /**
+     * Retrieves the next tuples to lookup, alternating between tuples which exist and tuples which don't.
+     *
+     * @param count Number of tuples to retrieve.
+     * @param expectations List to add whether each of the retrieved tuples is expected to exist.
+     * @return The tuples.
+     */
+    private List<ClientTupleKey> nextTuples(final int count, final List<Boolean> expectations) {
+        final var tuples = new ArrayList<ClientTupleKey>(count);
+        for (int i = 0 ; i < count ; i++) {
+            final long lookup = lookups.getAndIncrement();
+            final boolean exists = lookup % 2 == 0;
+
+            tuples.add(exists ? dataset.existent(lookup / 2) : dataset.nonExistent(lookup / 2));
+            expectations.add(exists);
+        }
+        return tuples;
+    }
+
+    /**
+     * Configuration of the batches, which only applies to {@link #benchmarkBatchCheck(Batch, Items)}. Each thread has
+     * its own executor, so {@link #maxParallelRequests} applies to each batch, as it would with
+     * {@code OpenFgaClient.batchCheck}.
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+        /** Number of checks in each batch. */
+        @Param({"1", "10", "50", "100"})
+        public int batchSize;
+
+        /** Maximum number of checks, from a batch, to have in flight at once. */
+        @Param({"1", "10", "25"})
+        public int maxParallelRequests;
+
+        /** Executor used to run the checks in each batch. */
+        private ExecutorService executor;
+
+        @Setup
+        public void setup() {
+            executor = Executors.newFixedThreadPool(maxParallelRequests);
+        }
+
+        @TearDown
+        public void teardown() {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Number of relationships which have been looked up, reported alongside the primary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Items {
+        /** Number of relationships which have been looked up, in the current iteration. */
+        public long items;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            items = 0;
+        }
+    }
+}
@@ -1,8 +1,21 @@
 package com.valkryst.benchmark;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valkryst.benchmark.cache.CachingOpenFgaClient;
+import com.valkryst.benchmark.cache.CheckCache;
+import com.valkryst.benchmark.cache.CheckCacheProfiler;
+import com.valkryst.benchmark.dataset.Dataset;
+import com.valkryst.benchmark.dataset.DatasetSnapshot;
+import com.valkryst.benchmark.embedded.EmbeddedOpenFgaServer;
+import com.valkryst.benchmark.model.AuthorizationModels;
+import com.valkryst.benchmark.trace.ClientTracer;
+import com.valkryst.benchmark.trace.TracingApiClient;
+import dev.openfga.sdk.api.client.ApiClient;
 import dev.openfga.sdk.api.client.OpenFgaClient;
+import dev.openfga.sdk.api.client.model.ClientCheckRequest;
+import dev.openfga.sdk.api.client.model.ClientCheckResponse;
+import dev.openfga.sdk.api.client.model.ClientListObjectsRequest;
+import dev.openfga.sdk.api.client.model.ClientReadRequest;
 import dev.openfga.sdk.api.client.model.ClientTupleKey;
 import dev.openfga.sdk.api.client.model.ClientTupleKeyWithoutCondition;
 import dev.openfga.sdk.api.client.model.ClientWriteRequest;
@@ -13,112 +26,529 @@ import dev.openfga.sdk.api.model.CreateStoreRequest;
 import dev.openfga.sdk.api.model.WriteAuthorizationModelRequest;
 import dev.openfga.sdk.errors.FgaApiValidationError;
 import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
+@State(Scope.Benchmark)
 public class BenchmarkBase {
     /** Client used when interacting with the OpenFGA API. */
     protected OpenFgaClient openFgaClient;
 
+    /** Loader used when writing large numbers of tuples to the OpenFGA API, during setup. */
+    protected BulkLoader bulkLoader;
+
     /** A list of tuples which have been written to the OpenFGA API, and which must be deleted. */
     protected List<ClientTupleKeyWithoutCondition> deleteQueue = new ArrayList<>();
 
+    /** How the tuples written by the benchmark are removed, once it's finished. */
+    private final CleanupStrategy cleanupStrategy = CleanupStrategy.fromEnvironment();
+
+    /** How the tuples of a dataset are written, by {@link #loadDataset(Dataset)}. */
+    private final SeedMode seedMode = SeedMode.fromEnvironment();
+
+    /** Seeder used when the {@link #seedMode} is {@link SeedMode#DATASTORE}, or {@code null} if it isn't. */
+    private DatastoreSeeder datastoreSeeder;
+
+    /** Directory in which {@link DatasetSnapshot}s are kept, or {@code null} if snapshots are disabled. */
+    private final Path snapshotDirectory = Optional.ofNullable(Environment.getString("OPENFGA_SNAPSHOT_DIR", null)).map(Path::of).orElse(null);
+
+    /** Dataset which was loaded by {@link #loadDataset(Dataset)}, and which must be deleted, if any. */
+    private Dataset loadedDataset;
+
+    /** Whether the store is kept after the benchmark, so that its dataset can be reused by a later run. */
+    private boolean storeRetained = false;
+
+    /** Configuration used when constructing the {@link #openFgaClient}. */
+    private final ClientConfiguration config = new ClientConfiguration();
+
+    /** ID of the store which the {@link #openFgaClient} uses. */
+    @Getter(AccessLevel.PROTECTED) private String storeId;
+
+    /** ID of the authorization model which the {@link #openFgaClient} uses. */
+    @Getter(AccessLevel.PROTECTED) private String authorizationModelId;
+
+    /** The authorization model which the {@link #openFgaClient} uses, as JSON. */
+    private String authorizationModel;
+
+    /** Stores created by {@link #createTenant(Dataset)}, which must be cleaned up. */
+    private final List<Tenant> tenants = new ArrayList<>();
+
+    /** API client shared by the clients of the {@link #tenants}, so that they share its connections. */
+    private ApiClient tenantApiClient;
+
     public BenchmarkBase() {
-        final var config = new ClientConfiguration();
-        config.apiUrl(System.getenv("OPENFGA_API_URL"));
+        config.apiUrl(getApiUrl());
         config.credentials(new Credentials(new ApiToken(System.getenv("OPENFGA_API_TOKEN"))));
 
         try {
-            openFgaClient = new OpenFgaClient(config);
+            openFgaClient = new OpenFgaClient(config, createApiClient());
+            bulkLoader = new BulkLoader(openFgaClient);
         } catch (final FgaInvalidParameterException e) {
             e.printStackTrace();
             System.exit(1);
         }
 
         // We can't write the authorization model until a valid Store ID has been set.
-        final var storeId = createStore(openFgaClient);
-        if (storeId.isEmpty()) {
+        final var createdStoreId = createStore(openFgaClient);
+        if (createdStoreId.isEmpty()) {
             System.exit(1);
         } else {
-            openFgaClient.setStoreId(storeId.get());
+            storeId = createdStoreId.get();
+            openFgaClient.setStoreId(storeId);
         }
 
+        useAuthorizationModel(AuthorizationModels.DEFAULT);
+
+        // A cache used by a previous benchmark, in the same JVM, mustn't be reported as this benchmark's.
+        CheckCacheProfiler.track(null);
+        CheckCache.fromEnvironment().ifPresent(this::useCheckCache);
+    }
+
+    /**
+     * Discards the client's traces of the requests sent while the benchmark was set up, e.g. those which wrote its
+     * dataset, so that they aren't reported as part of its first iteration. JMH runs this before every iteration, so
+     * the later runs discard the traces of any requests sent between iterations, e.g. by an iteration-level setup.
+     */
+    @Setup(Level.Iteration)
+    public void discardSetupTraces() {
+        ClientTracer.discard();
+    }
+
+    /**
+     * Removes the tuples in the {@link #deleteQueue}, and those of the dataset loaded by {@link #loadDataset(Dataset)},
+     * from the OpenFGA API according to the {@link CleanupStrategy}, and clears the queue. If the strategy is
+     * {@link CleanupStrategy#STORE}, then the whole store is deleted. The stores created by
+     * {@link #createTenant(Dataset)} are cleaned up in the same way.
+     *
+     * <p>If the dataset was snapshotted, then it, and the store, are kept so that a later run can reuse them.</p>
+     */
+    protected void teardown() {
+        CheckCacheProfiler.freeze();
+        ClientTracer.freeze();
+
+        for (final var tenant : tenants) {
+            if (cleanupStrategy == CleanupStrategy.STORE) {
+                deleteStore(tenant.client());
+            } else if (seedMode == SeedMode.DATASTORE) {
+                datastoreSeeder.delete(tenant.storeId());
+            } else {
+                new BulkLoader(tenant.client()).delete(tenant.dataset().iterator());
+            }
+        }
+        tenants.clear();
+
+        if (cleanupStrategy == CleanupStrategy.STORE && !storeRetained) {
+            deleteStore();
+        } else {
+            if (loadedDataset != null && !storeRetained) {
+                if (seedMode == SeedMode.DATASTORE) {
+                    datastoreSeeder.delete(storeId);
+                } else {
+                    bulkLoader.delete(loadedDataset.iterator());
+                }
+            }
+
+            if (!deleteQueue.isEmpty()) {
+                bulkLoader.delete(deleteQueue);
+            }
+        }
+
+        loadedDataset = null;
+        deleteQueue.clear();
+    }
+
+    /**
+     * Deletes tuples from the OpenFGA API, unless the {@link CleanupStrategy} is {@link CleanupStrategy#STORE}, in
+     * which case they're deleted along with the store by {@link #teardown()}.
+     *
+     * @param tuples Tuples to delete. Any which have already been deleted are skipped.
+     */
+    protected void deleteTuples(final @NonNull Iterator<? extends ClientTupleKeyWithoutCondition> tuples) {
+        if (cleanupStrategy == CleanupStrategy.TUPLES) {
+            bulkLoader.delete(tuples);
+        }
+    }
+
+    /**
+     * Writes an authorization model to the store, and switches the {@link #openFgaClient} to it. The constructor writes
+     * the {@link AuthorizationModels#DEFAULT default} model, so this only needs to be called by benchmarks which use
+     * another model, and must be called before {@link #loadDataset(Dataset)}.
+     *
+     * @param name Name of the model, see {@link AuthorizationModels}.
+     * @throws IllegalArgumentException If there is no model with the name.
+     */
+    protected void useAuthorizationModel(final @NonNull String name) {
+        try {
+            useAuthorizationModelJson(AuthorizationModels.load(name));
+        } catch (final IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes an authorization model to the store, and switches the {@link #openFgaClient} to it, as with
+     * {@link #useAuthorizationModel(String)}.
+     *
+     * @param model The model, as JSON, e.g. one generated by {@link AuthorizationModels#generate(int)}.
+     */
+    protected void useAuthorizationModelJson(final @NonNull String model) {
+        authorizationModelId = writeAuthorizationModel(parseAuthorizationModel(model));
+        authorizationModel = model;
+        openFgaClient.setAuthorizationModelId(authorizationModelId);
+
+        // The cache's direct types depend on the model, so the cache is replaced along with them.
+        if (openFgaClient instanceof CachingOpenFgaClient cachingClient) {
+            useCheckCache(cachingClient.getCache());
+        }
+    }
+
+    /**
+     * Writes an authorization model to the store, without switching the {@link #openFgaClient} to it. OpenFGA treats
+     * it as the store's latest model.
+     *
+     * @param model The model, see {@link #parseAuthorizationModel(String)}.
+     * @return ID of the model.
+     */
+    protected String writeAuthorizationModel(final @NonNull WriteAuthorizationModelRequest model) {
+        return writeAuthorizationModel(openFgaClient, model);
+    }
+
+    /**
+     * Writes an authorization model to the store which a client uses.
+     *
+     * @param client The client.
+     * @param model The model.
+     * @return ID of the model.
+     */
+    private static String writeAuthorizationModel(final OpenFgaClient client, final WriteAuthorizationModelRequest model) {
         try {
-            final var mapper = new ObjectMapper().findAndRegisterModules();
-            final var response = openFgaClient.writeAuthorizationModel(
+            return client.writeAuthorizationModel(model).get().getAuthorizationModelId();
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof FgaApiValidationError) {
                 // 2024-09-09 12:00:01 Validation Error: {"code":"invalid_authorization_model","message":"the relation type 'user#member' on 'member' in object type 'group' is not valid"}
-                mapper.readValue(
-                    """
-                        {
-                            "schema_version": "1.1",
-                            "type_definitions": [
-                                {
-                                    "type": "group",
-                                    "relations": {
-                                        "member": {
-                                            "this": {}
-                                        },
-                                        "subgroup": {
-                                            "this": {}
-                                        }
-                                    },
-                                    "metadata": {
-                                        "relations": {
-                                            "member": {
-                                                "directly_related_user_types": [
-                                                    {
-                                                        "type": "user"
-                                                    }
-                                                ]
-                                            },
-                                            "subgroup": {
-                                                "directly_related_user_types": [
-                                                    {
-                                                        "type": "group"
-                                                    }
-                                                ]
-                                            }
-                                        }
-                                    }
-                                },
-                                {
-                                    "type": "report",
-                                    "relations": {
-                                        "reader": {
-                                            "this": {}
-                                        }
-                                    },
-                                    "metadata": {
-                                        "relations": {
-                                            "reader": {
-                                                "directly_related_user_types": [
-                                                    {
-                                                        "type": "group"
-                                                    },
-                                                    {
-                                                        "type": "user"
-                                                    }
-                                                ]
-                                            }
-                                        }
-                                    }
-                                },
-                                {
-                                    "type": "user"
-                                }
-                            ]
-                        }
-                    """,
-                    WriteAuthorizationModelRequest.class
-                )
-            ).get();
-
-            openFgaClient.setAuthorizationModelId(response.getAuthorizationModelId());
+                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+            } else {
+                e.printStackTrace();
+            }
+            System.exit(1);
+            return null;
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Parses an authorization model into the body of a {@code WriteAuthorizationModel} request.
+     *
+     * @param model The model, as JSON.
+     * @return Request body.
+     */
+    protected static WriteAuthorizationModelRequest parseAuthorizationModel(final @NonNull String model) {
+        try {
+            return new ObjectMapper().findAndRegisterModules().readValue(model, WriteAuthorizationModelRequest.class);
+        } catch (final IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * <p>Writes the tuples of a dataset to the OpenFGA API. They're deleted again by {@link #teardown()}.</p>
+     *
+     * <p>
+     *     If the {@code OPENFGA_SNAPSHOT_DIR} environment variable is set, then a {@link DatasetSnapshot} of the dataset
+     *     is kept in that directory, and the store is kept after the benchmark. A later run, of any benchmark which
+     *     uses the same dataset, then switches to that store if it's still live, or restores the snapshot into its own
+     *     store if it isn't. This must only be used by benchmarks which don't modify the dataset.
+     * </p>
+     *
+     * <p>
+     *     If the {@code OPENFGA_SEED_MODE} environment variable is {@code datastore}, then the tuples are written
+     *     directly to the datastore by a {@link DatastoreSeeder}, and are deleted from it in the same way.
+     * </p>
+     *
+     * @param dataset The dataset.
+     */
+    protected void loadDataset(final @NonNull Dataset dataset) {
+        loadedDataset = dataset;
+
+        if (snapshotDirectory == null) {
+            writeTuples(dataset.iterator());
+            return;
+        }
+
+        final var file = snapshotDirectory.resolve(dataset.name() + ".snapshot");
+        final var apiUrl = getApiUrl();
+        storeRetained = true;
+
+        try {
+            final var snapshot = DatasetSnapshot.open(file).filter(s -> s.getName().equals(dataset.name()) && s.getModel().equals(authorizationModel));
+
+            if (snapshot.isPresent() && snapshot.get().getApiUrl().equals(apiUrl) && isLive(snapshot.get())) {
+                // The store created by the constructor is empty, so it can be deleted.
+                deleteStore();
+                useStore(snapshot.get().getStoreId(), snapshot.get().getAuthorizationModelId());
+                System.out.println("Reusing store " + storeId + ", from snapshot " + file + ".");
+            } else if (snapshot.isPresent()) {
+                writeTuples(snapshot.get().iterator());
+                DatasetSnapshot.updateStore(file, storeId, authorizationModelId, apiUrl);
+                System.out.println("Restored snapshot " + file + " into store " + storeId + ".");
+            } else {
+                writeTuples(dataset.iterator());
+                DatasetSnapshot.write(file, storeId, authorizationModelId, apiUrl, dataset.name(), authorizationModel, dataset.iterator());
+                System.out.println("Wrote snapshot " + file + ", of store " + storeId + ".");
+            }
+        } catch (final IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the tuples of a dataset to the store, according to the {@link SeedMode}.
+     *
+     * @param tuples Tuples to write.
+     */
+    private void writeTuples(final Iterator<? extends ClientTupleKey> tuples) {
+        writeTuples(storeId, bulkLoader, tuples);
+    }
+
+    /**
+     * Writes the tuples of a dataset to a store, according to the {@link SeedMode}.
+     *
+     * @param storeId ID of the store.
+     * @param bulkLoader Loader which writes to the store, used if the seed mode is {@link SeedMode#API}.
+     * @param tuples Tuples to write.
+     */
+    private void writeTuples(final String storeId, final BulkLoader bulkLoader, final Iterator<? extends ClientTupleKey> tuples) {
+        if (seedMode == SeedMode.API) {
+            bulkLoader.write(tuples);
+            return;
+        }
+
+        if ("embedded".equals(System.getenv("OPENFGA_API_URL"))) {
+            System.err.println("The embedded server has no datastore, so OPENFGA_SEED_MODE must be api when it's used.");
+            System.exit(1);
+        }
+
+        if (datastoreSeeder == null) {
+            datastoreSeeder = new DatastoreSeeder();
+        }
+
+        datastoreSeeder.write(storeId, tuples);
+    }
+
+    /**
+     * Determines whether the store of a snapshot still exists, and still contains the snapshot's tuples. Only the
+     * first, and last, tuples are read, as the store is only modified by the bulk loads of this class. The tuples are
+     * read, rather than checked, as a check of a tuple with a condition depends on the context of the check.
+     *
+     * @param snapshot The snapshot.
+     * @return Whether the store can be reused.
+     */
+    private boolean isLive(final DatasetSnapshot snapshot) {
+        if (snapshot.getTupleCount() == 0) {
+            return false;
+        }
+
+        ClientTupleKey first = null;
+        ClientTupleKey last = null;
+        for (final var tuple : snapshot) {
+            if (first == null) {
+                first = tuple;
+            }
+            last = tuple;
+        }
+
+        openFgaClient.setStoreId(snapshot.getStoreId());
+        try {
+            for (final var tuple : List.of(first, last)) {
+                final var body = new ClientReadRequest();
+                body.user(tuple.getUser());
+                body.relation(tuple.getRelation());
+                body._object(tuple.getObject());
+
+                if (openFgaClient.read(body).get().getTuples().isEmpty()) {
+                    return false;
+                }
+            }
+
+            return true;
+        } catch (final ExecutionException e) {
+            // The store no longer exists.
+            return false;
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return false;
+        } finally {
+            openFgaClient.setStoreId(storeId);
+        }
+    }
+
+    /**
+     * Switches the {@link #openFgaClient} to another store, and authorization model.
+     *
+     * @param storeId ID of the store.
+     * @param authorizationModelId ID of the authorization model.
+     */
+    private void useStore(final String storeId, final String authorizationModelId) {
+        this.storeId = storeId;
+        this.authorizationModelId = authorizationModelId;
+        openFgaClient.setStoreId(storeId);
+        openFgaClient.setAuthorizationModelId(authorizationModelId);
+    }
+
+    /**
+     * <p>
+     *     Creates another store, as a tenant of a multi-tenant deployment, writes the current authorization model to
+     *     it, and writes the tuples of a dataset to it according to the {@link SeedMode}. The store is cleaned up by
+     *     {@link #teardown()}.
+     * </p>
+     *
+     * <p>
+     *     The clients of every tenant share a single API client, so a benchmark with thousands of tenants doesn't open
+     *     thousands of connection pools.
+     * </p>
+     *
+     * @param dataset Dataset of the tenant.
+     * @return Client which uses the tenant's store, and authorization model.
+     */
+    protected OpenFgaClient createTenant(final @NonNull Dataset dataset) {
+        if (tenantApiClient == null) {
+            tenantApiClient = createApiClient();
+        }
+
+        final var client = createClient(getApiUrl(), tenantApiClient);
+
+        final var tenantStoreId = createStore(client);
+        if (tenantStoreId.isEmpty()) {
+            System.exit(1);
+            return null;
+        }
+        client.setStoreId(tenantStoreId.get());
+
+        client.setAuthorizationModelId(writeAuthorizationModel(client, parseAuthorizationModel(authorizationModel)));
+
+        // The tenant is recorded before its tuples are written, so that a partial write is still cleaned up.
+        tenants.add(new Tenant(tenantStoreId.get(), client, dataset));
+        writeTuples(tenantStoreId.get(), new BulkLoader(client), dataset.iterator());
+
+        return client;
+    }
+
+    /**
+     * Sends a check request to OpenFGA, without verifying whether the relationship exists, e.g. because its tuple may
+     * be written or deleted at any moment.
+     *
+     * @param tuple Tuple to check.
+     * @return The response.
+     */
+    protected ClientCheckResponse checkOpenFGA(final @NonNull ClientTupleKey tuple) {
+        return checkOpenFGA(openFgaClient, tuple, null, null, null);
+    }
+
+    /**
+     * Sends a check request to OpenFGA, and verifies that the response matches the expected result.
+     *
+     * @param tuple Tuple to check.
+     * @param expected Whether the relationship is expected to exist.
+     * @return The response.
+     */
+    protected ClientCheckResponse checkOpenFGA(final @NonNull ClientTupleKey tuple, final boolean expected) {
+        return checkOpenFGA(openFgaClient, tuple, null, null, expected);
+    }
+
+    /**
+     * Sends a check request to OpenFGA, through another client, and verifies that the response matches the expected
+     * result.
+     *
+     * @param client Client used to send the request, e.g. one returned by {@link #createTenant(Dataset)}.
+     * @param tuple Tuple to check.
+     * @param expected Whether the relationship is expected to exist.
+     * @return The response.
+     */
+    protected ClientCheckResponse checkOpenFGA(final @NonNull OpenFgaClient client, final @NonNull ClientTupleKey tuple, final boolean expected) {
+        return checkOpenFGA(client, tuple, null, null, expected);
+    }
+
+    /**
+     * Sends a check request to OpenFGA, along with contextual tuples and a context, and verifies that the response
+     * matches the expected result.
+     *
+     * @param tuple Tuple to check.
+     * @param contextualTuples Tuples which are treated as if they were written, for this check only, or {@code null}.
+     * @param context Values of the parameters of the conditions of the tuples, or {@code null}.
+     * @param expected Whether the relationship is expected to exist.
+     * @return The response.
+     */
+    protected ClientCheckResponse checkOpenFGA(final @NonNull ClientTupleKey tuple, final List<ClientTupleKey> contextualTuples, final Object context, final boolean expected) {
+        return checkOpenFGA(openFgaClient, tuple, contextualTuples, context, expected);
+    }
+
+    /**
+     * Sends a check request to OpenFGA, and verifies that the response matches the expected result.
+     *
+     * @param client Client used to send the request.
+     * @param tuple Tuple to check.
+     * @param contextualTuples Tuples which are treated as if they were written, for this check only, or {@code null}.
+     * @param context Values of the parameters of the conditions of the tuples, or {@code null}.
+     * @param expected Whether the relationship is expected to exist, or {@code null} if it isn't verified.
+     * @return The response.
+     */
+    private ClientCheckResponse checkOpenFGA(final OpenFgaClient client, final ClientTupleKey tuple, final List<ClientTupleKey> contextualTuples, final Object context, final Boolean expected) {
+        final var trace = ClientTracer.start();
+
+        final var body = new ClientCheckRequest();
+        body.user(tuple.getUser());
+        body.relation(tuple.getRelation());
+        body._object(tuple.getObject());
+
+        if (contextualTuples != null) {
+            body.contextualTuples(contextualTuples);
+        }
+
+        if (context != null) {
+            body.context(context);
+        }
+
+        try {
+            final var response = client.check(body, null).get();
+            ClientTracer.finish(trace);
+
+            if (response.getStatusCode() != 200) {
+                System.err.println("Failed to lookup relationship:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+
+            if (expected != null && !expected.equals(response.getAllowed())) {
+                System.err.println("Expected relationship existence to be " + expected + ", but it was not:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+
+            return response;
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
         } catch (final ExecutionException e) {
             final var cause = e.getCause();
             if (cause instanceof FgaApiValidationError) {
@@ -126,76 +556,153 @@ public class BenchmarkBase {
             } else {
                 e.printStackTrace();
             }
+
             System.exit(1);
-        } catch (final FgaInvalidParameterException | InterruptedException | JsonProcessingException e) {
+        }
+
+        return null;
+    }
+
+    /**
+     * Sends a ListObjects request to OpenFGA.
+     *
+     * @param user User whose objects are listed.
+     * @param relation Relation which the user must have to each object.
+     * @param type Type of the objects.
+     * @return The objects.
+     */
+    protected List<String> listObjectsFromOpenFGA(final @NonNull String user, final @NonNull String relation, final @NonNull String type) {
+        final var trace = ClientTracer.start();
+
+        final var body = new ClientListObjectsRequest();
+        body.user(user);
+        body.relation(relation);
+        body.type(type);
+
+        try {
+            final var response = openFgaClient.listObjects(body, null).get();
+            ClientTracer.finish(trace);
+
+            if (response.getStatusCode() != 200) {
+                System.err.println("Failed to list objects:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+
+            return response.getObjects();
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
             e.printStackTrace();
+            System.exit(1);
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof FgaApiValidationError) {
+                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+            } else {
+                e.printStackTrace();
+            }
+
             System.exit(1);
         }
+
+        return null;
     }
 
-    /** Deletes all tuples in the {@link #deleteQueue}, from the OpenFGA API, and clears the queue. */
-    protected void teardown() {
-        final var body = new ClientWriteRequest();
+    /**
+     * Retrieves the URL of the OpenFGA API, from the {@code OPENFGA_API_URL} environment variable. If it is set to
+     * {@code embedded}, then the {@link EmbeddedOpenFgaServer} is started and its URL is used instead.
+     *
+     * @return URL of the OpenFGA API.
+     */
+    protected static String getApiUrl() {
+        final var apiUrl = System.getenv("OPENFGA_API_URL");
+        if ("embedded".equals(apiUrl)) {
+            return EmbeddedOpenFgaServer.url();
+        }
+
+        return apiUrl;
+    }
 
-        while (!deleteQueue.isEmpty()) {
-            final var subset = new ArrayList<>(deleteQueue.subList(0, Math.min(1000, deleteQueue.size())));
-            deleteQueue.removeAll(subset);
+    /**
+     * Constructs an API client, configured as the SDK's default. Every client constructed by this class sends its
+     * requests through one of these, so that they're timed by the {@link ClientTracer} when it's enabled.
+     *
+     * @return The API client.
+     */
+    private static ApiClient createApiClient() {
+        return ClientTracer.isEnabled() ? new TracingApiClient() : new ApiClient();
+    }
+
+    /**
+     * Constructs a client which uses the same store, and authorization model, as the {@link #openFgaClient}, but which
+     * sends its requests through its own API client and, optionally, to another URL.
+     *
+     * @param apiUrl URL of the OpenFGA API.
+     * @return The client.
+     */
+    protected OpenFgaClient createClient(final @NonNull String apiUrl) {
+        return createClient(apiUrl, createApiClient());
+    }
+
+    /**
+     * Constructs a client which uses the same store, and authorization model, as the {@link #openFgaClient}, but which
+     * sends its requests through another API client and, optionally, to another URL.
+     *
+     * @param apiUrl URL of the OpenFGA API.
+     * @param apiClient API client used to send requests. Its requests are only timed by the {@link ClientTracer} if
+     *                  its HTTP client is {@link ClientTracer#wrap(java.net.http.HttpClient) wrapped}.
+     * @return The client.
+     */
+    protected OpenFgaClient createClient(final @NonNull String apiUrl, final @NonNull ApiClient apiClient) {
+        final var clientConfig = new ClientConfiguration();
+        clientConfig.apiUrl(apiUrl);
+        clientConfig.credentials(new Credentials(new ApiToken(System.getenv("OPENFGA_API_TOKEN"))));
+        clientConfig.storeId(storeId);
+        clientConfig.authorizationModelId(authorizationModelId);
 
-            body.deletes(subset);
-            writeToOpenFGA(body);
+        try {
+            return new OpenFgaClient(clientConfig, apiClient);
+        } catch (final FgaInvalidParameterException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return null;
         }
     }
 
     /**
-     * Creates one or more groups, each with a unique hierarchy of groups.
+     * Creates one or more groups, each with a unique hierarchy of groups, and adds them to OpenFGA VIA its API.
      *
      * @param totalGroups The total number of groups to create.
-     * @param batchSize Number of groups to create in each batch.
      * @param hierarchyDepth Number of groups to create in each hierarchy.
      * @return Created groups, including their parent groups.
      */
-    protected List<ClientTupleKey> createGroups(int totalGroups, final int batchSize, final int hierarchyDepth) {
+    protected List<ClientTupleKey> createGroups(final int totalGroups, final int hierarchyDepth) {
         if (totalGroups < 1) {
             throw new IllegalArgumentException("totalGroups must be greater than or equal to 1.");
         }
 
-        if (batchSize < 1) {
-            throw new IllegalArgumentException("batchSize must be greater than or equal to 1.");
-        }
-
         if (hierarchyDepth < 1) {
             throw new IllegalArgumentException("hierarchyDepth must be greater than or equal to 1.");
         }
 
-        final var body = new ClientWriteRequest();
         final var groups = new ArrayList<ClientTupleKey>(totalGroups * hierarchyDepth);
 
-        while (totalGroups > 0) {
-            final var tuples = new ArrayList<ClientTupleKey>(Math.min(totalGroups, batchSize) * hierarchyDepth);
-
-            for (int i = 0 ; i < Math.min(totalGroups, batchSize) ; i++) {
-                var currentUUID = UUID.randomUUID().toString();
-                var nextUUID = UUID.randomUUID().toString();
+        for (int i = 0 ; i < totalGroups ; i++) {
+            var currentUUID = UUID.randomUUID().toString();
+            var nextUUID = UUID.randomUUID().toString();
 
-                for (int j = 0 ; j < hierarchyDepth ; j++) {
-                    final var tuple = new ClientTupleKey();
-                    tuple.user("group:" + currentUUID);
-                    tuple.relation("subgroup");
-                    tuple._object("group:" + nextUUID);
-                    tuples.add(tuple);
+            for (int j = 0 ; j < hierarchyDepth ; j++) {
+                final var tuple = new ClientTupleKey();
+                tuple.user("group:" + currentUUID);
+                tuple.relation("subgroup");
+                tuple._object("group:" + nextUUID);
+                groups.add(tuple);
 
-                    currentUUID = nextUUID;
-                    nextUUID = UUID.randomUUID().toString();
-                }
+                currentUUID = nextUUID;
+                nextUUID = UUID.randomUUID().toString();
             }
-
-            body.writes(tuples);
-            writeToOpenFGA(body);
-
-            groups.addAll(tuples);
-            totalGroups -= batchSize;
         }
 
+        bulkLoader.write(groups);
+
         return groups;
     }
 
@@ -228,60 +735,94 @@ public class BenchmarkBase {
         }
     }
 
+    /** Deletes the store which the {@link #openFgaClient} uses, along with all of its tuples. */
+    private void deleteStore() {
+        deleteStore(openFgaClient);
+    }
+
+    /**
+     * Deletes the store which a client uses, along with all of its tuples.
+     *
+     * @param client The client.
+     */
+    private static void deleteStore(final OpenFgaClient client) {
+        try {
+            client.deleteStore().get();
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof FgaApiValidationError) {
+                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+            } else {
+                e.printStackTrace();
+            }
+
+            System.exit(1);
+        }
+    }
+
     /**
      * Creates one or more users and optionally adds them to OpenFGA VIA its API.
      *
      * @param totalUsers Total number of users to create.
-     * @param batchSize Number of users to create in each batch.
+     * @param addToOpenFGA Whether to add the users to OpenFGA.
      * @return Created users.
      */
-    protected List<ClientTupleKey> createUsers(int totalUsers, final int batchSize, final boolean addToOpenFGA) {
+    protected List<ClientTupleKey> createUsers(final int totalUsers, final boolean addToOpenFGA) {
         if (totalUsers < 1) {
             throw new IllegalArgumentException("totalUsers must be greater than or equal to 1.");
         }
 
-        if (batchSize < 1) {
-            throw new IllegalArgumentException("batchSize must be greater than or equal to 1.");
-        }
-
-        final var body = new ClientWriteRequest();
         final var users = new ArrayList<ClientTupleKey>(totalUsers);
 
-        while (totalUsers > 0) {
-            final var tuples = new ArrayList<ClientTupleKey>(Math.min(totalUsers, batchSize));
-
-            for (int i = 0 ; i < Math.min(totalUsers, batchSize) ; i++) {
-                final var tuple = new ClientTupleKey();
-                tuple.user("user:" + UUID.randomUUID());
-                tuple.relation("reader");
-                tuple._object("report:" + UUID.randomUUID());
-                tuples.add(tuple);
-            }
-
-            if (!addToOpenFGA) {
-                users.addAll(tuples);
-                totalUsers -= batchSize;
-                continue;
-            }
-
-            body.writes(tuples);
-            writeToOpenFGA(body);
+        for (int i = 0 ; i < totalUsers ; i++) {
+            final var tuple = new ClientTupleKey();
+            tuple.user("user:" + UUID.randomUUID());
+            tuple.relation("reader");
+            tuple._object("report:" + UUID.randomUUID());
+            users.add(tuple);
+        }
 
-            users.addAll(tuples);
-            totalUsers -= batchSize;
+        if (addToOpenFGA) {
+            bulkLoader.write(users);
         }
 
         return users;
     }
 
+    /**
+     * Replaces the {@link #openFgaClient}, and {@link #bulkLoader}, with ones that cache the results of checks. The
+     * cache's size is recorded by the {@link CheckCacheProfiler}.
+     *
+     * @param cache Cache in which to store check results.
+     */
+    protected void useCheckCache(final @NonNull CheckCache cache) {
+        try {
+            final var directTypes = AuthorizationModels.directTypes(parseAuthorizationModel(authorizationModel));
+            openFgaClient = new CachingOpenFgaClient(config, createApiClient(), cache, directTypes);
+            openFgaClient.setStoreId(storeId);
+            openFgaClient.setAuthorizationModelId(authorizationModelId);
+            bulkLoader = new BulkLoader(openFgaClient);
+            CheckCacheProfiler.track(cache);
+        } catch (final FgaInvalidParameterException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
     /**
      * Sends a write request to OpenFGA.
      *
      * @param body Request body.
      */
     protected void writeToOpenFGA(final @NonNull ClientWriteRequest body) {
+        final var trace = ClientTracer.start();
+
         try {
             final var response = openFgaClient.write(body, null).get();
+            ClientTracer.finish(trace);
             if (response.getStatusCode() != 200) {
                 System.err.println(response.getRawResponse());
                 System.exit(1);
@@ -300,4 +841,13 @@ public class BenchmarkBase {
             System.exit(1);
         }
     }
+
+    /**
+     * A store created by {@link #createTenant(Dataset)}.
+     *
+     * @param storeId ID of the store.
+     * @param client Client which uses the store.
+     * @param dataset Dataset written to the store.
+     */
+    private record Tenant(String storeId, OpenFgaClient client, Dataset dataset) {}
 }
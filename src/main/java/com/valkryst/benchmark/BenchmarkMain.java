@@ -0,0 +1,119 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.cache.CheckCacheProfiler;
+import com.valkryst.benchmark.metrics.ServerMetricsProfiler;
+import com.valkryst.benchmark.results.ResultsStore;
+import com.valkryst.benchmark.trace.ClientTraceProfiler;
+import com.valkryst.benchmark.trace.ClientTracer;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <p>
+ *     Entry point of the benchmark jar. It accepts the same options as JMH's own entry point, but always runs JMH's GC
+ *     profiler, so that the bytes allocated per operation, and the number of GC cycles, are recorded for every
+ *     benchmark. When the server's metrics are available, the {@link ServerMetricsProfiler} is also run, so that the
+ *     work done by the server is recorded alongside each benchmark's results. When the {@link ClientTracer} is enabled,
+ *     the {@link ClientTraceProfiler} is run, so that the time spent in each phase of the client's requests is too. The
+ *     {@link CheckCacheProfiler} is always run, and records the size of the client-side check cache of the benchmarks
+ *     which use one, as is the {@link VirtualThreadFanOutProfiler}, which records the latency of the individual checks
+ *     of the benchmarks which fan out onto virtual threads.
+ * </p>
+ *
+ * <p>
+ *     Unless a result file, or format, is given, the results are written as JSON to a new run in the
+ *     {@link ResultsStore}, along with the metadata of the run.
+ * </p>
+ *
+ * <p>
+ *     Once the benchmarks complete, their allocation is compared to the {@link AllocationBudgets}, and the process
+ *     exits with a non-zero status if any of them are over budget.
+ * </p>
+ */
+public class BenchmarkMain {
+    public static void main(final String[] args) throws IOException {
+        final CommandLineOptions commandLineOptions;
+        try {
+            commandLineOptions = new CommandLineOptions(args);
+        } catch (final CommandLineOptionException e) {
+            System.err.println("Error parsing command line:\n " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        // These don't run any benchmarks, so JMH's own entry point can handle them.
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        final var options = new OptionsBuilder().parent(commandLineOptions);
+
+        final boolean hasGcProfiler = commandLineOptions.getProfilers()
+                                                        .stream()
+                                                        .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!hasGcProfiler) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        final boolean hasServerMetricsProfiler = commandLineOptions.getProfilers()
+                                                                   .stream()
+                                                                   .anyMatch(profiler -> profiler.getKlass().equals(ServerMetricsProfiler.class.getName()));
+        if (!hasServerMetricsProfiler && ServerMetricsProfiler.isEnabled()) {
+            options.addProfiler(ServerMetricsProfiler.class);
+        }
+
+        final boolean hasClientTraceProfiler = commandLineOptions.getProfilers()
+                                                                 .stream()
+                                                                 .anyMatch(profiler -> profiler.getKlass().equals(ClientTraceProfiler.class.getName()));
+        if (!hasClientTraceProfiler && ClientTracer.isEnabled()) {
+            options.addProfiler(ClientTraceProfiler.class);
+        }
+
+        final boolean hasCheckCacheProfiler = commandLineOptions.getProfilers()
+                                                                .stream()
+                                                                .anyMatch(profiler -> profiler.getKlass().equals(CheckCacheProfiler.class.getName()));
+        if (!hasCheckCacheProfiler) {
+            options.addProfiler(CheckCacheProfiler.class);
+        }
+
+        final boolean hasFanOutProfiler = commandLineOptions.getProfilers()
+                                                            .stream()
+                                                            .anyMatch(profiler -> profiler.getKlass().equals(VirtualThreadFanOutProfiler.class.getName()));
+        if (!hasFanOutProfiler) {
+            options.addProfiler(VirtualThreadFanOutProfiler.class);
+        }
+
+        Path runDirectory = null;
+        if (!commandLineOptions.getResult().hasValue() && !commandLineOptions.getResultFormat().hasValue()) {
+            runDirectory = ResultsStore.createRunDirectory();
+            options.resultFormat(ResultFormatType.JSON);
+            options.result(runDirectory.resolve(ResultsStore.RESULTS_FILE).toString());
+        }
+
+        try {
+            final var builtOptions = options.build();
+            if (runDirectory != null) {
+                ResultsStore.writeMetadata(runDirectory, builtOptions, args);
+            }
+
+            final var results = new Runner(builtOptions).run();
+            if (runDirectory != null) {
+                System.out.println("Results written to " + runDirectory.toAbsolutePath() + ".");
+            }
+
+            System.exit(new AllocationBudgets().verify(results) ? 0 : 1);
+        } catch (final RunnerException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
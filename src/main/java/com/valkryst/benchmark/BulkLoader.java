@@ -0,0 +1,314 @@
+package com.valkryst.benchmark;
+
+import dev.openfga.sdk.api.client.OpenFgaClient;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.client.model.ClientTupleKeyWithoutCondition;
+import dev.openfga.sdk.api.client.model.ClientWriteRequest;
+import dev.openfga.sdk.api.client.model.ClientWriteResponse;
+import dev.openfga.sdk.errors.FgaApiValidationError;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Writes, or deletes, large numbers of tuples VIA the OpenFGA API.</p>
+ *
+ * <p>
+ *     Tuples are split into chunks of at most {@link #maxTuplesPerWrite} tuples, and each chunk is sent as its own
+ *     write request. Up to {@link #maxInFlight} requests are kept in flight at once, rather than waiting for each
+ *     request to complete before sending the next.
+ * </p>
+ *
+ * <p>
+ *     Deletes are idempotent. If a chunk is rejected because one of its tuples has already been deleted, then that tuple
+ *     is skipped and the rest of the chunk is retried.
+ * </p>
+ *
+ * <p>This should only be used during setup and teardown. It is not meant to be benchmarked.</p>
+ */
+public class BulkLoader {
+    /**
+     * Default maximum number of tuples to send in a single write request. This is the default value of OpenFGA's
+     * {@code --max-tuples-per-write} setting.
+     */
+    public static final int DEFAULT_MAX_TUPLES_PER_WRITE = 100;
+
+    /** Default maximum number of write requests to have in flight at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    /** Error message with which OpenFGA rejects the deletion of a tuple which does not exist. */
+    private static final String MISSING_TUPLE_ERROR = "cannot delete a tuple which does not exist";
+
+    /** Matches the user, relation, and object of the missing tuple, in the {@link #MISSING_TUPLE_ERROR}. */
+    private static final Pattern MISSING_TUPLE_PATTERN = Pattern.compile(MISSING_TUPLE_ERROR + ": user: '([^']*)', relation: '([^']*)', object: '([^']*)'");
+
+    /** Client used when interacting with the OpenFGA API. */
+    private final OpenFgaClient client;
+
+    /** Maximum number of tuples to send in a single write request. */
+    private final int maxTuplesPerWrite;
+
+    /** Maximum number of write requests to have in flight at once. */
+    private final int maxInFlight;
+
+    /**
+     * Constructs a new BulkLoader, configured by the {@code OPENFGA_MAX_TUPLES_PER_WRITE} and
+     * {@code OPENFGA_BULK_LOAD_MAX_IN_FLIGHT} environment variables.
+     *
+     * @param client Client used when interacting with the OpenFGA API.
+     */
+    public BulkLoader(final @NonNull OpenFgaClient client) {
+        this(
+            client,
+            Environment.getInt("OPENFGA_MAX_TUPLES_PER_WRITE", DEFAULT_MAX_TUPLES_PER_WRITE),
+            Environment.getInt("OPENFGA_BULK_LOAD_MAX_IN_FLIGHT", DEFAULT_MAX_IN_FLIGHT)
+        );
+    }
+
+    /**
+     * Constructs a new BulkLoader.
+     *
+     * @param client Client used when interacting with the OpenFGA API.
+     * @param maxTuplesPerWrite Maximum number of tuples to send in a single write request.
+     * @param maxInFlight Maximum number of write requests to have in flight at once.
+     */
+    public BulkLoader(final @NonNull OpenFgaClient client, final int maxTuplesPerWrite, final int maxInFlight) {
+        if (maxTuplesPerWrite < 1) {
+            throw new IllegalArgumentException("maxTuplesPerWrite must be greater than or equal to 1.");
+        }
+
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be greater than or equal to 1.");
+        }
+
+        this.client = client;
+        this.maxTuplesPerWrite = maxTuplesPerWrite;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Deletes tuples VIA the OpenFGA API.
+     *
+     * @param tuples Tuples to delete.
+     * @return Statistics about the deletion.
+     */
+    public Result delete(final @NonNull Collection<? extends ClientTupleKeyWithoutCondition> tuples) {
+        return delete(tuples.iterator());
+    }
+
+    /**
+     * Deletes tuples VIA the OpenFGA API.
+     *
+     * @param tuples Tuples to delete. They are consumed as needed, so they don't all need to be in memory at once.
+     * @return Statistics about the deletion.
+     */
+    public Result delete(final @NonNull Iterator<? extends ClientTupleKeyWithoutCondition> tuples) {
+        final var missing = new AtomicLong();
+        final var result = this.<ClientTupleKeyWithoutCondition>load("deleted", tuples, chunk -> deleteIdempotently(chunk, missing));
+
+        if (missing.get() > 0) {
+            System.out.printf("Skipped %d tuples which had already been deleted.%n", missing.get());
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes tuples VIA the OpenFGA API.
+     *
+     * @param tuples Tuples to write.
+     * @return Statistics about the write.
+     */
+    public Result write(final @NonNull Collection<? extends ClientTupleKey> tuples) {
+        return write(tuples.iterator());
+    }
+
+    /**
+     * Writes tuples VIA the OpenFGA API.
+     *
+     * @param tuples Tuples to write. They are consumed as needed, so they don't all need to be in memory at once.
+     * @return Statistics about the write.
+     */
+    public Result write(final @NonNull Iterator<? extends ClientTupleKey> tuples) {
+        return this.<ClientTupleKey>load("wrote", tuples, chunk -> send(new ClientWriteRequest().writes(chunk)));
+    }
+
+    /**
+     * Sends tuples to the OpenFGA API, in chunks, while keeping no more than {@link #maxInFlight} requests in flight.
+     *
+     * @param verb Past-tense description of the operation, used when reporting the throughput.
+     * @param tuples Tuples to send.
+     * @param sender Function which sends a chunk of tuples, and returns a future which completes once it's been sent.
+     * @return Statistics about the load.
+     */
+    private <T> Result load(final String verb, final Iterator<? extends T> tuples, final Function<List<T>, CompletableFuture<?>> sender) {
+        final var permits = new Semaphore(maxInFlight);
+        final var failure = new AtomicReference<Throwable>();
+
+        final long startTime = System.nanoTime();
+        long totalTuples = 0;
+
+        try {
+            while (tuples.hasNext() && failure.get() == null) {
+                final var chunk = new ArrayList<T>(maxTuplesPerWrite);
+                while (tuples.hasNext() && chunk.size() < maxTuplesPerWrite) {
+                    chunk.add(tuples.next());
+                }
+                totalTuples += chunk.size();
+
+                permits.acquire();
+                sender.apply(chunk).whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        failure.compareAndSet(null, throwable);
+                    }
+
+                    permits.release();
+                });
+            }
+
+            // Wait for all remaining requests to complete.
+            permits.acquire(maxInFlight);
+        } catch (final InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        if (failure.get() != null) {
+            var cause = failure.get();
+            if (cause instanceof CompletionException || cause instanceof ExecutionException) {
+                cause = cause.getCause();
+            }
+
+            if (cause instanceof FgaApiValidationError) {
+                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+            } else {
+                cause.printStackTrace();
+            }
+
+            System.exit(1);
+        }
+
+        final var result = new Result(totalTuples, System.nanoTime() - startTime);
+        System.out.printf(
+            "Bulk %s %d tuples in %d ms (%.0f tuples/s).%n",
+            verb, result.tuples(), TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()), result.tuplesPerSecond()
+        );
+        return result;
+    }
+
+    /**
+     * Deletes a chunk of tuples. If the chunk is rejected because one of its tuples does not exist, then that tuple is
+     * removed from the chunk, and the rest of the chunk is retried.
+     *
+     * <p>
+     *     OpenFGA names the missing tuple in its error message. If the tuple can't be identified from the message, then
+     *     the chunk is instead split in half, and each half is deleted in the same way.
+     * </p>
+     *
+     * @param chunk Tuples to delete.
+     * @param missing Incremented once for each tuple which does not exist.
+     * @return A future which completes once all existing tuples in the chunk have been deleted.
+     */
+    private CompletableFuture<Void> deleteIdempotently(final List<ClientTupleKeyWithoutCondition> chunk, final AtomicLong missing) {
+        return send(new ClientWriteRequest().deletes(chunk)).thenAccept(response -> {}).exceptionallyCompose(throwable -> {
+            final var responseData = missingTupleError(throwable);
+            if (responseData == null) {
+                return CompletableFuture.failedFuture(throwable);
+            }
+
+            if (chunk.size() == 1) {
+                missing.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            }
+
+            final var matcher = MISSING_TUPLE_PATTERN.matcher(responseData);
+            if (matcher.find()) {
+                final var remaining = new ArrayList<ClientTupleKeyWithoutCondition>(chunk.size() - 1);
+                for (final var tuple : chunk) {
+                    if (!tuple.getUser().equals(matcher.group(1)) || !tuple.getRelation().equals(matcher.group(2)) || !tuple.getObject().equals(matcher.group(3))) {
+                        remaining.add(tuple);
+                    }
+                }
+
+                if (remaining.size() < chunk.size()) {
+                    missing.addAndGet(chunk.size() - remaining.size());
+                    return remaining.isEmpty() ? CompletableFuture.completedFuture(null) : deleteIdempotently(remaining, missing);
+                }
+            }
+
+            final int middle = chunk.size() / 2;
+            return CompletableFuture.allOf(
+                deleteIdempotently(chunk.subList(0, middle), missing),
+                deleteIdempotently(chunk.subList(middle, chunk.size()), missing)
+            );
+        });
+    }
+
+    /**
+     * Sends a write request.
+     *
+     * @param request The request.
+     * @return A future which completes once the request has succeeded, or which fails if it didn't.
+     */
+    private CompletableFuture<ClientWriteResponse> send(final ClientWriteRequest request) {
+        try {
+            return client.write(request, null).thenCompose(response -> {
+                if (response.getStatusCode() != 200) {
+                    return CompletableFuture.failedFuture(new IllegalStateException(response.getRawResponse()));
+                }
+
+                return CompletableFuture.completedFuture(response);
+            });
+        } catch (final FgaInvalidParameterException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Determines whether a write failed because it tried to delete a tuple which does not exist.
+     *
+     * @param throwable Cause of the failure.
+     * @return Response data of the failure, if it was caused by a missing tuple, or {@code null} otherwise.
+     */
+    private static String missingTupleError(final Throwable throwable) {
+        var cause = throwable;
+        if (cause instanceof CompletionException || cause instanceof ExecutionException) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof FgaApiValidationError) {
+            final var responseData = String.valueOf(((FgaApiValidationError) cause).getResponseData());
+            if (responseData.contains(MISSING_TUPLE_ERROR)) {
+                return responseData;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Statistics about a bulk load.
+     *
+     * @param tuples Number of tuples which were sent.
+     * @param elapsedNanos Time taken to send the tuples, in nanoseconds.
+     */
+    public record Result(long tuples, long elapsedNanos) {
+        /** @return Number of tuples sent per second. */
+        public double tuplesPerSecond() {
+            return elapsedNanos == 0 ? 0 : tuples / (elapsedNanos / 1_000_000_000d);
+        }
+    }
+}
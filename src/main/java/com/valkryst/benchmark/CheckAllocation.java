@@ -0,0 +1,278 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import com.valkryst.benchmark.trace.ClientTracer;
+import dev.openfga.sdk.api.client.model.ClientCheckRequest;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.errors.FgaApiValidationError;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Sends the same checks through three paths, which allocate progressively less, so that the allocation reported by
+ *     JMH's GC profiler can be split into the garbage which is inherent to a check, and the garbage which could be
+ *     avoided by the client.
+ * </p>
+ *
+ * <ul>
+ *     <li>
+ *         {@link #sdkNewRequest()} is the path used by the other benchmarks, which constructs a new
+ *         {@link ClientCheckRequest} for every check.
+ *     </li>
+ *     <li>{@link #sdkReusedRequest(ThreadBuffers)} reuses a single {@link ClientCheckRequest} per thread.</li>
+ *     <li>
+ *         {@link #rawHttp(ThreadBuffers)} bypasses the SDK, and its JSON (de)serialization, by writing the request body
+ *         into a reused buffer and scanning the response body for the result.
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ *     Every path looks up its tuple from the same {@link UserReportDataset}, so the allocation of the tuple is common to
+ *     all three. When run against the {@code embedded} server, the server's own allocation is also included.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckAllocation extends BenchmarkBase {
+    /** The number of relationships to write to the OpenFGA API, before the benchmark begins. */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Response body of a check, up to the result, when the relationship exists. */
+    private static final byte[] ALLOWED = "\"allowed\":true".getBytes(StandardCharsets.US_ASCII);
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Tuples which can be used to lookup relationships. */
+    private UserReportDataset dataset;
+
+    /** Number of lookups which have been performed. */
+    private final AtomicLong lookups = new AtomicLong();
+
+    /** Client used by {@link #rawHttp(ThreadBuffers)}, before it is wrapped by the {@link ClientTracer}. */
+    private HttpClient unwrappedHttpClient;
+
+    /** Client used by {@link #rawHttp(ThreadBuffers)}. */
+    private HttpClient httpClient;
+
+    /** URI of the check endpoint. */
+    private URI checkUri;
+
+    /** Value of the {@code Authorization} header. */
+    private String authorization;
+
+    /** Prefix of each check's request body, up to the tuple. */
+    private byte[] bodyPrefix;
+
+    @Setup
+    public void setup() {
+        dataset = new UserReportDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+
+        unwrappedHttpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        httpClient = ClientTracer.wrap(unwrappedHttpClient);
+        checkUri = URI.create(getApiUrl() + "/stores/" + super.getStoreId() + "/check");
+        authorization = "Bearer " + System.getenv("OPENFGA_API_TOKEN");
+        bodyPrefix = ("{\"authorization_model_id\":\"" + super.getAuthorizationModelId() + "\",\"tuple_key\":{").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @TearDown
+    public void teardown() {
+        unwrappedHttpClient.close();
+
+        super.teardown();
+    }
+
+    @Benchmark
+    public void sdkNewRequest() {
+        super.checkOpenFGA(dataset.existent(lookups.getAndIncrement()), true);
+    }
+
+    @Benchmark
+    public void sdkReusedRequest(final ThreadBuffers buffers) {
+        final var tuple = dataset.existent(lookups.getAndIncrement());
+
+        final var body = buffers.checkRequest;
+        body.user(tuple.getUser());
+        body.relation(tuple.getRelation());
+        body._object(tuple.getObject());
+
+        final var trace = ClientTracer.start();
+
+        try {
+            final var response = super.openFgaClient.check(body, null).get();
+            ClientTracer.finish(trace);
+
+            if (response.getStatusCode() != 200) {
+                System.err.println("Failed to lookup relationship:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+
+            if (!Boolean.TRUE.equals(response.getAllowed())) {
+                System.err.println("Relationship does not exist, but it should:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof FgaApiValidationError) {
+                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+            } else {
+                e.printStackTrace();
+            }
+
+            System.exit(1);
+        }
+    }
+
+    @Benchmark
+    public void rawHttp(final ThreadBuffers buffers) {
+        final var tuple = dataset.existent(lookups.getAndIncrement());
+
+        final var trace = ClientTracer.start();
+        final int length = buffers.writeBody(bodyPrefix, tuple);
+        final var request = buffers.requestBuilder.POST(HttpRequest.BodyPublishers.ofByteArray(buffers.requestBody, 0, length)).build();
+
+        try {
+            // The response is returned once its headers arrive, so the trace's parse phase includes reading the body.
+            final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            final int read;
+            try (final var inputStream = response.body()) {
+                read = inputStream.readNBytes(buffers.responseBody, 0, buffers.responseBody.length);
+            }
+            ClientTracer.finish(trace);
+
+            if (response.statusCode() != 200) {
+                System.err.println("Failed to lookup relationship:\n" + new String(buffers.responseBody, 0, read, StandardCharsets.UTF_8));
+                System.exit(1);
+            }
+
+            if (!contains(buffers.responseBody, read, ALLOWED)) {
+                System.err.println("Relationship does not exist, but it should:\n" + new String(buffers.responseBody, 0, read, StandardCharsets.UTF_8));
+                System.exit(1);
+            }
+        } catch (final IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Determines whether a sequence of bytes appears within a buffer.
+     *
+     * @param buffer The buffer.
+     * @param length Number of bytes, from the start of the buffer, to search.
+     * @param sequence The sequence.
+     * @return Whether the sequence appears within the first {@code length} bytes of the buffer.
+     */
+    private static boolean contains(final byte[] buffer, final int length, final byte[] sequence) {
+        for (int i = 0 ; i <= length - sequence.length ; i++) {
+            if (Arrays.equals(buffer, i, i + sequence.length, sequence, 0, sequence.length)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /** Objects which are reused by a single thread, across checks. */
+    @State(Scope.Thread)
+    public static class ThreadBuffers {
+        /** Request reused by {@link #sdkReusedRequest(ThreadBuffers)}. */
+        private final ClientCheckRequest checkRequest = new ClientCheckRequest();
+
+        /** Builder of the requests sent by {@link #rawHttp(ThreadBuffers)}. */
+        private HttpRequest.Builder requestBuilder;
+
+        /** Request body of the current check. */
+        private byte[] requestBody = new byte[512];
+
+        /** Response body of the current check. */
+        private final byte[] responseBody = new byte[4096];
+
+        @Setup
+        public void setup(final CheckAllocation benchmark) {
+            requestBuilder = HttpRequest.newBuilder(benchmark.checkUri)
+                                        .header("Authorization", benchmark.authorization)
+                                        .header("Content-Type", "application/json");
+        }
+
+        /**
+         * Writes the request body of a check into the {@link #requestBody}.
+         *
+         * @param prefix Prefix of the request body, up to the tuple.
+         * @param tuple Tuple to check.
+         * @return Length of the request body.
+         */
+        private int writeBody(final byte[] prefix, final ClientTupleKey tuple) {
+            int length = 0;
+            length = append(length, prefix);
+            length = append(length, "\"user\":\"");
+            length = append(length, tuple.getUser());
+            length = append(length, "\",\"relation\":\"");
+            length = append(length, tuple.getRelation());
+            length = append(length, "\",\"object\":\"");
+            length = append(length, tuple.getObject());
+            length = append(length, "\"}}");
+            return length;
+        }
+
+        /**
+         * Appends bytes to the {@link #requestBody}, growing it if necessary.
+         *
+         * @param offset Offset at which to append the bytes.
+         * @param bytes The bytes.
+         * @return Offset after the appended bytes.
+         */
+        private int append(final int offset, final byte[] bytes) {
+            ensureCapacity(offset + bytes.length);
+            System.arraycopy(bytes, 0, requestBody, offset, bytes.length);
+            return offset + bytes.length;
+        }
+
+        /**
+         * Appends an ASCII string to the {@link #requestBody}, growing it if necessary. IDs, types, and relations are
+         * always ASCII, so the string doesn't need to be escaped, or encoded, first.
+         *
+         * @param offset Offset at which to append the string.
+         * @param string The string.
+         * @return Offset after the appended string.
+         */
+        private int append(final int offset, final String string) {
+            ensureCapacity(offset + string.length());
+            for (int i = 0 ; i < string.length() ; i++) {
+                requestBody[offset + i] = (byte) string.charAt(i);
+            }
+            return offset + string.length();
+        }
+
+        /**
+         * Grows the {@link #requestBody}, if it is smaller than a capacity.
+         *
+         * @param capacity The capacity.
+         */
+        private void ensureCapacity(final int capacity) {
+            if (requestBody.length < capacity) {
+                requestBody = Arrays.copyOf(requestBody, Math.max(capacity, requestBody.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.cache.CachingOpenFgaClient;
+import com.valkryst.benchmark.cache.CheckCache;
+import com.valkryst.benchmark.dataset.KeySelector;
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import com.valkryst.benchmark.dataset.ZipfianKeySelector;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Measures whether a client-side cache, in front of {@code check}, is worth its staleness risk. Each check selects
+ *     a tuple from a working set, with a Zipfian distribution, and reports whether it was served from the cache.
+ * </p>
+ *
+ * <p>
+ *     The hit ratio is {@code hits / (hits + misses)}. The {@code none} policy sends every check to the OpenFGA API,
+ *     and is the baseline for the latency of a miss. The number of cached results, and their estimated heap footprint,
+ *     are reported by the {@code checkCache.entries} and {@code checkCache.footprint} secondary results.
+ * </p>
+ *
+ * <p>
+ *     To measure the effect of invalidation, any other benchmark can be run with a cache by setting the
+ *     {@code OPENFGA_CHECK_CACHE} environment variable. e.g. {@link MixedWorkload}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckCacheBenchmark extends BenchmarkBase {
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Eviction policy of the cache. Either {@code none}, {@code lru}, or {@code tinylfu}. */
+    @Param({"none", "lru", "tinylfu"})
+    public String cachePolicy;
+
+    /** Maximum number of cached results. */
+    @Param("10000")
+    public int cacheSize;
+
+    /** Time, in seconds, after which a cached result expires. */
+    @Param("60")
+    public int ttlSeconds;
+
+    /** Number of distinct tuples which are checked. */
+    @Param({"1000", "100000"})
+    public int workingSet;
+
+    /** Skew of the distribution used to select tuples. Larger values concentrate more checks on fewer tuples. */
+    @Param({"0.5", "0.99"})
+    public double zipfTheta;
+
+    /** Tuples in the working set. */
+    private UserReportDataset dataset;
+
+    /** Selects tuples from the working set. */
+    private KeySelector keySelector;
+
+    @Setup
+    public void setup() {
+        if (!cachePolicy.equals("none")) {
+            super.useCheckCache(CheckCache.of(cachePolicy, cacheSize, Duration.ofSeconds(ttlSeconds)));
+        }
+
+        dataset = new UserReportDataset(seed, workingSet);
+        keySelector = new ZipfianKeySelector(workingSet, zipfTheta);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmark(final Counters counters) {
+        final var response = super.checkOpenFGA(dataset.tuple(keySelector.next()), true);
+
+        if (response.getHeaders() != null && response.getHeaders().containsKey(CachingOpenFgaClient.CACHE_HEADER)) {
+            counters.hits++;
+        } else {
+            counters.misses++;
+        }
+    }
+
+    /** Number of checks, on each thread, which were and weren't served from the cache. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        /** Number of checks which were served from the cache. */
+        public long hits;
+
+        /** Number of checks which were sent to the OpenFGA API. */
+        public long misses;
+    }
+}
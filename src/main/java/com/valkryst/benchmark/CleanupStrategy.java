@@ -0,0 +1,35 @@
+package com.valkryst.benchmark;
+
+import java.util.Locale;
+
+/**
+ * <p>How a benchmark removes the tuples that it wrote, once it's finished.</p>
+ *
+ * <p>It is read from the {@code OPENFGA_CLEANUP_STRATEGY} environment variable, and defaults to {@link #TUPLES}.</p>
+ */
+public enum CleanupStrategy {
+    /**
+     * Deletes each tuple with the {@link BulkLoader}. This leaves the datastore as it was before the benchmark, but
+     * takes roughly as long as writing the tuples did.
+     */
+    TUPLES,
+
+    /**
+     * Deletes the benchmark's store, which takes a single request. OpenFGA only marks the store as deleted, so its
+     * tuples remain in the datastore until it is reset, and may affect the performance of later benchmarks.
+     */
+    STORE;
+
+    /** @return The strategy in the {@code OPENFGA_CLEANUP_STRATEGY} environment variable. */
+    public static CleanupStrategy fromEnvironment() {
+        final var value = Environment.getString("OPENFGA_CLEANUP_STRATEGY", TUPLES.name());
+
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            System.err.println("The OPENFGA_CLEANUP_STRATEGY environment variable must be either tuples or store, but it was: " + value);
+            System.exit(1);
+            return TUPLES;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.TimeBoundGrantDataset;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Looks up relationships which are granted for a limited time, by a tuple with a condition, so that the cost of
+ *     evaluating the condition can be compared against the unconditioned lookups of {@link RelationshipLookup}.
+ * </p>
+ *
+ * <p>
+ *     Each check sends the current time as its context, see {@link TimeBoundGrantDataset}. The same number of tuples is
+ *     written as by {@link RelationshipLookup}, half of whose grants are active, and half of whose have expired.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class ConditionalRelationshipLookup extends BenchmarkBase {
+    /** The number of relationships to write to the OpenFGA API, before the benchmark begins. */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Tuples which can be used to lookup relationships, both active, expired, and non-existent. */
+    private TimeBoundGrantDataset dataset;
+
+    /** Number of active lookups which have been performed. */
+    private final AtomicLong activeLookups = new AtomicLong();
+
+    /** Number of expired lookups which have been performed. */
+    private final AtomicLong expiredLookups = new AtomicLong();
+
+    /** Number of non-existent lookups which have been performed. */
+    private final AtomicLong nonExistentLookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        super.useAuthorizationModel("time-bound-grant");
+
+        dataset = new TimeBoundGrantDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkActiveGrants() {
+        super.checkOpenFGA(dataset.active(activeLookups.getAndIncrement()), null, TimeBoundGrantDataset.CONTEXT, true);
+    }
+
+    @Benchmark
+    public void benchmarkExpiredGrants() {
+        super.checkOpenFGA(dataset.expired(expiredLookups.getAndIncrement()), null, TimeBoundGrantDataset.CONTEXT, false);
+    }
+
+    @Benchmark
+    public void benchmarkNonexistentRelationships() {
+        super.checkOpenFGA(dataset.nonExistent(nonExistentLookups.getAndIncrement()), null, TimeBoundGrantDataset.CONTEXT, false);
+    }
+}
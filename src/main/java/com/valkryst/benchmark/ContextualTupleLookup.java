@@ -0,0 +1,98 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Looks up the same relationships as {@link RelationshipLookup}, but sends contextual tuples with each check, so
+ *     that the cost of the contextual tuples can be compared against its lookups.
+ * </p>
+ *
+ * <p>
+ *     The contextual tuples grant other users the same relation to the checked report, so the server must consider
+ *     them while resolving the check, but they never change its result. With {@code 0} contextual tuples, the checks
+ *     are identical to those of {@link RelationshipLookup}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class ContextualTupleLookup extends BenchmarkBase {
+    /** The number of relationships to write to the OpenFGA API, before the benchmark begins. */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Number of contextual tuples to send with each check. */
+    @Param({"0", "1", "10", "50"})
+    public int contextualTuples;
+
+    /** Tuples which can be used to lookup relationships, both existent and non-existent. */
+    private UserReportDataset dataset;
+
+    /** Users of the contextual tuples, which are drawn from the users of the dataset. */
+    private String[] contextualUsers;
+
+    /** Number of existent lookups which have been performed. */
+    private final AtomicLong existentLookups = new AtomicLong();
+
+    /** Number of non-existent lookups which have been performed. */
+    private final AtomicLong nonExistentLookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        dataset = new UserReportDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+
+        // The non-existent lookups use users from outside of the dataset, so they can never be granted by these.
+        contextualUsers = new String[contextualTuples];
+        for (int i = 0 ; i < contextualTuples ; i++) {
+            contextualUsers[i] = dataset.tuple(TOTAL_PRECREATED_RELATIONSHIPS - 1 - i).getUser();
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkExistingRelationships() {
+        final var tuple = dataset.existent(existentLookups.getAndIncrement());
+        super.checkOpenFGA(tuple, contextualTuplesFor(tuple), null, true);
+    }
+
+    @Benchmark
+    public void benchmarkNonexistentRelationships() {
+        final var tuple = dataset.nonExistent(nonExistentLookups.getAndIncrement());
+        super.checkOpenFGA(tuple, contextualTuplesFor(tuple), null, false);
+    }
+
+    /**
+     * Constructs the contextual tuples of a check.
+     *
+     * @param tuple Tuple to check.
+     * @return The contextual tuples, or {@code null} if there are none.
+     */
+    private List<ClientTupleKey> contextualTuplesFor(final ClientTupleKey tuple) {
+        if (contextualTuples == 0) {
+            return null;
+        }
+
+        final var tuples = new ArrayList<ClientTupleKey>(contextualTuples);
+        for (final var user : contextualUsers) {
+            final var contextualTuple = new ClientTupleKey();
+            contextualTuple.user(user);
+            contextualTuple.relation(UserReportDataset.RELATION);
+            contextualTuple._object(tuple.getObject());
+            tuples.add(contextualTuple);
+        }
+        return tuples;
+    }
+}
@@ -0,0 +1,335 @@
+package com.valkryst.benchmark;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import lombok.NonNull;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Writes, or deletes, large numbers of tuples directly in OpenFGA's Postgres datastore.</p>
+ *
+ * <p>
+ *     Tuples are streamed into the {@code tuple} table with {@code COPY}, and a matching write is then inserted into
+ *     the {@code changelog} table, in the same transaction, as OpenFGA itself would record it. This avoids the
+ *     per-request limits of the API, so tens of millions of tuples can be seeded in minutes rather than hours. Once the
+ *     tuples are written, both tables are analyzed so that Postgres plans the benchmark's queries against their new
+ *     size.
+ * </p>
+ *
+ * <p>
+ *     The tuples aren't validated against the authorization model, and tuples with conditions aren't supported, as
+ *     OpenFGA stores their context as a serialized protobuf. The datastore is read from the {@code DATASTORE_JDBC_URL}
+ *     environment variable, e.g. {@code jdbc:postgresql://postgres:5432/postgres?user=postgres&password=password}.
+ * </p>
+ *
+ * <p>This should only be used during setup and teardown. It is not meant to be benchmarked.</p>
+ */
+public class DatastoreSeeder {
+    /** Number of characters of rows to buffer before they're sent to Postgres. */
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    /** Columns of the {@code tuple} table which are written. Any other columns must be nullable, or have a default. */
+    private static final List<String> TUPLE_COLUMNS = List.of("store", "object_type", "object_id", "relation", "_user", "user_type", "ulid", "inserted_at");
+
+    /** Columns of the {@code changelog} table which are written. Any other columns must be nullable, or have a default. */
+    private static final List<String> CHANGELOG_COLUMNS = List.of("store", "object_type", "object_id", "relation", "_user", "operation", "ulid", "inserted_at");
+
+    /** Value of the {@code operation} column of a write, in the {@code changelog} table. */
+    private static final int WRITE_OPERATION = 0;
+
+    /** Characters of the Crockford base 32 encoding, which OpenFGA uses for its ULIDs. */
+    private static final char[] CROCKFORD_BASE_32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    /** JDBC URL of the datastore, including its credentials. */
+    private final String jdbcUrl;
+
+    /** Constructs a new DatastoreSeeder, configured by the {@code DATASTORE_JDBC_URL} environment variable. */
+    public DatastoreSeeder() {
+        this(Environment.getString("DATASTORE_JDBC_URL", null));
+    }
+
+    /**
+     * Constructs a new DatastoreSeeder.
+     *
+     * @param jdbcUrl JDBC URL of the datastore, including its credentials.
+     */
+    public DatastoreSeeder(final String jdbcUrl) {
+        if (jdbcUrl == null) {
+            System.err.println("The DATASTORE_JDBC_URL environment variable must be set to seed tuples directly into the datastore.");
+            System.exit(1);
+        }
+
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    /**
+     * Writes tuples, and their changes, directly to the datastore in a single transaction.
+     *
+     * @param storeId ID of the store to write the tuples to. It must already exist.
+     * @param tuples Tuples to write. They are consumed as needed, so they don't all need to be in memory at once.
+     * @return Statistics about the write.
+     */
+    public BulkLoader.Result write(final @NonNull String storeId, final @NonNull Iterator<? extends ClientTupleKey> tuples) {
+        final long startTime = System.nanoTime();
+        long totalTuples = 0;
+
+        try (final var connection = DriverManager.getConnection(jdbcUrl)) {
+            verifyColumns(connection, "tuple", TUPLE_COLUMNS);
+            verifyColumns(connection, "changelog", CHANGELOG_COLUMNS);
+
+            connection.setAutoCommit(false);
+
+            final var ulids = new UlidGenerator();
+            String firstUlid = null;
+            String lastUlid = null;
+
+            final var copy = copyIn(connection, "tuple", TUPLE_COLUMNS);
+            try {
+                final var insertedAt = OffsetDateTime.now(ZoneOffset.UTC).toString();
+                final var rows = new StringBuilder(FLUSH_THRESHOLD + 1024);
+
+                while (tuples.hasNext()) {
+                    final var tuple = tuples.next();
+                    if (tuple.getCondition() != null) {
+                        throw new IllegalArgumentException("tuples with conditions can't be seeded directly into the datastore: " + tuple.getUser() + " " + tuple.getRelation() + " " + tuple.getObject());
+                    }
+
+                    final int separator = tuple.getObject().indexOf(':');
+                    final var objectType = tuple.getObject().substring(0, separator);
+                    final var objectId = tuple.getObject().substring(separator + 1);
+                    lastUlid = ulids.next();
+                    if (firstUlid == null) {
+                        firstUlid = lastUlid;
+                    }
+
+                    appendRow(rows, storeId, objectType, objectId, tuple.getRelation(), tuple.getUser(), tuple.getUser().contains("#") ? "userset" : "user", lastUlid, insertedAt);
+                    totalTuples++;
+
+                    if (rows.length() >= FLUSH_THRESHOLD) {
+                        flush(copy, rows);
+                    }
+                }
+
+                flush(copy, rows);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+
+            // The changes are copied from the tuples which were just written, in the same transaction, so that the
+            // changelog can't disagree with the tuples. The ULIDs increase monotonically, so they bound this seeding's
+            // tuples, even if the store already had some.
+            if (firstUlid != null) {
+                try (final var statement = connection.prepareStatement(
+                    "INSERT INTO changelog (" + String.join(", ", CHANGELOG_COLUMNS) + ") " +
+                    "SELECT store, object_type, object_id, relation, _user, " + WRITE_OPERATION + ", ulid, inserted_at " +
+                    "FROM tuple WHERE store = ? AND ulid BETWEEN ? AND ?"
+                )) {
+                    statement.setString(1, storeId);
+                    statement.setString(2, firstUlid);
+                    statement.setString(3, lastUlid);
+                    statement.executeUpdate();
+                }
+            }
+
+            connection.commit();
+
+            connection.setAutoCommit(true);
+            try (final var statement = connection.createStatement()) {
+                statement.execute("ANALYZE tuple");
+                statement.execute("ANALYZE changelog");
+            }
+        } catch (final SQLException | IllegalArgumentException | IllegalStateException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        final var result = new BulkLoader.Result(totalTuples, System.nanoTime() - startTime);
+        System.out.printf(
+            "Seeded %d tuples into the datastore in %d ms (%.0f tuples/s).%n",
+            result.tuples(), TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()), result.tuplesPerSecond()
+        );
+        return result;
+    }
+
+    /**
+     * Deletes every tuple, and every change, of a store directly from the datastore.
+     *
+     * @param storeId ID of the store.
+     */
+    public void delete(final @NonNull String storeId) {
+        final long startTime = System.nanoTime();
+
+        try (final var connection = DriverManager.getConnection(jdbcUrl)) {
+            connection.setAutoCommit(false);
+
+            int deleted = 0;
+            for (final var table : List.of("tuple", "changelog")) {
+                try (final var statement = connection.prepareStatement("DELETE FROM " + table + " WHERE store = ?")) {
+                    statement.setString(1, storeId);
+                    final int rows = statement.executeUpdate();
+                    if (table.equals("tuple")) {
+                        deleted = rows;
+                    }
+                }
+            }
+
+            connection.commit();
+            System.out.printf("Deleted %d tuples from the datastore in %d ms.%n", deleted, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        } catch (final SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Verifies that every column of a table, which isn't written, is nullable or has a default. This catches changes to
+     * OpenFGA's schema, which would otherwise fail part-way through a long {@code COPY}.
+     *
+     * @param connection Connection to the datastore.
+     * @param table Name of the table.
+     * @param writtenColumns Columns which are written.
+     * @throws IllegalStateException If the table doesn't exist, or has a required column which isn't written.
+     */
+    private static void verifyColumns(final Connection connection, final String table, final List<String> writtenColumns) throws SQLException {
+        final var required = new ArrayList<String>();
+        boolean exists = false;
+
+        try (final var statement = connection.prepareStatement("SELECT column_name, is_nullable, column_default FROM information_schema.columns WHERE table_name = ? AND table_schema = current_schema()")) {
+            statement.setString(1, table);
+            try (final var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    exists = true;
+
+                    final var column = resultSet.getString(1);
+                    if ("NO".equals(resultSet.getString(2)) && resultSet.getString(3) == null && !writtenColumns.contains(column)) {
+                        required.add(column);
+                    }
+                }
+            }
+        }
+
+        if (!exists) {
+            throw new IllegalStateException("the " + table + " table doesn't exist, have OpenFGA's migrations been run?");
+        }
+
+        if (!required.isEmpty()) {
+            throw new IllegalStateException("the " + table + " table has required columns which aren't supported: " + required);
+        }
+    }
+
+    /**
+     * Begins a {@code COPY} into a table, in Postgres' text format.
+     *
+     * @param connection Connection to the datastore.
+     * @param table Name of the table.
+     * @param columns Columns of each row, in order.
+     * @return The copy operation.
+     */
+    private static CopyIn copyIn(final Connection connection, final String table, final List<String> columns) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN");
+    }
+
+    /**
+     * Appends a row, in Postgres' {@code COPY} text format.
+     *
+     * @param rows Rows to append the row to.
+     * @param values Value of each column of the row.
+     */
+    private static void appendRow(final StringBuilder rows, final String... values) {
+        for (int i = 0 ; i < values.length ; i++) {
+            if (i > 0) {
+                rows.append('\t');
+            }
+
+            final var value = values[i];
+            for (int j = 0 ; j < value.length() ; j++) {
+                final char c = value.charAt(j);
+                switch (c) {
+                    case '\\' -> rows.append("\\\\");
+                    case '\t' -> rows.append("\\t");
+                    case '\n' -> rows.append("\\n");
+                    case '\r' -> rows.append("\\r");
+                    default -> rows.append(c);
+                }
+            }
+        }
+
+        rows.append('\n');
+    }
+
+    /**
+     * Sends buffered rows to Postgres, and clears the buffer.
+     *
+     * @param copy The copy operation.
+     * @param rows The rows.
+     */
+    private static void flush(final CopyIn copy, final StringBuilder rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        final var bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    /**
+     * Generates ULIDs which share the time at which the generator was created, and which increase monotonically, so that
+     * the changes are read back in the order in which they were seeded.
+     */
+    private static class UlidGenerator {
+        /** First 10 characters of each ULID, which encode the time at which the generator was created. */
+        private final char[] time = new char[10];
+
+        /** Random bits which precede the counter, so that separate seedings don't generate the same ULIDs. */
+        private final int prefix = new SecureRandom().nextInt(1 << 15);
+
+        /** Number of ULIDs which have been generated. */
+        private long counter = 0;
+
+        /** Constructs a new UlidGenerator. */
+        private UlidGenerator() {
+            long millis = System.currentTimeMillis();
+            for (int i = 9 ; i >= 0 ; i--) {
+                time[i] = CROCKFORD_BASE_32[(int) (millis & 31)];
+                millis >>>= 5;
+            }
+        }
+
+        /** @return The next ULID. */
+        private String next() {
+            final var ulid = new char[26];
+            System.arraycopy(time, 0, ulid, 0, time.length);
+
+            // The last 16 characters encode 80 bits, the 15 bit prefix followed by the counter in the lower 65 bits.
+            long low = counter++;
+            for (int i = 25 ; i >= 13 ; i--) {
+                ulid[i] = CROCKFORD_BASE_32[(int) (low & 31)];
+                low >>>= 5;
+            }
+
+            int high = prefix;
+            for (int i = 12 ; i >= 10 ; i--) {
+                ulid[i] = CROCKFORD_BASE_32[high & 31];
+                high >>>= 5;
+            }
+
+            return new String(ulid);
+        }
+    }
+}
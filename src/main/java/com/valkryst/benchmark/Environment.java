@@ -0,0 +1,46 @@
+package com.valkryst.benchmark;
+
+import lombok.NonNull;
+
+/** Helper functions for reading the benchmark configuration from environment variables. */
+public final class Environment {
+    private Environment() {}
+
+    /**
+     * Retrieves the value of an environment variable, as an integer.
+     *
+     * @param name Name of the environment variable.
+     * @param defaultValue Value to use if the environment variable is not set.
+     * @return The value of the environment variable, or the default value if it is not set.
+     */
+    public static int getInt(final @NonNull String name, final int defaultValue) {
+        final var value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException e) {
+            System.err.println("The " + name + " environment variable must be an integer, but it was: " + value);
+            System.exit(1);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retrieves the value of an environment variable.
+     *
+     * @param name Name of the environment variable.
+     * @param defaultValue Value to use if the environment variable is not set.
+     * @return The value of the environment variable, or the default value if it is not set.
+     */
+    public static String getString(final @NonNull String name, final String defaultValue) {
+        final var value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        return value.trim();
+    }
+}
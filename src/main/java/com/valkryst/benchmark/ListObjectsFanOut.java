@@ -0,0 +1,76 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.FanOutDataset;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Measures how the latency of a ListObjects call grows with the number of objects which it returns, and with the
+ *     number of group hierarchy levels which must be traversed to reach them.
+ * </p>
+ *
+ * <p>
+ *     OpenFGA limits the number of results which ListObjects returns, and the time which it may take, with the
+ *     {@code --listObjects-max-results} and {@code --listObjects-deadline} settings. Both must be large enough to allow
+ *     the largest {@link #fanOut}, otherwise the response will be incomplete and the benchmark will fail.
+ * </p>
+ *
+ * <p>
+ *     ListUsers is not benchmarked, as the version of the OpenFGA SDK which we use does not support it.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListObjectsFanOut extends BenchmarkBase {
+    /**
+     * The number of users to create. Lookups cycle through the users, so that repeated lookups aren't all for the same
+     * user.
+     */
+    private static final int TOTAL_USERS = 10;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Number of reports which each user can read. */
+    @Param({"10", "1000", "10000"})
+    public int fanOut;
+
+    /**
+     * Number of groups between each user and their reports. When this is {@code 0}, each user is a direct reader of
+     * their reports.
+     */
+    @Param({"0", "1", "3"})
+    public int hierarchyDepth;
+
+    /** Users, and the reports which they can read. */
+    private FanOutDataset dataset;
+
+    /** Number of lookups which have been performed. */
+    private final AtomicLong lookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        dataset = new FanOutDataset(seed, TOTAL_USERS, fanOut, hierarchyDepth);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkListObjects() {
+        final var objects = super.listObjectsFromOpenFGA(dataset.user(lookups.getAndIncrement()), "reader", "report");
+
+        if (objects.size() != fanOut) {
+            System.err.println("Expected " + fanOut + " objects, but found " + objects.size() + ". Check OpenFGA's --listObjects-max-results and --listObjects-deadline settings.");
+            System.exit(1);
+        }
+    }
+}
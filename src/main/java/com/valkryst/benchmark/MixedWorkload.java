@@ -0,0 +1,187 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.KeySelector;
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import dev.openfga.sdk.api.client.model.ClientWriteRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * <p>
+ *     Runs checks, writes, and deletes at the same time, against the same set of tuples, to measure how writes affect
+ *     check latency and the effectiveness of OpenFGA's caches.
+ * </p>
+ *
+ * <p>
+ *     Each operation is chosen at random, according to the {@link #checkPercent}, {@link #writePercent}, and
+ *     {@link #deletePercent}. By default, 95% of the operations are checks, and 5% are writes or deletes, but this can be
+ *     changed with JMH's {@code -p} option, e.g. {@code -p checkPercent=90 -p writePercent=5 -p deletePercent=5}. Every
+ *     thread sends every operation, so the mix doesn't depend on the latency of each operation. The achieved mix is
+ *     reported by the {@code checks}, {@code writes}, and {@code deletes} counters of each iteration.
+ * </p>
+ *
+ * <p>
+ *     All three operations select their tuples from the same key space, using the {@link #keyDistribution}, so when the
+ *     distribution is skewed, the hot tuples are checked, written, and deleted concurrently. Writes and deletes search
+ *     forward from the selected key for a tuple which is absent or present, respectively.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(40)
+public class MixedWorkload extends BenchmarkBase {
+    /** Number of tuples in the key space. Half of them are written to the OpenFGA API before the benchmark begins. */
+    private static final int KEY_SPACE = 100_000;
+
+    /** State of a key whose tuple has not been written to the OpenFGA API. */
+    private static final int ABSENT = 0;
+
+    /** State of a key whose tuple has been written to the OpenFGA API. */
+    private static final int PRESENT = 1;
+
+    /** State of a key whose tuple is currently being written to, or deleted from, the OpenFGA API. */
+    private static final int BUSY = 2;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Distribution used to select keys. Either {@code uniform}, {@code zipfian}, or {@code hotspot}. */
+    @Param({"uniform", "zipfian", "hotspot"})
+    public String keyDistribution;
+
+    /** Percentage of the operations which are checks. */
+    @Param("95")
+    public double checkPercent;
+
+    /** Percentage of the operations which are writes. */
+    @Param("2.5")
+    public double writePercent;
+
+    /** Percentage of the operations which are deletes. */
+    @Param("2.5")
+    public double deletePercent;
+
+    /** Tuples in the key space. */
+    private UserReportDataset dataset;
+
+    /** Selects keys from the key space. */
+    private KeySelector keySelector;
+
+    /** State of each key in the key space. */
+    private final AtomicIntegerArray states = new AtomicIntegerArray(KEY_SPACE);
+
+    @Setup
+    public void setup() {
+        if (checkPercent < 0 || writePercent < 0 || deletePercent < 0 || checkPercent + writePercent + deletePercent != 100) {
+            System.err.println("checkPercent, writePercent, and deletePercent must not be negative, and must add up to 100.");
+            System.exit(1);
+        }
+
+        dataset = new UserReportDataset(seed, KEY_SPACE);
+        keySelector = KeySelector.of(keyDistribution, KEY_SPACE);
+
+        // Every second key starts out present, so that both the hot and cold keys have tuples to check and delete.
+        super.bulkLoader.write(LongStream.range(0, KEY_SPACE / 2).mapToObj(i -> dataset.tuple(i * 2)).iterator());
+        for (int i = 0 ; i < KEY_SPACE ; i += 2) {
+            states.set(i, PRESENT);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        super.deleteTuples(
+            IntStream.range(0, KEY_SPACE)
+                     .filter(i -> states.get(i) == PRESENT)
+                     .mapToObj(dataset::tuple)
+                     .iterator()
+        );
+        super.teardown();
+    }
+
+    @Benchmark
+    public void mixed(final Operations operations) {
+        final double operation = ThreadLocalRandom.current().nextDouble(100);
+
+        if (operation < checkPercent) {
+            check();
+            operations.checks++;
+        } else if (operation < checkPercent + writePercent) {
+            write();
+            operations.writes++;
+        } else {
+            delete();
+            operations.deletes++;
+        }
+    }
+
+    /** Checks a tuple in the key space. */
+    private void check() {
+        // The tuple may be written or deleted at any moment, so we can't verify whether the relationship exists.
+        super.checkOpenFGA(dataset.tuple(keySelector.next()));
+    }
+
+    /** Writes a tuple which is absent from the OpenFGA API. */
+    private void write() {
+        final int key = claim(ABSENT);
+        super.writeToOpenFGA(new ClientWriteRequest().writes(List.of(dataset.tuple(key))));
+        states.set(key, PRESENT);
+    }
+
+    /** Deletes a tuple which is present in the OpenFGA API. */
+    private void delete() {
+        final int key = claim(PRESENT);
+        super.writeToOpenFGA(new ClientWriteRequest().deletes(List.of(dataset.tuple(key))));
+        states.set(key, ABSENT);
+    }
+
+    /**
+     * Selects a key, then searches forward from it for a key in the given state, and marks it as {@link #BUSY} so that
+     * no other thread can write or delete its tuple.
+     *
+     * @param state State of the key to claim.
+     * @return The claimed key.
+     */
+    private int claim(final int state) {
+        final int start = (int) keySelector.next();
+
+        for (int i = 0 ; i < KEY_SPACE ; i++) {
+            final int key = (start + i) % KEY_SPACE;
+            if (states.compareAndSet(key, state, BUSY)) {
+                return key;
+            }
+        }
+
+        System.err.println("Failed to find a key in state " + state + ". Try increasing KEY_SPACE.");
+        System.exit(1);
+        return -1;
+    }
+
+    /** Number of each operation which was sent, so that the achieved mix is reported alongside the primary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Operations {
+        /** Number of checks which were sent, in the current iteration. */
+        public long checks;
+
+        /** Number of writes which were sent, in the current iteration. */
+        public long writes;
+
+        /** Number of deletes which were sent, in the current iteration. */
+        public long deletes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            checks = 0;
+            writes = 0;
+            deletes = 0;
+        }
+    }
+}
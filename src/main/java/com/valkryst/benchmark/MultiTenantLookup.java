@@ -0,0 +1,115 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import dev.openfga.sdk.api.client.OpenFgaClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Measures checks against a multi-tenant deployment, in which each tenant has its own store, authorization model,
+ *     and dataset. The total number of tuples is the same for every number of {@link #stores}, so the results with
+ *     many stores can be compared with those of a single store which holds the same volume of tuples.
+ * </p>
+ *
+ * <p>
+ *     Tenants aren't equally busy, so each check is sent to a tenant drawn from a Zipf distribution, whose exponent is
+ *     the {@link #skew}. With a skew of {@code 0} every tenant is equally likely, and as it grows the checks are
+ *     concentrated on fewer tenants. The check query cache's hit ratio is reported by the
+ *     {@link com.valkryst.benchmark.metrics.ServerMetricsProfiler}, when the server's metrics are available.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MultiTenantLookup extends BenchmarkBase {
+    /** Seed of the first tenant's dataset. Each tenant's dataset uses the next seed. */
+    @Param("1")
+    public long seed;
+
+    /** Number of tenants, each with its own store. */
+    @Param({"1", "10", "100", "1000", "5000"})
+    public int stores;
+
+    /** Total number of tuples, which are split evenly between the tenants. */
+    @Param("100000")
+    public long tuples;
+
+    /** Exponent of the Zipf distribution from which the tenant of each check is drawn. */
+    @Param({"0", "1"})
+    public double skew;
+
+    /** Client of each tenant, in order of popularity. */
+    private OpenFgaClient[] clients;
+
+    /** Dataset of each tenant, in the same order as the {@link #clients}. */
+    private UserReportDataset[] datasets;
+
+    /** Probability that a check is sent to each tenant, or any tenant before it. */
+    private double[] cumulativeProbabilities;
+
+    /** Number of existent lookups which have been performed. */
+    private final AtomicLong existentLookups = new AtomicLong();
+
+    /** Number of non-existent lookups which have been performed. */
+    private final AtomicLong nonExistentLookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        if (stores < 1) {
+            throw new IllegalArgumentException("stores must be greater than or equal to 1.");
+        }
+
+        final long tuplesPerStore = Math.max(1, tuples / stores);
+
+        clients = new OpenFgaClient[stores];
+        datasets = new UserReportDataset[stores];
+        for (int i = 0 ; i < stores ; i++) {
+            datasets[i] = new UserReportDataset(seed + i, tuplesPerStore);
+            clients[i] = super.createTenant(datasets[i]);
+        }
+
+        cumulativeProbabilities = new double[stores];
+        double total = 0;
+        for (int i = 0 ; i < stores ; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulativeProbabilities[i] = total;
+        }
+
+        for (int i = 0 ; i < stores ; i++) {
+            cumulativeProbabilities[i] /= total;
+        }
+
+        System.out.println("Created " + stores + " tenants, each with " + tuplesPerStore + " tuples.");
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkExistingRelationships() {
+        final int tenant = nextTenant();
+        super.checkOpenFGA(clients[tenant], datasets[tenant].existent(existentLookups.getAndIncrement()), true);
+    }
+
+    @Benchmark
+    public void benchmarkNonexistentRelationships() {
+        final int tenant = nextTenant();
+        super.checkOpenFGA(clients[tenant], datasets[tenant].nonExistent(nonExistentLookups.getAndIncrement()), false);
+    }
+
+    /** @return Index of the tenant to which the next check is sent. */
+    private int nextTenant() {
+        final int index = Arrays.binarySearch(cumulativeProbabilities, ThreadLocalRandom.current().nextDouble());
+
+        // When the value isn't found, binarySearch returns -(insertion point) - 1, and the insertion point is the first
+        // tenant whose cumulative probability is greater than the value.
+        return Math.min(index < 0 ? -index - 1 : index, stores - 1);
+    }
+}
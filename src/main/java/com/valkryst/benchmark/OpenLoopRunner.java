@@ -0,0 +1,252 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import dev.openfga.sdk.api.client.model.ClientCheckRequest;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.client.model.ClientWriteRequest;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Runs checks, or writes, against the OpenFGA API at a series of constant arrival rates.</p>
+ *
+ * <p>
+ *     The JMH benchmarks are closed-loop; each thread waits for its request to complete before sending the next, so
+ *     when the server stalls, fewer requests are sent and the stall is hidden from the results. This is known as
+ *     coordinated omission.
+ * </p>
+ *
+ * <p>
+ *     This runner is open-loop. Requests are sent on a fixed schedule, without waiting for earlier requests to
+ *     complete, and each request's latency is measured from the time at which it <i>should</i> have been sent. If the
+ *     runner falls behind the schedule, then the delay is included in the latency of the late requests.
+ * </p>
+ *
+ * <p>It is configured with the following environment variables:</p>
+ *
+ * <ul>
+ *     <li>{@code OPEN_LOOP_OPERATION} - Either {@code check} or {@code write}. Defaults to {@code check}.</li>
+ *     <li>{@code OPEN_LOOP_RATES} - Comma-separated list of target rates, in requests per second.</li>
+ *     <li>{@code OPEN_LOOP_WARMUP_SECONDS} - Time to run at each rate before recording latencies.</li>
+ *     <li>{@code OPEN_LOOP_STEP_SECONDS} - Time to record latencies at each rate.</li>
+ *     <li>{@code OPEN_LOOP_MAX_IN_FLIGHT} - Maximum number of requests in flight. Requests which would exceed this are dropped, and counted as such.</li>
+ * </ul>
+ *
+ * <p>
+ *     A dropped request has no latency, and requests are only dropped when the server has stalled, so recording the
+ *     others alone would hide the stall. A step which drops any request is reported as saturated, without percentiles.
+ * </p>
+ *
+ * <pre>{@code java -cp benchmarks.jar com.valkryst.benchmark.OpenLoopRunner}</pre>
+ */
+public class OpenLoopRunner extends BenchmarkBase {
+    /** The number of relationships to write to the OpenFGA API, before the checks begin. */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Default target rates, in requests per second. */
+    private static final String DEFAULT_RATES = "500,1000,2000,5000,10000,20000";
+
+    /** Tuples which can be checked or written. */
+    private final UserReportDataset dataset = new UserReportDataset(1, TOTAL_PRECREATED_RELATIONSHIPS);
+
+    /** Whether to send writes rather than checks. */
+    private final boolean writes;
+
+    /** Number of requests which have been sent, across all steps. Used to select the next tuple. */
+    private long requests = 0;
+
+    /** Tuples which have been written by the write operation, and which must be deleted. */
+    private final Queue<ClientTupleKey> writtenTuples = new ConcurrentLinkedQueue<>();
+
+    /** Records the latency of each completed request which was sent during the measurement, in nanoseconds. */
+    private final Recorder recorder = new Recorder(3);
+
+    /** Number of requests currently in flight. */
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /** Number of requests which were sent during the measurement of the current step, and which failed. */
+    private final AtomicLong errors = new AtomicLong();
+
+    public OpenLoopRunner() {
+        final var operation = Environment.getString("OPEN_LOOP_OPERATION", "check");
+        switch (operation) {
+            case "check" -> writes = false;
+            case "write" -> writes = true;
+            default -> {
+                System.err.println("OPEN_LOOP_OPERATION must be either 'check' or 'write', but it was: " + operation);
+                System.exit(1);
+                throw new IllegalStateException();
+            }
+        }
+
+        // Checks are made against the pre-created relationships, so they must exist before the first step.
+        if (!writes) {
+            super.bulkLoader.write(dataset.iterator());
+        }
+    }
+
+    public static void main(final String[] args) {
+        final var runner = new OpenLoopRunner();
+
+        final var results = new ArrayList<String>();
+        for (final var rate : Environment.getString("OPEN_LOOP_RATES", DEFAULT_RATES).split(",")) {
+            results.add(runner.runStep(Integer.parseInt(rate.trim())));
+        }
+
+        runner.teardown();
+
+        System.out.println();
+        System.out.printf("%10s %10s %10s %8s %8s %10s %10s %10s %10s%n", "Rate", "Achieved", "Completed", "Errors", "Dropped", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "Max (ms)");
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    /**
+     * Sends requests at a constant rate, first for the warmup period and then for the measurement period.
+     *
+     * @param rate Target rate, in requests per second.
+     * @return Formatted results of the step.
+     */
+    private String runStep(final int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("rate must be greater than or equal to 1.");
+        }
+
+        final long warmupNanos = TimeUnit.SECONDS.toNanos(Environment.getInt("OPEN_LOOP_WARMUP_SECONDS", 5));
+        final long stepNanos = TimeUnit.SECONDS.toNanos(Environment.getInt("OPEN_LOOP_STEP_SECONDS", 30));
+        final long maxInFlight = Environment.getInt("OPEN_LOOP_MAX_IN_FLIGHT", 10_000);
+        final double intervalNanos = 1_000_000_000d / rate;
+
+        System.out.printf("Running at %d req/s.%n", rate);
+
+        final long startTime = System.nanoTime();
+        final long measurementStartTime = startTime + warmupNanos;
+        final long endTime = measurementStartTime + stepNanos;
+
+        long sent = 0;
+        long dropped = 0;
+        errors.set(0);
+
+        while (true) {
+            final long intendedTime = startTime + (long) (sent * intervalNanos);
+            if (intendedTime >= endTime) {
+                break;
+            }
+
+            // Requests sent during the warmup may complete during the measurement, so each is judged by its schedule.
+            final boolean measured = intendedTime >= measurementStartTime;
+
+            final long delay = intendedTime - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            sent++;
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped++;
+                }
+
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            send().whenComplete((success, throwable) -> {
+                if (measured) {
+                    recorder.recordValue(System.nanoTime() - intendedTime);
+
+                    if (throwable != null || !Boolean.TRUE.equals(success)) {
+                        errors.incrementAndGet();
+                    }
+                }
+
+                inFlight.decrementAndGet();
+            });
+        }
+
+        // Wait for the remaining requests to complete, so that their latencies are included.
+        while (inFlight.get() > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // Only the requests sent during the measurement were recorded, so the rate is theirs alone.
+        final Histogram histogram = recorder.getIntervalHistogram();
+        final double achievedRate = histogram.getTotalCount() / (stepNanos / 1_000_000_000d);
+
+        if (dropped > 0) {
+            return String.format(
+                "%10d %10.0f %10d %8d %8d %10s %10s %10s %10s",
+                rate, achievedRate, histogram.getTotalCount(), errors.get(), dropped, "saturated", "-", "-", "-"
+            );
+        }
+
+        return String.format(
+            "%10d %10.0f %10d %8d %8d %10.2f %10.2f %10.2f %10.2f",
+            rate, achievedRate, histogram.getTotalCount(), errors.get(), dropped,
+            histogram.getValueAtPercentile(50) / 1_000_000d,
+            histogram.getValueAtPercentile(99) / 1_000_000d,
+            histogram.getValueAtPercentile(99.9) / 1_000_000d,
+            histogram.getMaxValue() / 1_000_000d
+        );
+    }
+
+    /**
+     * Sends the next request, without waiting for it to complete.
+     *
+     * @return A future which completes with whether the request succeeded.
+     */
+    private CompletableFuture<Boolean> send() {
+        final long request = requests++;
+
+        try {
+            if (writes) {
+                final var tuple = dataset.nonExistent(request);
+
+                final var body = new ClientWriteRequest();
+                body.writes(List.of(tuple));
+
+                return super.openFgaClient.write(body, null).thenApply(response -> {
+                    if (response.getStatusCode() != 200) {
+                        return false;
+                    }
+
+                    writtenTuples.add(tuple);
+                    return true;
+                });
+            }
+
+            final var tuple = dataset.existent(request);
+
+            final var body = new ClientCheckRequest();
+            body.user(tuple.getUser());
+            body.relation(tuple.getRelation());
+            body._object(tuple.getObject());
+
+            return super.openFgaClient.check(body, null).thenApply(
+                response -> response.getStatusCode() == 200 && Boolean.TRUE.equals(response.getAllowed())
+            );
+        } catch (final FgaInvalidParameterException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    protected void teardown() {
+        if (!writes) {
+            super.deleteTuples(dataset.iterator());
+        }
+
+        super.deleteQueue.addAll(writtenTuples);
+        super.teardown();
+    }
+}
@@ -0,0 +1,157 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.trace.ClientTracer;
+import dev.openfga.sdk.api.client.model.ClientReadChangesRequest;
+import dev.openfga.sdk.api.client.model.ClientReadRequest;
+import dev.openfga.sdk.api.configuration.ClientReadChangesOptions;
+import dev.openfga.sdk.api.configuration.ClientReadOptions;
+import dev.openfga.sdk.errors.FgaApiValidationError;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Measures how quickly a consumer can stream every tuple in a store, with Read, and the store's change feed, with
+ *     ReadChanges, one page at a time. This is the access pattern of exports, audits, and of services which mirror
+ *     OpenFGA's tuples into their own caches.
+ * </p>
+ *
+ * <p>
+ *     Each benchmark operation fetches one page, and passes its continuation token to the next operation. When the
+ *     consumer reaches the end of the tuples, or catches up with the change feed, it starts again from the first page.
+ *     The throughput mode reports pages/s, the {@code tuples} counter reports tuples/s next to it, and the sample time
+ *     mode reports the latency of each page. The GC profiler's {@code gc.alloc.rate.norm} is the number of bytes which
+ *     the consumer allocates to fetch, and deserialize, each page.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadPagination extends BenchmarkBase {
+    /** Number of groups in each hierarchy created by {@link #createGroups(int, int)}. */
+    private static final int HIERARCHY_DEPTH = 5;
+
+    /** Number of users, each with their own report, to write to the store before the benchmark begins. */
+    @Param("10000")
+    public int users;
+
+    /** Number of group hierarchies to write to the store before the benchmark begins. */
+    @Param("1000")
+    public int groups;
+
+    /** Maximum number of tuples, or changes, in each page. OpenFGA rejects page sizes above 100. */
+    @Param({"10", "50", "100"})
+    public int pageSize;
+
+    @Setup
+    public void setup() {
+        super.deleteQueue.addAll(super.createUsers(users, true));
+        super.deleteQueue.addAll(super.createGroups(groups, HIERARCHY_DEPTH));
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkRead(final Cursor cursor, final Tuples tuples) {
+        final var options = new ClientReadOptions().pageSize(pageSize);
+        if (!cursor.continuationToken.isEmpty()) {
+            options.continuationToken(cursor.continuationToken);
+        }
+
+        final var trace = ClientTracer.start();
+
+        try {
+            final var response = super.openFgaClient.read(new ClientReadRequest(), options).get();
+            ClientTracer.finish(trace);
+
+            if (response.getStatusCode() != 200) {
+                System.err.println("Failed to read tuples:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+
+            tuples.tuples += response.getTuples().size();
+
+            // An empty token marks the last page.
+            final var token = response.getContinuationToken();
+            cursor.continuationToken = token == null ? "" : token;
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (final ExecutionException e) {
+            handle(e);
+        }
+    }
+
+    @Benchmark
+    public void benchmarkReadChanges(final Cursor cursor, final Tuples tuples) {
+        final var options = new ClientReadChangesOptions().pageSize(pageSize);
+        if (!cursor.continuationToken.isEmpty()) {
+            options.continuationToken(cursor.continuationToken);
+        }
+
+        final var trace = ClientTracer.start();
+
+        try {
+            final var response = super.openFgaClient.readChanges(new ClientReadChangesRequest(), options).get();
+            ClientTracer.finish(trace);
+
+            if (response.getStatusCode() != 200) {
+                System.err.println("Failed to read changes:\n" + response.getRawResponse());
+                System.exit(1);
+            }
+
+            final int changes = response.getChanges().size();
+            tuples.tuples += changes;
+
+            // The change feed never ends, so a short page means that the consumer has caught up with it.
+            cursor.continuationToken = changes < pageSize ? "" : response.getContinuationToken();
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (final ExecutionException e) {
+            handle(e);
+        }
+    }
+
+    /**
+     * Reports a failed request, and ends the benchmark.
+     *
+     * @param e The failure.
+     */
+    private static void handle(final ExecutionException e) {
+        final var cause = e.getCause();
+        if (cause instanceof FgaApiValidationError) {
+            System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
+        } else {
+            e.printStackTrace();
+        }
+
+        System.exit(1);
+    }
+
+    /** A thread's position in the tuples, or in the change feed. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        /** Continuation token of the next page, or an empty string to fetch the first page. */
+        private String continuationToken = "";
+    }
+
+    /** Number of tuples, or changes, which have been read, reported alongside the primary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tuples {
+        /** Number of tuples, or changes, in the pages read in the current iteration. */
+        public long tuples;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tuples = 0;
+        }
+    }
+}
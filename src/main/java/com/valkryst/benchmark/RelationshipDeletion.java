@@ -26,7 +26,7 @@ public class RelationshipDeletion extends BenchmarkBase {
     @Setup
     public void setup() {
         super.deleteQueue.addAll(
-            super.createUsers(TOTAL_PRECREATED_RELATIONSHIPS, 1000, true)
+            super.createUsers(TOTAL_PRECREATED_RELATIONSHIPS, true)
         );
     }
 
@@ -39,7 +39,8 @@ public class RelationshipDeletion extends BenchmarkBase {
     public void benchmark() {
         final ClientTupleKeyWithoutCondition tuple;
         try {
-            tuple = super.deleteQueue.removeFirst();
+            // Removing the last element is O(1), whereas removing the first shifts every other element of the list.
+            tuple = super.deleteQueue.removeLast();
         } catch (final NoSuchElementException e) {
             System.err.println("Failed to retrieve tuple from deleteQueue. The queue is empty. Try increasing TOTAL_PRECREATED_RELATIONSHIPS.");
             System.exit(1);
@@ -1,121 +1,65 @@
 package com.valkryst.benchmark;
 
-import dev.openfga.sdk.api.client.model.ClientCheckRequest;
-import dev.openfga.sdk.api.client.model.ClientTupleKey;
-import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import com.valkryst.benchmark.dataset.UserReportDataset;
 import org.openjdk.jmh.annotations.*;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @State(Scope.Benchmark)
 public class RelationshipLookup extends BenchmarkBase {
     /**
-     * <p>
-     *     The number of relationships to pre-create and add to the {@link #deleteQueue}, and to write to the OpenFGA
-     *     API, before the benchmark begins.
-     * </p>
+     * <p>The number of relationships to write to the OpenFGA API, before the benchmark begins.</p>
      *
      * <p>
-     *     This is a <i>magic number</i> which I decided based on an educated guess. If the benchmarks pass without
-     *     failing to retrieve a tuple from the {@link #existentLookupQueue} or {@link #nonExistentLookupQueue}, then we
-     *     can lower the number by a few thousand and re-test. It may save a few seconds, and some RAM, when running the
-     *     benchmarks.
+     *     The existent lookups cycle through these relationships, so they can't run out. If this is lowered too far,
+     *     then OpenFGA's check cache may begin to serve repeated lookups.
      * </p>
      */
     private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
 
-    /** A list of tuples which have been written to the OpenFGA API, and which can be used to lookup relationships. */
-    private final Queue<ClientTupleKey> existentLookupQueue = new ConcurrentLinkedQueue<>();
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Tuples which can be used to lookup relationships, both existent and non-existent. */
+    private UserReportDataset dataset;
+
+    /** Number of existent lookups which have been performed. */
+    private final AtomicLong existentLookups = new AtomicLong();
 
-    /** A list of tuples which <i>have not</i> been written to the OpenFGA API, and which can be used to lookup relationships. */
-    private final Queue<ClientTupleKey> nonExistentLookupQueue = new ConcurrentLinkedQueue<>();
+    /** Number of non-existent lookups which have been performed. */
+    private final AtomicLong nonExistentLookups = new AtomicLong();
 
     @Setup
     public void setup() {
-        final var users = super.createUsers(TOTAL_PRECREATED_RELATIONSHIPS, 1000, true);
-        existentLookupQueue.addAll(users);
-        super.deleteQueue.addAll(users);
-
-        nonExistentLookupQueue.addAll(
-            super.createUsers(TOTAL_PRECREATED_RELATIONSHIPS, 1000, false)
-        );
+        dataset = new UserReportDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
     }
 
     @TearDown
     public void teardown() {
         super.teardown();
-
-        existentLookupQueue.clear();
-        nonExistentLookupQueue.clear();
     }
 
     @Benchmark
     public void benchmarkExistingRelationships() {
-        final var tuple = existentLookupQueue.poll();
-        if (tuple == null) {
-            System.err.println("Failed to retrieve tuple from existentLookupQueue. The queue is empty. Try increasing TOTAL_PRECREATED_RELATIONSHIPS.");
-            System.exit(1);
-        }
-
-        final var body = new ClientCheckRequest();
-        body.user(tuple.getUser());
-        body.relation(tuple.getRelation());
-        body._object(tuple.getObject());
-
-        try {
-            final var response = super.openFgaClient.check(body, null).get();
-
-            if (response.getStatusCode() != 200) {
-                System.err.println("Failed to lookup relationship:\n" + response.getRawResponse());
-                System.exit(1);
-            }
-
-            if (Boolean.FALSE.equals(response.getAllowed())) {
-                System.err.println("Relationship does not exist, but it should:\n" + response.getRawResponse());
-                System.exit(1);
-            }
-        } catch (final FgaInvalidParameterException | InterruptedException e) {
-            e.printStackTrace();
-            System.exit(1);
-        } catch (final ExecutionException e) {
-            e.getCause().printStackTrace();
-            System.exit(1);
-        }
+        final var tuple = dataset.existent(existentLookups.getAndIncrement());
+        super.checkOpenFGA(tuple, true);
     }
 
     @Benchmark
     public void benchmarkNonexistentRelationships() {
-        final var tuple = nonExistentLookupQueue.poll();
-        if (tuple == null) {
-            System.err.println("Failed to retrieve tuple from nonexistentLookupQueue. The queue is empty. Try increasing TOTAL_PRECREATED_RELATIONSHIPS.");
-            System.exit(1);
-        }
-
-        final var body = new ClientCheckRequest();
-        body.user(tuple.getUser());
-        body.relation(tuple.getRelation());
-        body._object(tuple.getObject());
-
-        try {
-            final var response = super.openFgaClient.check(body, null).get();
+        final var tuple = dataset.nonExistent(nonExistentLookups.getAndIncrement());
+        super.checkOpenFGA(tuple, false);
+    }
 
-            if (response.getStatusCode() != 200) {
-                System.err.println("Failed to lookup relationship:\n" + response.getRawResponse());
-                System.exit(1);
-            }
+    @Benchmark
+    public void benchmarkExistingRelationshipsOnVirtualThreads(final VirtualThreadFanOut fanOut, final VirtualThreadFanOut.Checks checks) {
+        fanOut.run(checks, () -> super.checkOpenFGA(dataset.existent(existentLookups.getAndIncrement()), true));
+    }
 
-            if (Boolean.TRUE.equals(response.getAllowed())) {
-                System.err.println("Relationship exists, but it should not:\n" + response.getRawResponse());
-                System.exit(1);
-            }
-        } catch (final FgaInvalidParameterException | InterruptedException e) {
-            e.printStackTrace();
-            System.exit(1);
-        } catch (final ExecutionException e) {
-            e.getCause().printStackTrace();
-            System.exit(1);
-        }
+    @Benchmark
+    public void benchmarkNonexistentRelationshipsOnVirtualThreads(final VirtualThreadFanOut fanOut, final VirtualThreadFanOut.Checks checks) {
+        fanOut.run(checks, () -> super.checkOpenFGA(dataset.nonExistent(nonExistentLookups.getAndIncrement()), false));
     }
 }
@@ -0,0 +1,71 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.RewriteDataset;
+import com.valkryst.benchmark.dataset.RewriteOperator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Looks up relationships which are derived by each of OpenFGA's rewrite operators, so that the cost of each
+ *     operator can be compared against a direct relationship.
+ * </p>
+ *
+ * <p>
+ *     Each operator has its own authorization model, and its own {@link RewriteDataset}. Every dataset contains the same
+ *     number of tuples, so the operators are compared on the same data volume.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class RewriteOperatorLookup extends BenchmarkBase {
+    /**
+     * <p>The number of tuples to write to the OpenFGA API, before the benchmark begins.</p>
+     *
+     * <p>
+     *     The lookups cycle through the granted users, so they can't run out. If this is lowered too far, then OpenFGA's
+     *     check cache may begin to serve repeated lookups.
+     * </p>
+     */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Operator which derives the relationships. */
+    @Param
+    public RewriteOperator operator;
+
+    /** Tuples which can be used to lookup relationships, both existent and non-existent. */
+    private RewriteDataset dataset;
+
+    /** Number of existent lookups which have been performed. */
+    private final AtomicLong existentLookups = new AtomicLong();
+
+    /** Number of non-existent lookups which have been performed. */
+    private final AtomicLong nonExistentLookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        super.useAuthorizationModel(operator.getModel());
+
+        dataset = new RewriteDataset(seed, operator, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkExistingRelationships() {
+        super.checkOpenFGA(dataset.allowed(existentLookups.getAndIncrement()), true);
+    }
+
+    @Benchmark
+    public void benchmarkNonexistentRelationships() {
+        super.checkOpenFGA(dataset.denied(nonExistentLookups.getAndIncrement()), false);
+    }
+}
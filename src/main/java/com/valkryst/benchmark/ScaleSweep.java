@@ -0,0 +1,78 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Measures how the latency of checks, and of ListObjects calls, grows with the number of tuples in the store, to
+ *     show the size at which OpenFGA's indexes, and Postgres' caches, stop keeping up.
+ * </p>
+ *
+ * <p>
+ *     Seeding the larger sizes through the API would take hours, so this should be run with {@code OPENFGA_SEED_MODE}
+ *     set to {@code datastore}, see {@link DatastoreSeeder}. Each size is seeded into its own store, and deleted again
+ *     before the next size.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScaleSweep extends BenchmarkBase {
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Number of tuples in the store. */
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public long tuples;
+
+    /** Tuples which can be used to lookup relationships, both existent and non-existent. */
+    private UserReportDataset dataset;
+
+    /** Number of existent lookups which have been performed. */
+    private final AtomicLong existentLookups = new AtomicLong();
+
+    /** Number of non-existent lookups which have been performed. */
+    private final AtomicLong nonExistentLookups = new AtomicLong();
+
+    /** Number of ListObjects calls which have been performed. */
+    private final AtomicLong listObjectsLookups = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        dataset = new UserReportDataset(seed, tuples);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkExistingRelationships() {
+        super.checkOpenFGA(dataset.existent(existentLookups.getAndIncrement()), true);
+    }
+
+    @Benchmark
+    public void benchmarkNonexistentRelationships() {
+        super.checkOpenFGA(dataset.nonExistent(nonExistentLookups.getAndIncrement()), false);
+    }
+
+    @Benchmark
+    public void benchmarkListObjects() {
+        final var tuple = dataset.existent(listObjectsLookups.getAndIncrement());
+        final var objects = super.listObjectsFromOpenFGA(tuple.getUser(), UserReportDataset.RELATION, "report");
+
+        // Each user of the dataset can read exactly one report.
+        if (!objects.equals(List.of(tuple.getObject()))) {
+            System.err.println("Expected [" + tuple.getObject() + "], but found " + objects + ".");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.valkryst.benchmark;
+
+import java.util.Locale;
+
+/**
+ * <p>How a benchmark writes the tuples of its dataset, before it begins.</p>
+ *
+ * <p>It is read from the {@code OPENFGA_SEED_MODE} environment variable, and defaults to {@link #API}.</p>
+ */
+public enum SeedMode {
+    /** Writes the tuples with the {@link BulkLoader}, through the same API that the benchmarks use. */
+    API,
+
+    /**
+     * Streams the tuples straight into OpenFGA's Postgres datastore with the {@link DatastoreSeeder}. This is orders of
+     * magnitude faster than the API, so it's the only practical way to seed millions of tuples, but it bypasses
+     * OpenFGA's validation of the tuples against the authorization model.
+     */
+    DATASTORE;
+
+    /** @return The mode in the {@code OPENFGA_SEED_MODE} environment variable. */
+    public static SeedMode fromEnvironment() {
+        final var value = Environment.getString("OPENFGA_SEED_MODE", API.name());
+
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            System.err.println("The OPENFGA_SEED_MODE environment variable must be either api or datastore, but it was: " + value);
+            System.exit(1);
+            return API;
+        }
+    }
+}
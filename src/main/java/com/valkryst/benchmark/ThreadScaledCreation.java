@@ -0,0 +1,78 @@
+package com.valkryst.benchmark;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.client.model.ClientWriteRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Variant of {@link RelationshipCreation} which is intended to be run at multiple thread counts.</p>
+ *
+ * <p>
+ *     Rather than polling a single shared queue of pre-created tuples, each JMH thread generates its own tuples from a
+ *     thread-specific prefix and counter. The pool can't run out, and generating a tuple doesn't require any
+ *     coordination with the other threads.
+ * </p>
+ *
+ * @see ThreadScalingSuite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreadScaledCreation extends BenchmarkBase {
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmark(final Partition partition) {
+        final var tuple = partition.next();
+
+        final var body = new ClientWriteRequest();
+        body.writes(List.of(tuple));
+
+        super.writeToOpenFGA(body);
+
+        partition.writtenTuples.add(tuple);
+    }
+
+    /** A thread's source of tuples. */
+    @State(Scope.Thread)
+    public static class Partition {
+        /** Prefix used for all user IDs generated by this thread, so they never collide with another thread's. */
+        private final String userPrefix = "user:" + UUID.randomUUID() + "-";
+
+        /** Prefix used for all object IDs generated by this thread, so they never collide with another thread's. */
+        private final String objectPrefix = "report:" + UUID.randomUUID() + "-";
+
+        /** Tuples which have been written to the OpenFGA API by this thread, and which must be deleted. */
+        private final List<ClientTupleKey> writtenTuples = new ArrayList<>();
+
+        /** Number of tuples generated by this thread. */
+        private long counter = 0;
+
+        @TearDown
+        public void teardown(final ThreadScaledCreation benchmark) {
+            synchronized (benchmark.deleteQueue) {
+                benchmark.deleteQueue.addAll(writtenTuples);
+            }
+
+            writtenTuples.clear();
+        }
+
+        /** @return A new tuple, which has not yet been written to the OpenFGA API. */
+        public ClientTupleKey next() {
+            final var tuple = new ClientTupleKey();
+            tuple.user(userPrefix + counter);
+            tuple.relation("reader");
+            tuple._object(objectPrefix + counter);
+            counter++;
+            return tuple;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Variant of {@link RelationshipLookup} which is intended to be run at multiple thread counts.</p>
+ *
+ * <p>
+ *     Rather than polling a single shared queue, each JMH thread is handed its own partition of the dataset. The
+ *     existent partitions are cycled through, and the non-existent partitions are unbounded, so they never run out
+ *     regardless of how long the benchmark runs, and the threads never contend with one another on the client side.
+ * </p>
+ *
+ * @see ThreadScalingSuite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ThreadScaledLookup extends BenchmarkBase {
+    /**
+     * <p>The number of relationships to write to the OpenFGA API, before the benchmark begins.</p>
+     *
+     * <p>
+     *     As the partitions are cycled through, this doesn't need to be large enough to last the entire benchmark. It
+     *     only needs to be large enough that each thread has a reasonable number of unique tuples at the highest
+     *     thread count.
+     * </p>
+     */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Tuples which can be used to lookup relationships, both existent and non-existent. */
+    private UserReportDataset dataset;
+
+    @Setup
+    public void setup() {
+        dataset = new UserReportDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+    }
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkExistingRelationships(final Partition partition) {
+        super.checkOpenFGA(partition.nextExistent(), true);
+    }
+
+    @Benchmark
+    public void benchmarkNonexistentRelationships(final Partition partition) {
+        super.checkOpenFGA(partition.nextNonExistent(), false);
+    }
+
+    /** A thread's share of the dataset. */
+    @State(Scope.Thread)
+    public static class Partition {
+        /** Tuples which can be used to lookup relationships. */
+        private UserReportDataset dataset;
+
+        /** Index of the first existent tuple which belongs to this thread. */
+        private long existentStart;
+
+        /** Number of existent tuples which belong to this thread. */
+        private long existentCount;
+
+        /** Number of existent lookups which have been performed by this thread. */
+        private long existentLookups = 0;
+
+        /** Index of this thread. */
+        private int threadIndex;
+
+        /** Total number of threads. */
+        private int threadCount;
+
+        /** Number of non-existent lookups which have been performed by this thread. */
+        private long nonExistentLookups = 0;
+
+        @Setup
+        public void setup(final ThreadScaledLookup benchmark, final ThreadParams threadParams) {
+            dataset = benchmark.dataset;
+            threadIndex = threadParams.getThreadIndex();
+            threadCount = threadParams.getThreadCount();
+
+            if (dataset.getSize() < threadCount) {
+                System.err.println("There are fewer pre-created tuples than threads. Try increasing TOTAL_PRECREATED_RELATIONSHIPS.");
+                System.exit(1);
+            }
+
+            // Each thread is given a contiguous range of the existent tuples.
+            existentStart = dataset.getSize() * threadIndex / threadCount;
+            existentCount = (dataset.getSize() * (threadIndex + 1) / threadCount) - existentStart;
+        }
+
+        /** @return The next tuple which has been written to the OpenFGA API. */
+        public ClientTupleKey nextExistent() {
+            final var tuple = dataset.existent(existentStart + existentLookups);
+            existentLookups = (existentLookups + 1) % existentCount;
+            return tuple;
+        }
+
+        /** @return The next tuple which <i>has not</i> been written to the OpenFGA API. */
+        public ClientTupleKey nextNonExistent() {
+            // Each thread is given every n-th non-existent tuple, where n is the number of threads.
+            return dataset.nonExistent((nonExistentLookups++ * threadCount) + threadIndex);
+        }
+    }
+}
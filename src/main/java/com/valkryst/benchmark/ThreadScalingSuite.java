@@ -0,0 +1,76 @@
+package com.valkryst.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ *     Runs the {@link ThreadScaledLookup} and {@link ThreadScaledCreation} benchmarks at increasing thread counts,
+ *     from 1 up to twice the number of available processors, then prints how throughput scales with the thread count.
+ * </p>
+ *
+ * <p>
+ *     JMH doesn't allow the thread count to be a {@code @Param}, so each thread count is a separate run. Any standard
+ *     JMH options (e.g. {@code -f 1 -wi 2 -i 5}) can be passed as arguments, and they're applied to every run.
+ * </p>
+ *
+ * <pre>{@code java -cp benchmarks.jar com.valkryst.benchmark.ThreadScalingSuite -f 1}</pre>
+ */
+public class ThreadScalingSuite {
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final var commandLineOptions = new CommandLineOptions(args);
+
+        // Benchmark -> Thread Count -> Throughput (ops/s)
+        final Map<String, Map<Integer, Double>> scores = new LinkedHashMap<>();
+
+        for (final int threads : threadCounts(Runtime.getRuntime().availableProcessors() * 2)) {
+            final var options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .include(ThreadScaledLookup.class.getSimpleName())
+                .include(ThreadScaledCreation.class.getSimpleName())
+                .threads(threads)
+                .build();
+
+            for (final RunResult result : new Runner(options).run()) {
+                scores.computeIfAbsent(result.getParams().getBenchmark(), k -> new TreeMap<>())
+                      .put(threads, result.getPrimaryResult().getScore());
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-80s %8s %14s %14s %10s%n", "Benchmark", "Threads", "ops/s", "ops/s/thread", "Speedup");
+        scores.forEach((benchmark, byThreads) -> {
+            final double baseline = byThreads.values().iterator().next();
+            byThreads.forEach((threads, score) -> System.out.printf(
+                "%-80s %8d %14.2f %14.2f %9.2fx%n",
+                benchmark, threads, score, score / threads, score / baseline
+            ));
+        });
+    }
+
+    /**
+     * Determines the thread counts to sweep through. This is every power of two below the maximum, followed by the
+     * maximum itself.
+     *
+     * @param maxThreads Maximum number of threads.
+     * @return Thread counts, in ascending order.
+     */
+    private static List<Integer> threadCounts(final int maxThreads) {
+        final var counts = new ArrayList<Integer>();
+        for (int threads = 1 ; threads < maxThreads ; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+}
@@ -1,159 +1,131 @@
 package com.valkryst.benchmark;
 
-import dev.openfga.sdk.api.client.model.ClientCheckRequest;
+import com.valkryst.benchmark.dataset.GraphShapeDataset;
 import dev.openfga.sdk.api.client.model.ClientTupleKey;
-import dev.openfga.sdk.api.client.model.ClientTupleKeyWithoutCondition;
-import dev.openfga.sdk.api.client.model.ClientWriteRequest;
-import dev.openfga.sdk.errors.FgaApiValidationError;
-import dev.openfga.sdk.errors.FgaInvalidParameterException;
 import org.openjdk.jmh.annotations.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Queue;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutionException;
-
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Looks up relationships which can only be resolved by traversing a group hierarchy, from a user, through one or
+ *     more {@code group#member} usersets, to a report.
+ * </p>
+ *
+ * <p>
+ *     {@link #benchmark()} checks users who can read the report, so each check ends as soon as it finds a path to the
+ *     user. {@link #benchmarkNonMember()} checks users who can't, so each check must explore every group of the
+ *     report's hierarchy, including its cycle when {@link #cycles} is {@code true}.
+ * </p>
+ *
+ * <p>
+ *     The shape of the hierarchies is controlled by the parameters, see {@link GraphShapeDataset} for a description
+ *     of each of them. As many hierarchies as will fit within {@link #TUPLE_BUDGET} are written to the OpenFGA API.
+ * </p>
+ */
 @State(Scope.Benchmark)
-public class TransitiveRelationshipLookup extends BenchmarkBase{
+public class TransitiveRelationshipLookup extends BenchmarkBase {
     /**
      * <p>
-     *     The number of relationships (in this case, they're group hierarchies) to pre-create and add to the
-     *     {@link #lookupQueue}, and to write to the OpenFGA API, before the benchmark begins.
+     *     The approximate number of tuples to write to the OpenFGA API, before the benchmark begins. At least one
+     *     hierarchy is always written, even if it exceeds this.
      * </p>
      *
      * <p>
-     *     This is a <i>magic number</i> which I decided based on an educated guess. If the benchmarks pass without
-     *     failing to retrieve a tuple from the {@link #lookupQueue}, then we can lower the number by a few thousand and
-     *     re-test. It may save a few seconds, and some RAM, when running the benchmarks.
+     *     The lookups cycle through the users of each hierarchy, so they can't run out. If this is lowered too far, then
+     *     OpenFGA's check cache may begin to serve repeated lookups.
      * </p>
      */
-    private static final int TOTAL_PRECREATED_HIERARCHIES = 60_000;
+    private static final int TUPLE_BUDGET = 300_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
 
-    /** Number of groups to create in each hierarchy. */
-    private static final int HIERARCHY_DEPTH = 5;
+    /** Number of levels of groups in each hierarchy. */
+    @Param({"3", "5"})
+    public int depth;
 
-    /** A list of tuples which have been written to the OpenFGA API, and which can be used to lookup relationships. */
-    private final Queue<ClientTupleKey> lookupQueue = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of child groups of each group, and of parent groups of each non-root group, as
+     * {@code branchingFactor:fanIn}. They're a single parameter because a fan-in is limited to the width of the level
+     * above, so with a branching factor of {@code 1}, any fan-in above {@code 1} would only repeat runs.
+     */
+    @Param({"1:1", "10:1", "10:3"})
+    public String shape;
+
+    /** Whether each hierarchy contains a cycle. */
+    @Param({"false", "true"})
+    public boolean cycles;
+
+    /**
+     * Number of {@code group#member} usersets which must be traversed, from a user, to reach the report. It's limited
+     * to the {@link #depth}, so values above the smallest depth would only repeat runs.
+     */
+    @Param({"1", "3"})
+    public int usersetHops;
 
-    /** A list of tuples which have been written to the OpenFGA API, and which must be deleted. */
-    private final List<ClientTupleKeyWithoutCondition> deleteQueue = new ArrayList<>();
+    /** Group hierarchies which can be used to lookup relationships. */
+    private GraphShapeDataset dataset;
 
-    /** UUID of the report to lookup. This is the same for all groups, just to make things easy. */
-    private final String reportUUID = UUID.randomUUID().toString();
+    /** Number of lookups which have been performed. */
+    private final AtomicLong lookups = new AtomicLong();
 
     @Setup
     public void setup() {
-        final var groups = super.createGroups(TOTAL_PRECREATED_HIERARCHIES, 100, HIERARCHY_DEPTH);
-        deleteQueue.addAll(groups);
-
-        final var newGroups = new ArrayList<ClientTupleKey>(TOTAL_PRECREATED_HIERARCHIES);
-
-        /*
-         * We want to run a lookup from the lowest level of each hierarchy. Knowing the internals of the createGroups
-         * function, we can skip through the list of groups and populate the lookupQueue with the leaf nodes.
-         */
-        for (int i = 1 ; i != TOTAL_PRECREATED_HIERARCHIES ; i++) {
-            final var leaf = groups.get((i * HIERARCHY_DEPTH) - 1);
-            lookupQueue.offer(leaf);
-
-            // We need to be able to determine if the leaf has access to a report VIA the highest level group, so we
-            // create that relationship here.
-            final var root = groups.get((i - 1) * HIERARCHY_DEPTH);
-
-            final var tuple = new ClientTupleKey();
-            tuple.user(root.getObject()); // The object of the highest-level group is the actual root node.
-            tuple.relation("reader");
-            tuple._object("report:" + reportUUID);
-
-            newGroups.add(tuple);
-            deleteQueue.add(tuple);
+        final var parts = shape.split(":");
+        if (parts.length != 2) {
+            System.err.println("The shape must be written as branchingFactor:fanIn, but it was: " + shape);
+            System.exit(1);
         }
 
-        while (!newGroups.isEmpty()) {
-            final var body = new ClientWriteRequest();
+        final int branchingFactor = Integer.parseInt(parts[0].trim());
+        final int fanIn = Integer.parseInt(parts[1].trim());
 
-            final var subset = newGroups.subList(0, Math.min(1000, newGroups.size()));
-            body.writes(subset);
+        final long tuplesPerTree = GraphShapeDataset.tuplesPerTree(depth, branchingFactor, fanIn, cycles, usersetHops);
+        final long trees = Math.max(1, TUPLE_BUDGET / tuplesPerTree);
 
-            super.writeToOpenFGA(body);
-
-            newGroups.removeAll(subset);
-        }
+        dataset = new GraphShapeDataset(seed, trees, depth, branchingFactor, fanIn, cycles, usersetHops);
+        super.loadDataset(dataset);
     }
 
     @TearDown
     public void teardown() {
-        // todo Resolve issue, then update this to use super.deleteQueue
-        final var body = new ClientWriteRequest();
-
-        while (!deleteQueue.isEmpty()) {
-            final var subset = deleteQueue.subList(0, Math.min(1000, deleteQueue.size()));
-            body.deletes(deleteQueue);
-
-            try {
-                final var response = super.openFgaClient.write(body, null).get();
-                if (response.getStatusCode() != 200) {
-                    System.err.println("Failed to delete relationship:\n" + response.getRawResponse());
-                    System.exit(1);
-                }
-            } catch (final FgaInvalidParameterException | InterruptedException e) {
-                e.printStackTrace();
-                System.exit(1);
-            } catch (final ExecutionException e) {
-                final var cause = e.getCause();
-                if (cause instanceof FgaApiValidationError) {
-                    System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
-                    // todo Fix the following error, if time permits:
-                    // Validation Error: {"code":"write_failed_due_to_invalid_input","message":"cannot delete a tuple which does not exist: user: 'group:bbdbe462-19a3-46a7-a1ca-c6c7edcc810a', relation: 'subgroup', object: 'group:3de8b679-e82c-41bb-98d6-f2ea08a8f15b': invalid write input"}
-                } else {
-                    e.printStackTrace();
-                }
-//                System.exit(1);
-            }
-
-            deleteQueue.removeAll(subset);
-        }
+        super.teardown();
     }
 
     @Benchmark
     public void benchmark() {
-        final var tuple = lookupQueue.poll();
-        if (tuple == null) {
-            System.err.println("Failed to retrieve tuple from lookupQueue. The queue is empty. Try increasing TOTAL_PRECREATED_HIERARCHIES.");
-            System.exit(1);
-        }
+        lookup();
+    }
 
-        final var body = new ClientCheckRequest();
-        body.user(tuple.getUser());
-        body.relation(tuple.getRelation());
-        body._object(tuple.getObject());
-
-        try {
-            final var response = super.openFgaClient.check(body, null).get();
-
-            if (response.getStatusCode() != 200) {
-                System.err.println("Failed to lookup relationship:\n" + response.getRawResponse());
-                System.exit(1);
-            }
-
-            if (Boolean.FALSE.equals(response.getAllowed())) {
-                System.err.println("Relationship does not exist, but it should:\n" + response.getRawResponse());
-                System.exit(1);
-            }
-        } catch (final FgaInvalidParameterException | InterruptedException e) {
-            e.printStackTrace();
-            System.exit(1);
-        } catch (final ExecutionException e) {
-            final var cause = e.getCause();
-            if (cause instanceof FgaApiValidationError) {
-                System.err.println("Validation Error: " + ((FgaApiValidationError) cause).getResponseData());
-            } else {
-                e.printStackTrace();
-            }
+    @Benchmark
+    public void benchmarkNonMember() {
+        final long lookup = lookups.getAndIncrement();
 
-            System.exit(1);
-        }
+        final var tuple = new ClientTupleKey();
+        tuple.user(dataset.nonMember(lookup));
+        tuple.relation("reader");
+        tuple._object(dataset.report(lookup));
+
+        super.checkOpenFGA(tuple, false);
+    }
+
+    @Benchmark
+    public void benchmarkOnVirtualThreads(final VirtualThreadFanOut fanOut, final VirtualThreadFanOut.Checks checks) {
+        fanOut.run(checks, this::lookup);
+    }
+
+    /** Looks up the next user's relationship to their report, and verifies that it exists. */
+    private void lookup() {
+        // Each user is only related to the report through the hierarchy, so this verifies the whole path.
+        final long lookup = lookups.getAndIncrement();
+
+        final var tuple = new ClientTupleKey();
+        tuple.user(dataset.user(lookup));
+        tuple.relation("reader");
+        tuple._object(dataset.report(lookup));
+
+        super.checkOpenFGA(tuple, true);
     }
 }
@@ -0,0 +1,147 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.dataset.UserReportDataset;
+import com.valkryst.benchmark.transport.TransportApiClient;
+import com.valkryst.benchmark.transport.TransportProfile;
+import dev.openfga.sdk.api.client.OpenFgaClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Runs the same check workload through each {@link TransportProfile}, over both TLS and plaintext, to measure how
+ *     the HTTP version, connection reuse, and the HTTP client's executor affect check latency.
+ * </p>
+ *
+ * <p>
+ *     The plaintext checks are sent to the URL in the {@code OPENFGA_API_URL_PLAINTEXT} environment variable, which
+ *     must be an OpenFGA server that uses the same datastore as the one at {@code OPENFGA_API_URL}.
+ * </p>
+ *
+ * <p>
+ *     The embedded server only speaks plaintext, so when {@code OPENFGA_API_URL} is {@code embedded}, the plaintext
+ *     checks are sent to it and the TLS checks can't be run.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransportComparison extends BenchmarkBase {
+    /** The number of relationships to write to the OpenFGA API, before the benchmark begins. */
+    private static final int TOTAL_PRECREATED_RELATIONSHIPS = 100_000;
+
+    /** Seed of the {@link #dataset}. Runs with the same seed use the same tuples. */
+    @Param("1")
+    public long seed;
+
+    /** Configuration of the HTTP client. */
+    @Param
+    public TransportProfile profile;
+
+    /** Whether to send the checks over TLS. */
+    @Param({"true", "false"})
+    public boolean tls;
+
+    /** Tuples which can be used to lookup relationships. */
+    private UserReportDataset dataset;
+
+    /** Number of lookups which have been performed. */
+    private final AtomicLong lookups = new AtomicLong();
+
+    /** URL to which the checks are sent. */
+    private String apiUrl;
+
+    /** API client used by all threads, if the profile is shared. */
+    private TransportApiClient sharedApiClient;
+
+    /** Client used by all threads, if the profile is shared. */
+    private OpenFgaClient sharedClient;
+
+    @Setup
+    public void setup() {
+        final boolean embedded = "embedded".equals(System.getenv("OPENFGA_API_URL"));
+        if (tls && embedded) {
+            System.err.println("The embedded server only speaks plaintext, so TransportComparison must be run with -p tls=false.");
+            System.exit(1);
+        }
+
+        apiUrl = tls || embedded ? getApiUrl() : System.getenv("OPENFGA_API_URL_PLAINTEXT");
+        if (apiUrl == null || apiUrl.isBlank()) {
+            System.err.println("The OPENFGA_API_URL_PLAINTEXT environment variable must be set, to run the plaintext checks.");
+            System.exit(1);
+        }
+
+        dataset = new UserReportDataset(seed, TOTAL_PRECREATED_RELATIONSHIPS);
+        super.loadDataset(dataset);
+
+        if (profile.getSharing() == TransportProfile.Sharing.SHARED) {
+            sharedApiClient = new TransportApiClient(profile);
+            sharedClient = super.createClient(apiUrl, sharedApiClient);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        if (sharedApiClient != null) {
+            sharedApiClient.close();
+        }
+
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmark(final ThreadClient threadClient) {
+        switch (profile.getSharing()) {
+            case SHARED -> check(sharedClient);
+            case PER_THREAD, PER_REQUEST -> check(threadClient.client);
+        }
+    }
+
+    /**
+     * Looks up the next relationship, and verifies that it exists.
+     *
+     * @param client Client used to send the check.
+     */
+    private void check(final OpenFgaClient client) {
+        super.checkOpenFGA(client, dataset.existent(lookups.getAndIncrement()), true);
+    }
+
+    /** Client used by a single thread, if the profile is per-thread, or per-request. */
+    @State(Scope.Thread)
+    public static class ThreadClient {
+        /** API client used by this thread. */
+        private TransportApiClient apiClient;
+
+        /** Client used by this thread. */
+        private OpenFgaClient client;
+
+        @Setup
+        public void setup(final TransportComparison benchmark) {
+            if (benchmark.profile.getSharing() != TransportProfile.Sharing.SHARED) {
+                apiClient = new TransportApiClient(benchmark.profile);
+                client = benchmark.createClient(benchmark.apiUrl, apiClient);
+            }
+        }
+
+        /**
+         * Replaces the HTTP client before each request, if the profile is per-request. This is done outside of the
+         * measurement, so that the new connection, and its TLS handshake, are measured without the construction of
+         * the SDK's client.
+         */
+        @Setup(Level.Invocation)
+        public void reconnect(final TransportComparison benchmark) {
+            if (benchmark.profile.getSharing() == TransportProfile.Sharing.PER_REQUEST) {
+                apiClient.reconnect();
+            }
+        }
+
+        @TearDown
+        public void teardown() {
+            if (apiClient != null) {
+                apiClient.close();
+            }
+        }
+    }
+}
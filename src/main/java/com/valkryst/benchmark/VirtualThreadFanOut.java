@@ -0,0 +1,100 @@
+package com.valkryst.benchmark;
+
+import lombok.NonNull;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ *     Runs many checks at once, on a virtual-thread-per-task executor, so that a single benchmark thread can keep
+ *     thousands of requests in flight without needing thousands of platform threads.
+ * </p>
+ *
+ * <p>
+ *     Each invocation of a benchmark which uses this runs {@link #concurrentChecks} checks, so the primary result is
+ *     in fan-outs. The {@code checks} counter, from {@link Checks}, is reported next to it, and is comparable to the
+ *     results of the platform-thread benchmarks, where each invocation is a single check. The latency of the individual
+ *     checks is reported by the {@link VirtualThreadFanOutProfiler}.
+ * </p>
+ */
+@State(Scope.Thread)
+public class VirtualThreadFanOut {
+    /** Number of checks to run at once, in each invocation. */
+    @Param({"100", "1000", "10000"})
+    public int concurrentChecks;
+
+    /** Executor used to run the checks. */
+    private ExecutorService executor;
+
+    /** Records the latency of each check, on every benchmark thread, in nanoseconds. */
+    private static final Recorder RECORDER = new Recorder(3);
+
+    @Setup
+    public void setup() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@link #concurrentChecks} checks at once, each on its own virtual thread, and waits for all of them to
+     * complete.
+     *
+     * @param checks Counter to increment by the number of checks which were run.
+     * @param check Performs, and verifies, a single check.
+     */
+    public void run(final @NonNull Checks checks, final @NonNull Runnable check) {
+        final var futures = new ArrayList<Future<?>>(concurrentChecks);
+
+        for (int i = 0 ; i < concurrentChecks ; i++) {
+            futures.add(executor.submit(() -> {
+                final long startTime = System.nanoTime();
+                check.run();
+                RECORDER.recordValue(System.nanoTime() - startTime);
+            }));
+        }
+
+        try {
+            for (final var future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        checks.checks += concurrentChecks;
+    }
+
+    /**
+     * Retrieves the latencies of the checks which have been recorded since the last call, and resets them.
+     *
+     * @return The latencies, in nanoseconds.
+     */
+    static Histogram intervalHistogram() {
+        return RECORDER.getIntervalHistogram();
+    }
+
+    /** Number of checks which have been run, reported alongside the primary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Checks {
+        /** Number of checks which have been run, in the current iteration. */
+        public long checks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            checks = 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.valkryst.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ *     A JMH profiler which exports the latency of the individual checks run by the {@link VirtualThreadFanOut} after
+ *     each iteration, so that it is attached to each benchmark's results as secondary results, e.g.
+ *     {@code fanOut.check.p99}. The primary result of those benchmarks is in fan-outs, so it says nothing about the
+ *     latency of a single check.
+ * </p>
+ *
+ * <p>
+ *     The median, 99th, and 99.9th percentiles, and the maximum, are recorded, in milliseconds. Nothing is recorded for
+ *     benchmarks which don't use the fan-out.
+ * </p>
+ */
+public class VirtualThreadFanOutProfiler implements InternalProfiler {
+    /** Prefix of the name of each result. */
+    private static final String PREFIX = "fanOut.check.";
+
+    @Override
+    public String getDescription() {
+        return "Latency of the individual checks of virtual thread fan-outs, per iteration.";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+        // Discards the checks of the previous iteration, e.g. a warmup iteration.
+        VirtualThreadFanOut.intervalHistogram();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        final var histogram = VirtualThreadFanOut.intervalHistogram();
+        if (histogram.getTotalCount() == 0) {
+            return List.of();
+        }
+
+        return List.of(
+            new ScalarResult(PREFIX + "p50", histogram.getValueAtPercentile(50) / 1_000_000d, "ms", AggregationPolicy.AVG),
+            new ScalarResult(PREFIX + "p99", histogram.getValueAtPercentile(99) / 1_000_000d, "ms", AggregationPolicy.AVG),
+            new ScalarResult(PREFIX + "p99.9", histogram.getValueAtPercentile(99.9) / 1_000_000d, "ms", AggregationPolicy.AVG),
+            new ScalarResult(PREFIX + "max", histogram.getMaxValue() / 1_000_000d, "ms", AggregationPolicy.MAX)
+        );
+    }
+}
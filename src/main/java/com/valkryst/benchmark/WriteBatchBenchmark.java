@@ -0,0 +1,229 @@
+package com.valkryst.benchmark;
+
+import com.valkryst.benchmark.trace.ClientTracer;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.client.model.ClientWriteRequest;
+import dev.openfga.sdk.errors.FgaError;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Measures multi-tuple writes, to choose the number of tuples to send in each write request. Each request writes,
+ *     and optionally deletes, {@link #tuplesPerWrite} tuples in a single transaction.
+ * </p>
+ *
+ * <p>
+ *     {@link #benchmarkWrite(Writer, Tuples, Failures)} writes each tuple to its own object, from a single thread.
+ *     {@link #benchmarkHotObjectWrite(Writer, Tuples, Failures)} writes every tuple, from many threads, to the same
+ *     object, so that the transactions contend with each other in the datastore.
+ * </p>
+ *
+ * <p>
+ *     The {@code tuples} counter is reported next to the primary result, as tuples/s in throughput mode, while the
+ *     sample time mode reports the latency of each request. Failed requests aren't retried, they're counted as either
+ *     {@code conflicts}, when OpenFGA reports that the transaction conflicted with another, or {@code errors}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WriteBatchBenchmark extends BenchmarkBase {
+    /** HTTP status with which OpenFGA rejects a write whose transaction conflicted with another. */
+    private static final int CONFLICT_STATUS = 409;
+
+    /**
+     * Number of tuples in each write request. OpenFGA's {@code --max-tuples-per-write} setting must be at least the
+     * largest value.
+     */
+    @Param({"1", "10", "50", "100"})
+    public int tuplesPerWrite;
+
+    /**
+     * Percentage of the tuples in each write request which are deletes of previously written tuples. The rest are
+     * writes of new tuples. Until a thread has written enough tuples, its requests contain fewer deletes.
+     */
+    @Param({"0", "50"})
+    public int deletePercent;
+
+    /** The object to which {@link #benchmarkHotObjectWrite(Writer, Tuples, Failures)} writes every tuple. */
+    private final String hotObject = "report:hot-" + UUID.randomUUID();
+
+    @TearDown
+    public void teardown() {
+        super.teardown();
+    }
+
+    @Benchmark
+    public void benchmarkWrite(final Writer writer, final Tuples tuples, final Failures failures) {
+        write(writer, null, tuples, failures);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void benchmarkHotObjectWrite(final Writer writer, final Tuples tuples, final Failures failures) {
+        write(writer, hotObject, tuples, failures);
+    }
+
+    /**
+     * Sends a write request, which deletes the oldest tuples written by the thread, and writes new tuples.
+     *
+     * @param writer Source of the thread's tuples.
+     * @param object Object of every new tuple, or {@code null} to give each tuple its own object.
+     * @param tuples Incremented by the number of tuples in the request, if it succeeds.
+     * @param failures Incremented if the request fails.
+     */
+    private void write(final Writer writer, final String object, final Tuples tuples, final Failures failures) {
+        final int deleteCount = Math.min(writer.written.size(), tuplesPerWrite * deletePercent / 100);
+
+        final var deletes = new ArrayList<ClientTupleKey>(deleteCount);
+        for (int i = 0 ; i < deleteCount ; i++) {
+            deletes.add(writer.written.pollFirst());
+        }
+
+        final var writes = new ArrayList<ClientTupleKey>(tuplesPerWrite - deleteCount);
+        for (int i = deleteCount ; i < tuplesPerWrite ; i++) {
+            writes.add(writer.next(object));
+        }
+
+        final var body = new ClientWriteRequest();
+        body.writes(writes);
+        if (!deletes.isEmpty()) {
+            body.deletes(new ArrayList<>(deletes));
+        }
+
+        if (send(body, failures)) {
+            writer.written.addAll(writes);
+            tuples.tuples += tuplesPerWrite;
+        } else {
+            // The transaction was rolled back, so the deleted tuples still exist, and must be deleted later.
+            for (int i = deletes.size() - 1 ; i >= 0 ; i--) {
+                writer.written.addFirst(deletes.get(i));
+            }
+        }
+    }
+
+    /**
+     * Sends a write request to OpenFGA. Unlike {@link #writeToOpenFGA(ClientWriteRequest)}, a request which OpenFGA
+     * rejects is counted, rather than ending the benchmark.
+     *
+     * @param body Request body.
+     * @param failures Incremented if the request fails.
+     * @return Whether the request succeeded.
+     */
+    private boolean send(final ClientWriteRequest body, final Failures failures) {
+        final var trace = ClientTracer.start();
+
+        try {
+            final var response = openFgaClient.write(body, null).get();
+            ClientTracer.finish(trace);
+            if (response.getStatusCode() == 200) {
+                return true;
+            }
+
+            if (response.getStatusCode() == CONFLICT_STATUS) {
+                failures.conflicts++;
+            } else {
+                failures.errors++;
+            }
+            return false;
+        } catch (final FgaInvalidParameterException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return false;
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof FgaError error) {
+                // Rejected writes are part of the workload, so they're traced as well.
+                ClientTracer.finish(trace);
+
+                if (error.getStatusCode() == CONFLICT_STATUS) {
+                    failures.conflicts++;
+                } else {
+                    failures.errors++;
+                }
+                return false;
+            }
+
+            e.printStackTrace();
+            System.exit(1);
+            return false;
+        }
+    }
+
+    /** A thread's source of tuples, and the tuples which it has written. */
+    @State(Scope.Thread)
+    public static class Writer {
+        /** Prefix used for all user IDs generated by this thread, so they never collide with another thread's. */
+        private final String userPrefix = "user:" + UUID.randomUUID() + "-";
+
+        /** Prefix used for all object IDs generated by this thread, so they never collide with another thread's. */
+        private final String objectPrefix = "report:" + UUID.randomUUID() + "-";
+
+        /** Tuples which have been written to the OpenFGA API by this thread, and not yet deleted, oldest first. */
+        private final Deque<ClientTupleKey> written = new ArrayDeque<>();
+
+        /** Number of tuples generated by this thread. */
+        private long counter = 0;
+
+        @TearDown
+        public void teardown(final WriteBatchBenchmark benchmark) {
+            synchronized (benchmark.deleteQueue) {
+                benchmark.deleteQueue.addAll(written);
+            }
+
+            written.clear();
+        }
+
+        /**
+         * Generates a new tuple, which has not yet been written to the OpenFGA API.
+         *
+         * @param object Object of the tuple, or {@code null} to give the tuple its own object.
+         * @return The tuple.
+         */
+        private ClientTupleKey next(final String object) {
+            final var tuple = new ClientTupleKey();
+            tuple.user(userPrefix + counter);
+            tuple.relation("reader");
+            tuple._object(object == null ? objectPrefix + counter : object);
+            counter++;
+            return tuple;
+        }
+    }
+
+    /** Number of tuples which have been written, or deleted, reported alongside the primary result. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tuples {
+        /** Number of tuples in the successful requests, in the current iteration. */
+        public long tuples;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tuples = 0;
+        }
+    }
+
+    /** Number of requests, on each thread, which OpenFGA rejected. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        /** Number of requests whose transaction conflicted with another. */
+        public long conflicts;
+
+        /** Number of requests which failed for any other reason, e.g. rate limiting. */
+        public long errors;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+            errors = 0;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.valkryst.benchmark.cache;
+
+import dev.openfga.sdk.api.client.ApiClient;
+import dev.openfga.sdk.api.client.ApiResponse;
+import dev.openfga.sdk.api.client.OpenFgaClient;
+import dev.openfga.sdk.api.client.model.ClientCheckRequest;
+import dev.openfga.sdk.api.client.model.ClientCheckResponse;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.client.model.ClientTupleKeyWithoutCondition;
+import dev.openfga.sdk.api.client.model.ClientWriteRequest;
+import dev.openfga.sdk.api.client.model.ClientWriteResponse;
+import dev.openfga.sdk.api.configuration.ClientCheckOptions;
+import dev.openfga.sdk.api.configuration.ClientConfiguration;
+import dev.openfga.sdk.api.configuration.ClientWriteOptions;
+import dev.openfga.sdk.api.model.CheckResponse;
+import dev.openfga.sdk.errors.FgaInvalidParameterException;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>An {@link OpenFgaClient} which caches the results of checks, and invalidates them when tuples are written.</p>
+ *
+ * <p>
+ *     A written, or deleted, tuple can only be invalidated precisely when it affects a single check. This is the case
+ *     when its user isn't a userset, and its object's type is one of the {@code directTypes}; types whose relations are
+ *     only ever directly assigned. Otherwise, the tuple may affect the result of any number of checks, so the whole
+ *     cache is cleared.
+ * </p>
+ *
+ * <p>
+ *     Results are invalidated once the write completes, so a check which was sent before the write, but completes
+ *     after it, may cache a stale result. Stale results last until they are invalidated again, or expire.
+ * </p>
+ *
+ * <p>
+ *     Checks with contextual tuples, or a context, aren't cached. Neither are checks against an authorization model
+ *     other than the client's own.
+ * </p>
+ */
+public class CachingOpenFgaClient extends OpenFgaClient {
+    /** Name of the header which is added to the responses of checks that were served from the cache. */
+    public static final String CACHE_HEADER = "X-Check-Cache";
+
+    /** Response of a cached check, whose relationship exists. */
+    private static final ClientCheckResponse ALLOWED = cachedResponse(true);
+
+    /** Response of a cached check, whose relationship does not exist. */
+    private static final ClientCheckResponse DENIED = cachedResponse(false);
+
+    /** Cached check results. */
+    @Getter private final CheckCache cache;
+
+    /** Types whose relations are only ever directly assigned. */
+    private final Set<String> directTypes;
+
+    /** ID of the authorization model which the cached results were checked against. */
+    private volatile String authorizationModelId;
+
+    /**
+     * Constructs a new CachingOpenFgaClient.
+     *
+     * @param configuration Configuration of the client.
+     * @param apiClient API client used to send requests.
+     * @param cache Cache in which to store check results.
+     * @param directTypes Types whose relations are only ever directly assigned.
+     * @throws FgaInvalidParameterException If the configuration is invalid.
+     */
+    public CachingOpenFgaClient(final @NonNull ClientConfiguration configuration, final @NonNull ApiClient apiClient, final @NonNull CheckCache cache, final @NonNull Set<String> directTypes) throws FgaInvalidParameterException {
+        super(configuration, apiClient);
+        this.cache = cache;
+        this.directTypes = directTypes;
+        this.authorizationModelId = configuration.getAuthorizationModelId();
+    }
+
+    @Override
+    public void setAuthorizationModelId(final String authorizationModelId) {
+        super.setAuthorizationModelId(authorizationModelId);
+
+        if (!Objects.equals(this.authorizationModelId, authorizationModelId)) {
+            this.authorizationModelId = authorizationModelId;
+            cache.invalidateAll();
+        }
+    }
+
+    @Override
+    public CompletableFuture<ClientCheckResponse> check(final ClientCheckRequest request, final ClientCheckOptions options) throws FgaInvalidParameterException {
+        if (!isCacheable(request, options)) {
+            return super.check(request, options);
+        }
+
+        final var key = new CheckKey(request.getUser(), request.getRelation(), request.getObject());
+
+        final var allowed = cache.get(key);
+        if (allowed != null) {
+            return CompletableFuture.completedFuture(allowed ? ALLOWED : DENIED);
+        }
+
+        return super.check(request, options).thenApply(response -> {
+            if (response.getStatusCode() == 200 && response.getAllowed() != null) {
+                cache.put(key, response.getAllowed());
+            }
+
+            return response;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ClientWriteResponse> write(final ClientWriteRequest request, final ClientWriteOptions options) throws FgaInvalidParameterException {
+        // Writes which aren't transactional may partially succeed, so we invalidate even when the write fails.
+        return super.write(request, options).whenComplete((response, throwable) -> invalidate(request));
+    }
+
+    /**
+     * Determines whether the result of a check can be cached.
+     *
+     * @param request Request body.
+     * @param options Request options.
+     * @return Whether the result can be cached.
+     */
+    private boolean isCacheable(final ClientCheckRequest request, final ClientCheckOptions options) {
+        if (request.getContext() != null) {
+            return false;
+        }
+
+        if (request.getContextualTuples() != null && !request.getContextualTuples().isEmpty()) {
+            return false;
+        }
+
+        if (options != null && options.getAuthorizationModelId() != null) {
+            return options.getAuthorizationModelId().equals(authorizationModelId);
+        }
+
+        return true;
+    }
+
+    /**
+     * Invalidates the cached results which may be affected by the tuples of a write request.
+     *
+     * @param request Request body.
+     */
+    private void invalidate(final ClientWriteRequest request) {
+        final List<ClientTupleKey> writes = Objects.requireNonNullElse(request.getWrites(), List.of());
+        final List<ClientTupleKeyWithoutCondition> deletes = Objects.requireNonNullElse(request.getDeletes(), List.of());
+
+        for (final var tuple : writes) {
+            if (!invalidate(tuple.getUser(), tuple.getRelation(), tuple.getObject())) {
+                return;
+            }
+        }
+
+        for (final var tuple : deletes) {
+            if (!invalidate(tuple.getUser(), tuple.getRelation(), tuple.getObject())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cached results which may be affected by a tuple.
+     *
+     * @param user User of the tuple.
+     * @param relation Relation of the tuple.
+     * @param object Object of the tuple.
+     * @return Whether only the tuple's own result was invalidated. If not, then the whole cache was cleared.
+     */
+    private boolean invalidate(final String user, final String relation, final String object) {
+        final int separator = object.indexOf(':');
+        final var type = separator == -1 ? object : object.substring(0, separator);
+
+        if (user.contains("#") || !directTypes.contains(type)) {
+            cache.invalidateAll();
+            return false;
+        }
+
+        cache.invalidate(new CheckKey(user, relation, object));
+        return true;
+    }
+
+    /**
+     * Constructs the response of a cached check.
+     *
+     * @param allowed Whether the relationship exists.
+     * @return The response.
+     */
+    private static ClientCheckResponse cachedResponse(final boolean allowed) {
+        final var body = new CheckResponse().allowed(allowed);
+        final var raw = "{\"allowed\":" + allowed + "}";
+        return new ClientCheckResponse(new ApiResponse<>(200, Map.of(CACHE_HEADER, List.of("hit")), raw, body));
+    }
+}
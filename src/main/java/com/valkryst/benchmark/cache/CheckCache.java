@@ -0,0 +1,84 @@
+package com.valkryst.benchmark.cache;
+
+import com.valkryst.benchmark.Environment;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * <p>A bounded cache of check results, whose entries expire a fixed time after they are written.</p>
+ *
+ * <p>Implementations must be safe to use from multiple threads at once.</p>
+ */
+public interface CheckCache {
+    /**
+     * Retrieves a cached result.
+     *
+     * @param key Key of the check.
+     * @return The result, or {@code null} if it isn't cached or has expired.
+     */
+    Boolean get(final @NonNull CheckKey key);
+
+    /**
+     * Caches a result.
+     *
+     * @param key Key of the check.
+     * @param allowed Whether the relationship exists.
+     */
+    void put(final @NonNull CheckKey key, final boolean allowed);
+
+    /**
+     * Removes a cached result, if there is one.
+     *
+     * @param key Key of the check.
+     */
+    void invalidate(final @NonNull CheckKey key);
+
+    /** Removes all cached results. */
+    void invalidateAll();
+
+    /** @return Number of cached results, which may include expired results that haven't been removed yet. */
+    long size();
+
+    /** @return Estimated number of bytes which the cached results occupy on the heap. */
+    long estimatedBytes();
+
+    /**
+     * Constructs a CheckCache by eviction policy.
+     *
+     * @param policy Name of the eviction policy. Either {@code lru} or {@code tinylfu}.
+     * @param maxSize Maximum number of cached results.
+     * @param ttl Time after which a cached result expires.
+     * @return The CheckCache.
+     */
+    static CheckCache of(final @NonNull String policy, final long maxSize, final @NonNull Duration ttl) {
+        return switch (policy) {
+            case "lru" -> new LruCheckCache(maxSize, ttl);
+            case "tinylfu" -> new TinyLfuCheckCache(maxSize, ttl);
+            default -> throw new IllegalArgumentException("Unknown eviction policy: " + policy);
+        };
+    }
+
+    /**
+     * <p>Constructs a CheckCache from the following environment variables:</p>
+     *
+     * <ul>
+     *     <li>{@code OPENFGA_CHECK_CACHE} - Either {@code none}, {@code lru}, or {@code tinylfu}. Defaults to {@code none}.</li>
+     *     <li>{@code OPENFGA_CHECK_CACHE_MAX_SIZE} - Maximum number of cached results. Defaults to {@code 100000}.</li>
+     *     <li>{@code OPENFGA_CHECK_CACHE_TTL_SECONDS} - Time after which a cached result expires. Defaults to {@code 10}.</li>
+     * </ul>
+     *
+     * @return The CheckCache, or an empty optional if caching is disabled.
+     */
+    static Optional<CheckCache> fromEnvironment() {
+        final var policy = Environment.getString("OPENFGA_CHECK_CACHE", "none");
+        if (policy.equals("none")) {
+            return Optional.empty();
+        }
+
+        final int maxSize = Environment.getInt("OPENFGA_CHECK_CACHE_MAX_SIZE", 100_000);
+        final int ttlSeconds = Environment.getInt("OPENFGA_CHECK_CACHE_TTL_SECONDS", 10);
+        return Optional.of(of(policy, maxSize, Duration.ofSeconds(ttlSeconds)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.valkryst.benchmark.cache;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ *     A JMH profiler which exports the size of the {@link CheckCache} in use after each iteration, so that it is
+ *     attached to each benchmark's results as secondary results, e.g. {@code checkCache.footprint}.
+ * </p>
+ *
+ * <p>
+ *     The number of cached results, and their estimated heap footprint in KiB, are recorded. Nothing is recorded for
+ *     benchmarks which don't use a cache.
+ * </p>
+ */
+public class CheckCacheProfiler implements InternalProfiler {
+    /** Prefix of the name of each result. */
+    private static final String PREFIX = "checkCache.";
+
+    /** Cache in use by the running benchmark, or {@code null} if it doesn't use one. */
+    private static volatile CheckCache cache;
+
+    /** Size of the cache when it was frozen, or {@code null} if it hasn't been. */
+    private static volatile Size frozenSize;
+
+    /**
+     * Sets the cache whose size is exported.
+     *
+     * @param cache The cache, or {@code null} if the running benchmark no longer uses one.
+     */
+    public static void track(final CheckCache cache) {
+        CheckCacheProfiler.cache = cache;
+        frozenSize = null;
+    }
+
+    /**
+     * Records the current size of the cache, which is exported in place of its live size from then on. JMH tears down
+     * a trial before its last iteration reaches the profilers, so this must be called before the teardown removes the
+     * benchmark's tuples, and with them the cached results.
+     */
+    public static void freeze() {
+        final var cache = CheckCacheProfiler.cache;
+        if (cache != null) {
+            frozenSize = new Size(cache.size(), cache.estimatedBytes());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Size of the client-side check cache, per iteration.";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {}
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        final var cache = CheckCacheProfiler.cache;
+        if (cache == null) {
+            return List.of();
+        }
+
+        final var size = Objects.requireNonNullElseGet(frozenSize, () -> new Size(cache.size(), cache.estimatedBytes()));
+        return List.of(
+            new ScalarResult(PREFIX + "entries", size.entries(), "entries", AggregationPolicy.AVG),
+            new ScalarResult(PREFIX + "footprint", size.bytes() / 1024d, "KiB", AggregationPolicy.AVG)
+        );
+    }
+
+    /**
+     * Size of a cache.
+     *
+     * @param entries Number of cached results.
+     * @param bytes Estimated number of bytes which the cached results occupy on the heap.
+     */
+    private record Size(long entries, long bytes) {}
+}
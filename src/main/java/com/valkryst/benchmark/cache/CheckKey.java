@@ -0,0 +1,35 @@
+package com.valkryst.benchmark.cache;
+
+import lombok.NonNull;
+
+/**
+ * The key of a cached check result.
+ *
+ * @param user User of the check.
+ * @param relation Relation of the check.
+ * @param object Object of the check.
+ */
+public record CheckKey(@NonNull String user, @NonNull String relation, @NonNull String object) {
+    /**
+     * Estimates the number of bytes which the key occupies on the heap, assuming compressed references and Latin-1
+     * strings. Strings which are shared with other keys (e.g. the relation) are counted in full, so this is an upper
+     * bound.
+     *
+     * @return Estimated size of the key, in bytes.
+     */
+    public long estimatedBytes() {
+        // 12 byte header and three 4 byte references.
+        return 24 + estimatedBytes(user) + estimatedBytes(relation) + estimatedBytes(object);
+    }
+
+    /**
+     * Estimates the number of bytes which a string occupies on the heap.
+     *
+     * @param string String to estimate.
+     * @return Estimated size of the string, in bytes.
+     */
+    private static long estimatedBytes(final String string) {
+        // 24 byte String object, plus a byte[] with a 16 byte header, padded to 8 bytes.
+        return 24 + ((16 + string.length() + 7) & ~7);
+    }
+}
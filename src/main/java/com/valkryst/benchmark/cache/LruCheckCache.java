@@ -0,0 +1,105 @@
+package com.valkryst.benchmark.cache;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     A {@link CheckCache} which evicts the least recently used result once it is full.
+ * </p>
+ *
+ * <p>
+ *     Every read reorders the entries, so all operations are serialized by a single lock. This is the simplest cache
+ *     which could be put in front of the client, and is a baseline for the {@link TinyLfuCheckCache}.
+ * </p>
+ */
+public class LruCheckCache implements CheckCache {
+    /** Estimated size of a map entry, including its slot in the map's table and its {@link Entry}. */
+    private static final long ENTRY_OVERHEAD_BYTES = 40 + 4 + 24;
+
+    /** Maximum number of cached results. */
+    private final long maxSize;
+
+    /** Time, in nanoseconds, after which a cached result expires. */
+    private final long ttlNanos;
+
+    /** Cached results, from least to most recently used. */
+    private final LinkedHashMap<CheckKey, Entry> entries;
+
+    /**
+     * Constructs a new LruCheckCache.
+     *
+     * @param maxSize Maximum number of cached results.
+     * @param ttl Time after which a cached result expires.
+     */
+    public LruCheckCache(final long maxSize, final @NonNull Duration ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be greater than or equal to 1.");
+        }
+
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CheckKey, Entry> eldest) {
+                return size() > LruCheckCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Boolean get(final @NonNull CheckKey key) {
+        final var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.nanoTime() - entry.writeTime() >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+
+        return entry.allowed();
+    }
+
+    @Override
+    public synchronized void put(final @NonNull CheckKey key, final boolean allowed) {
+        entries.put(key, new Entry(allowed, System.nanoTime()));
+    }
+
+    @Override
+    public synchronized void invalidate(final @NonNull CheckKey key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long estimatedBytes() {
+        long bytes = 0;
+        for (final var key : entries.keySet()) {
+            bytes += ENTRY_OVERHEAD_BYTES + key.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * A cached result.
+     *
+     * @param allowed Whether the relationship exists.
+     * @param writeTime Time, from {@link System#nanoTime()}, at which the result was cached.
+     */
+    private record Entry(boolean allowed, long writeTime) {}
+}
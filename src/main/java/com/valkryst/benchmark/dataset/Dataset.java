@@ -0,0 +1,14 @@
+package com.valkryst.benchmark.dataset;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+
+/** A generated set of tuples, which a benchmark writes to the OpenFGA API before it begins. */
+public interface Dataset extends Iterable<ClientTupleKey> {
+    /**
+     * Retrieves the name of the dataset. Datasets with the same name contain the same tuples, so it's used to identify
+     * the {@link DatasetSnapshot} of the dataset.
+     *
+     * @return The name, which is safe to use as a file name.
+     */
+    String name();
+}
@@ -0,0 +1,349 @@
+package com.valkryst.benchmark.dataset;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.openfga.sdk.api.client.model.ClientRelationshipCondition;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * <p>
+ *     A {@link Dataset} which has been written to a file, along with the store and authorization model that it was
+ *     loaded into, so that a later run can either reuse the store, or restore the tuples into a new store.
+ * </p>
+ *
+ * <p>
+ *     The file is read through a memory-mapped buffer, and its tuples are decoded as they're iterated over, so a
+ *     snapshot never needs to be held in memory. The file is laid out as follows:
+ * </p>
+ *
+ * <ul>
+ *     <li>The magic number {@code OFGASNAP}, and the version of the format, as an int.</li>
+ *     <li>
+ *         The store ID, authorization model ID, and API URL, each in a fixed-size slot, so that they can be updated
+ *         in place when the tuples are restored into a new store.
+ *     </li>
+ *     <li>The number of tuples, as a long.</li>
+ *     <li>The name of the dataset, and the authorization model as JSON.</li>
+ *     <li>
+ *         The user, relation, and object of each tuple, followed by the name of its condition, and the condition's
+ *         context as JSON. Tuples without a condition have an empty name, and no context.
+ *     </li>
+ * </ul>
+ *
+ * <p>Each string, outside of the slots, is written as its varint-encoded length in bytes followed by its UTF-8 bytes.</p>
+ */
+public class DatasetSnapshot implements Iterable<ClientTupleKey> {
+    /** Magic number at the start of every snapshot file. */
+    private static final byte[] MAGIC = "OFGASNAP".getBytes(StandardCharsets.US_ASCII);
+
+    /** Version of the file format. Files with any other version are ignored. */
+    private static final int VERSION = 2;
+
+    /** Used to write, and read, the context of each condition. */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Size of the slots which hold the store ID and the authorization model ID, in bytes. */
+    private static final int ID_SLOT_SIZE = 64;
+
+    /** Size of the slot which holds the API URL, in bytes. */
+    private static final int URL_SLOT_SIZE = 256;
+
+    /** Offset of the store ID slot, from the start of the file. */
+    private static final int STORE_ID_OFFSET = MAGIC.length + Integer.BYTES;
+
+    /** Offset of the authorization model ID slot, from the start of the file. */
+    private static final int MODEL_ID_OFFSET = STORE_ID_OFFSET + ID_SLOT_SIZE;
+
+    /** Offset of the API URL slot, from the start of the file. */
+    private static final int API_URL_OFFSET = MODEL_ID_OFFSET + ID_SLOT_SIZE;
+
+    /** Offset of the number of tuples, from the start of the file. */
+    private static final int TUPLE_COUNT_OFFSET = API_URL_OFFSET + URL_SLOT_SIZE;
+
+    /** ID of the store which the tuples were loaded into. */
+    @Getter private final String storeId;
+
+    /** ID of the authorization model which was written to the store. */
+    @Getter private final String authorizationModelId;
+
+    /** URL of the OpenFGA API which hosts the store. */
+    @Getter private final String apiUrl;
+
+    /** Number of tuples in the snapshot. */
+    @Getter private final long tupleCount;
+
+    /** Name of the dataset. */
+    @Getter private final String name;
+
+    /** The authorization model, as JSON. */
+    @Getter private final String model;
+
+    /** Contents of the file. */
+    private final ByteBuffer buffer;
+
+    /** Offset of the first tuple, from the start of the file. */
+    private final int tuplesOffset;
+
+    /**
+     * Constructs a new DatasetSnapshot, by parsing the header of a mapped file.
+     *
+     * @param buffer Contents of the file.
+     * @throws IllegalArgumentException If the file isn't a snapshot, or is of a different version.
+     */
+    private DatasetSnapshot(final ByteBuffer buffer) {
+        final var magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalArgumentException("The file is not a dataset snapshot.");
+        }
+
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("The snapshot is of version " + version + ", but only version " + VERSION + " is supported.");
+        }
+
+        storeId = readSlot(buffer, STORE_ID_OFFSET);
+        authorizationModelId = readSlot(buffer, MODEL_ID_OFFSET);
+        apiUrl = readSlot(buffer, API_URL_OFFSET);
+
+        buffer.position(TUPLE_COUNT_OFFSET);
+        tupleCount = buffer.getLong();
+        name = readString(buffer);
+        model = readString(buffer);
+
+        this.buffer = buffer;
+        this.tuplesOffset = buffer.position();
+    }
+
+    /**
+     * Opens a snapshot file.
+     *
+     * @param file Path of the file.
+     * @return The snapshot, or an empty optional if the file does not exist, or is not a valid snapshot.
+     * @throws IOException If the file exists, but cannot be read.
+     */
+    public static Optional<DatasetSnapshot> open(final @NonNull Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                System.err.println("Ignoring snapshot " + file + ", as it is larger than 2 GiB.");
+                return Optional.empty();
+            }
+
+            // The mapping remains valid after the channel is closed.
+            return Optional.of(new DatasetSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            System.err.println("Ignoring snapshot " + file + ", as it could not be read: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes a snapshot file, replacing any existing file.
+     *
+     * @param file Path of the file.
+     * @param storeId ID of the store which the tuples were loaded into.
+     * @param authorizationModelId ID of the authorization model which was written to the store.
+     * @param apiUrl URL of the OpenFGA API which hosts the store.
+     * @param name Name of the dataset.
+     * @param model The authorization model, as JSON.
+     * @param tuples Tuples of the dataset.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(final @NonNull Path file, final @NonNull String storeId, final @NonNull String authorizationModelId, final @NonNull String apiUrl, final @NonNull String name, final @NonNull String model, final @NonNull Iterator<? extends ClientTupleKey> tuples) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        // The snapshot is written to a temporary file, then moved into place, so that a partially written snapshot is
+        // never read.
+        final var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        long tupleCount = 0;
+        try (final var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile), 1 << 16))) {
+            output.write(MAGIC);
+            output.writeInt(VERSION);
+            output.write(slot(storeId, ID_SLOT_SIZE));
+            output.write(slot(authorizationModelId, ID_SLOT_SIZE));
+            output.write(slot(apiUrl, URL_SLOT_SIZE));
+            output.writeLong(0);
+            writeString(output, name);
+            writeString(output, model);
+
+            while (tuples.hasNext()) {
+                final var tuple = tuples.next();
+                writeString(output, tuple.getUser());
+                writeString(output, tuple.getRelation());
+                writeString(output, tuple.getObject());
+
+                final var condition = tuple.getCondition();
+                if (condition == null) {
+                    writeString(output, "");
+                } else {
+                    writeString(output, condition.getName());
+                    writeString(output, MAPPER.writeValueAsString(condition.getContext()));
+                }
+
+                tupleCount++;
+            }
+        }
+
+        try (final var channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, tupleCount), TUPLE_COUNT_OFFSET);
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Updates the store of a snapshot file, in place, after its tuples have been restored into a new store.
+     *
+     * @param file Path of the file.
+     * @param storeId ID of the new store.
+     * @param authorizationModelId ID of the authorization model which was written to the new store.
+     * @param apiUrl URL of the OpenFGA API which hosts the new store.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void updateStore(final @NonNull Path file, final @NonNull String storeId, final @NonNull String authorizationModelId, final @NonNull String apiUrl) throws IOException {
+        try (final var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(slot(storeId, ID_SLOT_SIZE)), STORE_ID_OFFSET);
+            channel.write(ByteBuffer.wrap(slot(authorizationModelId, ID_SLOT_SIZE)), MODEL_ID_OFFSET);
+            channel.write(ByteBuffer.wrap(slot(apiUrl, URL_SLOT_SIZE)), API_URL_OFFSET);
+        }
+    }
+
+    /** @return An iterator over all tuples in the snapshot, which decodes each one as it's reached. */
+    @Override
+    public Iterator<ClientTupleKey> iterator() {
+        final var view = buffer.duplicate().position(tuplesOffset);
+
+        return new Iterator<>() {
+            private long index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < tupleCount;
+            }
+
+            @Override
+            public ClientTupleKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                index++;
+
+                final var tuple = new ClientTupleKey();
+                tuple.user(readString(view));
+                tuple.relation(readString(view));
+                tuple._object(readString(view));
+
+                final var condition = readString(view);
+                if (!condition.isEmpty()) {
+                    try {
+                        tuple.condition(new ClientRelationshipCondition().name(condition).context(MAPPER.readTree(readString(view))));
+                    } catch (final JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                return tuple;
+            }
+        };
+    }
+
+    /**
+     * Encodes a string into a fixed-size slot, as its length in bytes, as a short, followed by its UTF-8 bytes, and
+     * padded with zeroes.
+     *
+     * @param value The string.
+     * @param size Size of the slot, in bytes.
+     * @return The slot.
+     * @throws IllegalArgumentException If the string doesn't fit in the slot.
+     */
+    private static byte[] slot(final String value, final int size) {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > size - Short.BYTES) {
+            throw new IllegalArgumentException("'" + value + "' is longer than " + (size - Short.BYTES) + " bytes.");
+        }
+
+        return ByteBuffer.allocate(size).putShort((short) bytes.length).put(bytes).array();
+    }
+
+    /**
+     * Decodes a string from a fixed-size slot.
+     *
+     * @param buffer Contents of the file.
+     * @param offset Offset of the slot, from the start of the file.
+     * @return The string.
+     */
+    private static String readSlot(final ByteBuffer buffer, final int offset) {
+        final var bytes = new byte[buffer.getShort(offset)];
+        buffer.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string, as its varint-encoded length in bytes, followed by its UTF-8 bytes.
+     *
+     * @param output Stream to write to.
+     * @param value The string.
+     * @throws IOException If the string cannot be written.
+     */
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            output.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        output.writeByte(length);
+
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a string, which was written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param buffer Buffer to read from, positioned at the start of the string.
+     * @return The string.
+     */
+    private static String readString(final ByteBuffer buffer) {
+        int length = 0;
+        int shift = 0;
+
+        byte b;
+        do {
+            b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        final var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,169 @@
+package com.valkryst.benchmark.dataset;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>A dataset in which each user can read a fixed number of reports.</p>
+ *
+ * <p>
+ *     When the depth is {@code 0}, each user is a direct reader of their reports. Otherwise, each user is a member of
+ *     the lowest group in a chain of {@code depth} groups, where the members of each group are members of the group
+ *     above it, and the members of the highest group are readers of the user's reports. Resolving the reports of a
+ *     user then requires traversing the whole chain.
+ * </p>
+ *
+ * <p>Tuples are derived and rendered on demand, and the same seed always produces the same tuples.</p>
+ */
+public class FanOutDataset implements Dataset {
+    /** Seed used to derive the IDs of the dataset. */
+    @Getter private final long seed;
+
+    /** Number of users in the dataset. */
+    @Getter private final int users;
+
+    /** Number of reports which each user can read. */
+    @Getter private final int fanOut;
+
+    /** Number of groups between each user and their reports. */
+    @Getter private final int depth;
+
+    /** Salt used to derive the user IDs. */
+    private final long userSalt;
+
+    /** Salt used to derive the group IDs. */
+    private final long groupSalt;
+
+    /** Salt used to derive the report IDs. */
+    private final long reportSalt;
+
+    /**
+     * Constructs a new FanOutDataset.
+     *
+     * @param seed Seed used to derive the IDs of the dataset.
+     * @param users Number of users in the dataset.
+     * @param fanOut Number of reports which each user can read.
+     * @param depth Number of groups between each user and their reports.
+     */
+    public FanOutDataset(final long seed, final int users, final int fanOut, final int depth) {
+        if (users < 1) {
+            throw new IllegalArgumentException("users must be greater than or equal to 1.");
+        }
+
+        if (fanOut < 1) {
+            throw new IllegalArgumentException("fanOut must be greater than or equal to 1.");
+        }
+
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must be greater than or equal to 0.");
+        }
+
+        this.seed = seed;
+        this.users = users;
+        this.fanOut = fanOut;
+        this.depth = depth;
+        this.userSalt = Ids.salt(seed, 4);
+        this.groupSalt = Ids.salt(seed, 5);
+        this.reportSalt = Ids.salt(seed, 6);
+    }
+
+    /**
+     * Renders a user.
+     *
+     * @param n Any non-negative number. Numbers greater than or equal to the number of users wrap around.
+     * @return The user.
+     */
+    public String user(final long n) {
+        return "user:" + Ids.render(Ids.id(userSalt, Math.floorMod(n, users)));
+    }
+
+    /**
+     * Renders a report.
+     *
+     * @param user Index of the user who can read the report.
+     * @param report Index of the report, within the user's reports.
+     * @return The report.
+     */
+    public String report(final int user, final int report) {
+        return "report:" + Ids.render(Ids.id(reportSalt, ((long) user * fanOut) + report));
+    }
+
+    /**
+     * Renders a group.
+     *
+     * @param user Index of the user whose chain the group belongs to.
+     * @param level Level of the group within the chain, where {@code 0} is the highest level.
+     * @return The group.
+     */
+    private String group(final int user, final int level) {
+        return "group:" + Ids.render(Ids.id(groupSalt, ((long) user * depth) + level));
+    }
+
+    /** @return Number of tuples for each user. */
+    private int tuplesPerUser() {
+        return depth + fanOut;
+    }
+
+    /** @return Total number of tuples in the dataset. */
+    public long size() {
+        return (long) users * tuplesPerUser();
+    }
+
+    /**
+     * Renders the tuple at an index.
+     *
+     * @param index Index of the tuple.
+     * @return The tuple.
+     */
+    public ClientTupleKey tuple(final long index) {
+        final int user = (int) (index / tuplesPerUser());
+        final int offset = (int) (index % tuplesPerUser());
+
+        final var tuple = new ClientTupleKey();
+
+        // The reports, which are read either directly by the user or by the members of the highest group.
+        if (offset < fanOut) {
+            tuple.user(depth == 0 ? user(user) : group(user, 0) + "#member");
+            tuple.relation("reader");
+            tuple._object(report(user, offset));
+            return tuple;
+        }
+
+        // The chain of groups, which ends with the user as a member of the lowest group.
+        final int level = offset - fanOut;
+        tuple.user(level == depth - 1 ? user(user) : group(user, level + 1) + "#member");
+        tuple.relation("member");
+        tuple._object(group(user, level));
+        return tuple;
+    }
+
+    @Override
+    public String name() {
+        return "fan-out-" + seed + "-" + users + "-" + fanOut + "-" + depth;
+    }
+
+    /** @return An iterator over all tuples in the dataset. */
+    @Override
+    public Iterator<ClientTupleKey> iterator() {
+        return new Iterator<>() {
+            private long index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public ClientTupleKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return tuple(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,358 @@
+package com.valkryst.benchmark.dataset;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>A dataset of independent group trees, each of which grants its users access to a report.</p>
+ *
+ * <p>The shape of each tree is controlled by the following settings:</p>
+ *
+ * <ul>
+ *     <li>
+ *         <b>Depth</b> - Number of levels of groups. Level {@code 0} contains a single root group, and each user is a
+ *         direct member of one group on the lowest level.
+ *     </li>
+ *     <li><b>Branching Factor</b> - Number of child groups of each group.</li>
+ *     <li>
+ *         <b>Fan-In</b> - Number of parent groups of each non-root group. When this is greater than {@code 1}, the
+ *         tree becomes a DAG in which groups share ancestors, and a check has multiple paths to explore.
+ *     </li>
+ *     <li><b>Cycles</b> - Whether the members of the root group are also members of a group on the lowest level.</li>
+ *     <li>
+ *         <b>Userset Hops</b> - Number of {@code group#member} usersets which must be traversed, from a user, to reach
+ *         the report. The members of every group on level {@code depth - usersetHops} are readers of the report.
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ *     The members of each child group are members of its parent groups, so every user can read their tree's report
+ *     VIA {@code user -> group#member -> ... -> report#reader}. Tuples are derived and rendered on demand, and the same
+ *     seed always produces the same tuples.
+ * </p>
+ */
+public class GraphShapeDataset implements Dataset {
+    /** Seed used to derive the IDs of the dataset. */
+    @Getter private final long seed;
+
+    /** Number of trees in the dataset. */
+    @Getter private final long trees;
+
+    /** Number of levels of groups in each tree. */
+    @Getter private final int depth;
+
+    /** Number of child groups of each group. */
+    @Getter private final int branchingFactor;
+
+    /** Number of parent groups of each non-root group, where possible. */
+    @Getter private final int fanIn;
+
+    /** Whether each tree contains a cycle. */
+    @Getter private final boolean cycles;
+
+    /** Number of {@code group#member} usersets which must be traversed, from a user, to reach the report. */
+    @Getter private final int usersetHops;
+
+    /** Number of groups on each level of a tree. */
+    private final long[] levelWidths;
+
+    /** Index, within a tree, of the first group on each level. */
+    private final long[] levelOffsets;
+
+    /** Number of groups in each tree. */
+    private final long groupsPerTree;
+
+    /** Number of tuples in each tree. */
+    private final long tuplesPerTree;
+
+    /** Salt used to derive the user IDs. */
+    private final long userSalt;
+
+    /** Salt used to derive the group IDs. */
+    private final long groupSalt;
+
+    /** Salt used to derive the report IDs. */
+    private final long reportSalt;
+
+    /** Salt used to derive the IDs of users who aren't members of any group. */
+    private final long nonMemberSalt;
+
+    /**
+     * Constructs a new GraphShapeDataset.
+     *
+     * @param seed Seed used to derive the IDs of the dataset.
+     * @param trees Number of trees in the dataset.
+     * @param depth Number of levels of groups in each tree.
+     * @param branchingFactor Number of child groups of each group.
+     * @param fanIn Number of parent groups of each non-root group. This is limited by the number of groups on the
+     *              level above.
+     * @param cycles Whether each tree contains a cycle.
+     * @param usersetHops Number of {@code group#member} usersets which must be traversed, from a user, to reach the
+     *                    report. This is limited by the depth.
+     */
+    public GraphShapeDataset(final long seed, final long trees, final int depth, final int branchingFactor, final int fanIn, final boolean cycles, final int usersetHops) {
+        if (trees < 1) {
+            throw new IllegalArgumentException("trees must be greater than or equal to 1.");
+        }
+
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be greater than or equal to 1.");
+        }
+
+        if (branchingFactor < 1) {
+            throw new IllegalArgumentException("branchingFactor must be greater than or equal to 1.");
+        }
+
+        if (fanIn < 1) {
+            throw new IllegalArgumentException("fanIn must be greater than or equal to 1.");
+        }
+
+        if (usersetHops < 1) {
+            throw new IllegalArgumentException("usersetHops must be greater than or equal to 1.");
+        }
+
+        this.seed = seed;
+        this.trees = trees;
+        this.depth = depth;
+        this.branchingFactor = branchingFactor;
+        this.fanIn = fanIn;
+        this.cycles = cycles;
+        this.usersetHops = Math.min(usersetHops, depth);
+
+        levelWidths = new long[depth];
+        levelOffsets = new long[depth];
+
+        long width = 1;
+        long offset = 0;
+        for (int level = 0 ; level < depth ; level++) {
+            levelWidths[level] = width;
+            levelOffsets[level] = offset;
+
+            offset += width;
+            width = Math.multiplyExact(width, branchingFactor);
+        }
+        groupsPerTree = offset;
+        tuplesPerTree = countTuplesPerTree();
+
+        userSalt = Ids.salt(seed, 7);
+        groupSalt = Ids.salt(seed, 8);
+        reportSalt = Ids.salt(seed, 9);
+        nonMemberSalt = Ids.salt(seed, 13);
+    }
+
+    /**
+     * Calculates the number of tuples in each tree, for a given shape, without constructing a dataset. This can be
+     * used to determine how many trees fit within a tuple budget.
+     *
+     * @param depth Number of levels of groups in each tree.
+     * @param branchingFactor Number of child groups of each group.
+     * @param fanIn Number of parent groups of each non-root group.
+     * @param cycles Whether each tree contains a cycle.
+     * @param usersetHops Number of {@code group#member} usersets which must be traversed, from a user, to reach the
+     *                    report.
+     * @return Number of tuples in each tree.
+     */
+    public static long tuplesPerTree(final int depth, final int branchingFactor, final int fanIn, final boolean cycles, final int usersetHops) {
+        return new GraphShapeDataset(0, 1, depth, branchingFactor, fanIn, cycles, usersetHops).tuplesPerTree();
+    }
+
+    /** @return Number of tuples in each tree. */
+    public long tuplesPerTree() {
+        return tuplesPerTree;
+    }
+
+    /** @return Number of tuples in each tree. */
+    private long countTuplesPerTree() {
+        long tuples = 0;
+
+        // Each non-root group is a member of its parents.
+        for (int level = 1 ; level < depth ; level++) {
+            tuples += levelWidths[level] * parentsOf(level);
+        }
+
+        // Each user is a member of a group on the lowest level.
+        tuples += leavesPerTree();
+
+        // The members of each group, on the granted level, are readers of the report.
+        tuples += levelWidths[grantedLevel()];
+
+        if (hasCycle()) {
+            tuples++;
+        }
+
+        return tuples;
+    }
+
+    /** @return Total number of tuples in the dataset. */
+    public long size() {
+        return trees * tuplesPerTree;
+    }
+
+    /** @return Number of users in each tree, which is the same as the number of groups on the lowest level. */
+    public long leavesPerTree() {
+        return levelWidths[depth - 1];
+    }
+
+    /**
+     * Renders a user.
+     *
+     * @param n Any non-negative number. Consecutive numbers map to users in different trees, and numbers greater than
+     *          or equal to the number of users wrap around.
+     * @return The user.
+     */
+    public String user(final long n) {
+        final long tree = Math.floorMod(n, trees);
+        final long leaf = Math.floorMod(n / trees, leavesPerTree());
+        return user(tree, leaf);
+    }
+
+    /**
+     * Renders a user who isn't a member of any group, and so can't read any report. A check of their relationship to a
+     * report must explore every group of the report's tree, including its cycle, before it can fail.
+     *
+     * @param n Any non-negative number.
+     * @return The user.
+     */
+    public String nonMember(final long n) {
+        return "user:" + Ids.render(Ids.id(nonMemberSalt, n));
+    }
+
+    /**
+     * Renders the report which the user, from {@link #user(long)}, can read.
+     *
+     * @param n The same number which was passed to {@link #user(long)}.
+     * @return The report.
+     */
+    public String report(final long n) {
+        return "report:" + Ids.render(Ids.id(reportSalt, Math.floorMod(n, trees)));
+    }
+
+    /**
+     * Renders a user.
+     *
+     * @param tree Index of the tree.
+     * @param leaf Index of the group, on the lowest level, which the user is a member of.
+     * @return The user.
+     */
+    private String user(final long tree, final long leaf) {
+        return "user:" + Ids.render(Ids.id(userSalt, (tree * leavesPerTree()) + leaf));
+    }
+
+    /**
+     * Renders a group.
+     *
+     * @param tree Index of the tree.
+     * @param level Level of the group.
+     * @param index Index of the group within its level.
+     * @return The group.
+     */
+    private String group(final long tree, final int level, final long index) {
+        return "group:" + Ids.render(Ids.id(groupSalt, (tree * groupsPerTree) + levelOffsets[level] + index));
+    }
+
+    /**
+     * Determines the number of parents of each group on a level.
+     *
+     * @param level Level of the groups.
+     * @return Number of parents.
+     */
+    private long parentsOf(final int level) {
+        return Math.min(fanIn, levelWidths[level - 1]);
+    }
+
+    /** @return Level of the groups whose members are readers of the report. */
+    private int grantedLevel() {
+        return depth - usersetHops;
+    }
+
+    /** @return Whether each tree contains a cycle. A tree with a single level can't contain a cycle. */
+    private boolean hasCycle() {
+        return cycles && depth > 1;
+    }
+
+    /**
+     * Renders a tuple.
+     *
+     * @param user User of the tuple.
+     * @param relation Relation of the tuple.
+     * @param object Object of the tuple.
+     * @return The tuple.
+     */
+    private static ClientTupleKey tuple(final String user, final String relation, final String object) {
+        final var tuple = new ClientTupleKey();
+        tuple.user(user);
+        tuple.relation(relation);
+        tuple._object(object);
+        return tuple;
+    }
+
+    /**
+     * Renders the tuple at an index.
+     *
+     * @param index Index of the tuple.
+     * @return The tuple.
+     */
+    public ClientTupleKey tuple(final long index) {
+        final long tree = index / tuplesPerTree;
+        long offset = index % tuplesPerTree;
+
+        // The members of each child group are members of its parents. The first parent is the group which the child
+        // branched from, and any additional parents are its neighbours on the level above.
+        for (int level = 1 ; level < depth ; level++) {
+            final long parents = parentsOf(level);
+            final long memberships = levelWidths[level] * parents;
+
+            if (offset < memberships) {
+                final long child = offset / parents;
+                final long parent = ((child / branchingFactor) + (offset % parents)) % levelWidths[level - 1];
+                return tuple(group(tree, level, child) + "#member", "member", group(tree, level - 1, parent));
+            }
+
+            offset -= memberships;
+        }
+
+        // Each user is a member of a group on the lowest level.
+        if (offset < leavesPerTree()) {
+            return tuple(user(tree, offset), "member", group(tree, depth - 1, offset));
+        }
+        offset -= leavesPerTree();
+
+        // The members of each group, on the granted level, are readers of the report.
+        if (offset < levelWidths[grantedLevel()]) {
+            return tuple(group(tree, grantedLevel(), offset) + "#member", "reader", report(tree));
+        }
+
+        // The members of the root group are members of a group on the lowest level.
+        return tuple(group(tree, 0, 0) + "#member", "member", group(tree, depth - 1, 0));
+    }
+
+    @Override
+    public String name() {
+        return "graph-shape-" + seed + "-" + trees + "-" + depth + "-" + branchingFactor + "-" + fanIn + "-" + cycles + "-" + usersetHops;
+    }
+
+    /** @return An iterator over all tuples in the dataset. */
+    @Override
+    public Iterator<ClientTupleKey> iterator() {
+        return new Iterator<>() {
+            private long index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public ClientTupleKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return tuple(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.valkryst.benchmark.dataset;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects keys from a small hot set most of the time, and from the remaining cold keys the rest of the time. Keys are
+ * selected uniformly within each set.
+ */
+public class HotspotKeySelector implements KeySelector {
+    /** Default fraction of the keys which are in the hot set. */
+    public static final double DEFAULT_HOT_KEY_FRACTION = 0.2;
+
+    /** Default fraction of the selections which are made from the hot set. */
+    public static final double DEFAULT_HOT_SELECTION_FRACTION = 0.8;
+
+    /** Number of keys to select from. */
+    private final long keys;
+
+    /** Number of keys in the hot set. These are the keys in the range {@code [0, hotKeys)}. */
+    private final long hotKeys;
+
+    /** Fraction of the selections which are made from the hot set. */
+    private final double hotSelectionFraction;
+
+    /**
+     * Constructs a new HotspotKeySelector.
+     *
+     * @param keys Number of keys to select from.
+     * @param hotKeyFraction Fraction of the keys which are in the hot set.
+     * @param hotSelectionFraction Fraction of the selections which are made from the hot set.
+     */
+    public HotspotKeySelector(final long keys, final double hotKeyFraction, final double hotSelectionFraction) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("keys must be greater than or equal to 1.");
+        }
+
+        if (hotKeyFraction <= 0 || hotKeyFraction > 1) {
+            throw new IllegalArgumentException("hotKeyFraction must be in the range (0, 1].");
+        }
+
+        if (hotSelectionFraction < 0 || hotSelectionFraction > 1) {
+            throw new IllegalArgumentException("hotSelectionFraction must be in the range [0, 1].");
+        }
+
+        this.keys = keys;
+        this.hotKeys = Math.max(1, (long) (keys * hotKeyFraction));
+        this.hotSelectionFraction = hotSelectionFraction;
+    }
+
+    @Override
+    public long next() {
+        final var random = ThreadLocalRandom.current();
+        if (hotKeys == keys || random.nextDouble() < hotSelectionFraction) {
+            return random.nextLong(hotKeys);
+        }
+
+        return hotKeys + random.nextLong(keys - hotKeys);
+    }
+}
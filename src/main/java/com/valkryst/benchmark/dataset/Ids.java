@@ -0,0 +1,113 @@
+package com.valkryst.benchmark.dataset;
+
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * <p>Helper functions for deterministically deriving object IDs from a seed and an index.</p>
+ *
+ * <p>
+ *     IDs are derived using the SplitMix64 finalizer, which is a bijection over all 64-bit values. This means that
+ *     every index maps to a unique ID, and that the index can be recovered from the ID with {@link #unmix(long)}. The
+ *     datasets rely on this to determine whether a tuple exists, without having to keep a set of tuples in memory.
+ * </p>
+ */
+public final class Ids {
+    private Ids() {}
+
+    /**
+     * Derives a salt, which is used to give each stream of IDs (e.g. users, reports, groups) of a dataset its own
+     * independent sequence.
+     *
+     * @param seed Seed of the dataset.
+     * @param stream Identifier of the stream.
+     * @return The salt.
+     */
+    public static long salt(final long seed, final long stream) {
+        return mix(seed * 0x9E3779B97F4A7C15L + stream);
+    }
+
+    /**
+     * Derives an ID from an index.
+     *
+     * @param salt Salt of the stream, see {@link #salt(long, long)}.
+     * @param index Index to derive the ID from.
+     * @return The ID.
+     */
+    public static long id(final long salt, final long index) {
+        return mix(index ^ salt);
+    }
+
+    /**
+     * Recovers the index from an ID, which was derived using {@link #id(long, long)}.
+     *
+     * @param salt Salt of the stream, see {@link #salt(long, long)}.
+     * @param id ID to recover the index from.
+     * @return The index.
+     */
+    public static long index(final long salt, final long id) {
+        return unmix(id) ^ salt;
+    }
+
+    /**
+     * Renders an ID in the UUID format, so that the rendered IDs are the same length as those used by the other
+     * benchmarks.
+     *
+     * @param id ID to render.
+     * @return The rendered ID.
+     */
+    public static String render(final long id) {
+        return new UUID(mix(~id), id).toString();
+    }
+
+    /**
+     * Parses an ID which was rendered with {@link #render(long)}.
+     *
+     * @param rendered Rendered ID.
+     * @return The ID.
+     * @throws IllegalArgumentException If the rendered ID is not in the UUID format.
+     */
+    public static long parse(final @NonNull String rendered) {
+        return UUID.fromString(rendered).getLeastSignificantBits();
+    }
+
+    /**
+     * Applies the SplitMix64 finalizer to a value.
+     *
+     * @param value Value to mix.
+     * @return The mixed value.
+     */
+    public static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Reverses {@link #mix(long)}.
+     *
+     * @param value Value to unmix.
+     * @return The original value.
+     */
+    public static long unmix(long value) {
+        value = unshift(value, 31) * 0x319642B2D24D8EC3L;
+        value = unshift(value, 27) * 0x96DE1B173F119089L;
+        return unshift(value, 30);
+    }
+
+    /**
+     * Reverses {@code value ^ (value >>> shift)}.
+     *
+     * @param value Value to reverse.
+     * @param shift Shift which was applied.
+     * @return The original value.
+     */
+    private static long unshift(final long value, final int shift) {
+        long result = value;
+        for (int i = shift ; i < Long.SIZE ; i += shift) {
+            result = value ^ (result >>> shift);
+        }
+        return result;
+    }
+}
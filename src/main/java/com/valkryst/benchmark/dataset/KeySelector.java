@@ -0,0 +1,29 @@
+package com.valkryst.benchmark.dataset;
+
+import lombok.NonNull;
+
+/**
+ * <p>Selects keys (i.e. indices into a dataset) according to some distribution.</p>
+ *
+ * <p>Implementations must be safe to use from multiple threads at once.</p>
+ */
+public interface KeySelector {
+    /** @return The next key, in the range {@code [0, keys)}. */
+    long next();
+
+    /**
+     * Constructs a KeySelector, with its default settings, by name.
+     *
+     * @param distribution Name of the distribution. Either {@code uniform}, {@code zipfian}, or {@code hotspot}.
+     * @param keys Number of keys to select from.
+     * @return The KeySelector.
+     */
+    static KeySelector of(final @NonNull String distribution, final long keys) {
+        return switch (distribution) {
+            case "uniform" -> new UniformKeySelector(keys);
+            case "zipfian" -> new ZipfianKeySelector(keys, ZipfianKeySelector.DEFAULT_THETA);
+            case "hotspot" -> new HotspotKeySelector(keys, HotspotKeySelector.DEFAULT_HOT_KEY_FRACTION, HotspotKeySelector.DEFAULT_HOT_SELECTION_FRACTION);
+            default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        };
+    }
+}
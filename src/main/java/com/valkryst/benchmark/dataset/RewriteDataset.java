@@ -0,0 +1,216 @@
+package com.valkryst.benchmark.dataset;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ *     A dataset in which each of a number of users is granted the {@code viewer} relation to their own document, through
+ *     a {@link RewriteOperator}. Each document also has a decoy user, who is denied the relation.
+ * </p>
+ *
+ * <p>
+ *     The dataset is sized by its number of tuples, rather than its number of users, so that datasets of every operator
+ *     have the same data volume. Operators which need more tuples to grant the relation therefore grant it to fewer
+ *     users. The decoys are chosen so that checking them is as expensive as possible for each operator:
+ * </p>
+ *
+ * <ul>
+ *     <li>
+ *         {@link RewriteOperator#INTERSECTION} - The decoy has the first relation of the intersection, but not the
+ *         second, so both are evaluated.
+ *     </li>
+ *     <li>
+ *         {@link RewriteOperator#EXCLUSION} - The decoy has the base relation, but is also blocked, so both are
+ *         evaluated.
+ *     </li>
+ *     <li>Otherwise, the decoy has no tuples.</li>
+ * </ul>
+ *
+ * <p>Tuples are derived and rendered on demand, and the same seed always produces the same tuples.</p>
+ */
+public class RewriteDataset implements Dataset {
+    /** Relation which is granted to each user. */
+    public static final String RELATION = "viewer";
+
+    /** Seed used to derive the IDs of the dataset. */
+    @Getter private final long seed;
+
+    /** Operator which grants the relation. */
+    @Getter private final RewriteOperator operator;
+
+    /** Number of tuples in the dataset. */
+    @Getter private final long size;
+
+    /** Number of users who are granted the relation. */
+    @Getter private final long grants;
+
+    /** Salt used to derive the user IDs, of both the granted users and the decoys. */
+    private final long userSalt;
+
+    /** Salt used to derive the document IDs. */
+    private final long documentSalt;
+
+    /** Salt used to derive the folder IDs. */
+    private final long folderSalt;
+
+    /**
+     * Constructs a new RewriteDataset.
+     *
+     * @param seed Seed used to derive the IDs of the dataset.
+     * @param operator Operator which grants the relation.
+     * @param size Number of tuples in the dataset. It's rounded down to a multiple of the operator's tuples per grant.
+     */
+    public RewriteDataset(final long seed, final @NonNull RewriteOperator operator, final long size) {
+        if (size < operator.getTuplesPerGrant()) {
+            throw new IllegalArgumentException("size must be greater than or equal to " + operator.getTuplesPerGrant() + ".");
+        }
+
+        this.seed = seed;
+        this.operator = operator;
+        this.grants = size / operator.getTuplesPerGrant();
+        this.size = grants * operator.getTuplesPerGrant();
+        this.userSalt = Ids.salt(seed, 10);
+        this.documentSalt = Ids.salt(seed, 11);
+        this.folderSalt = Ids.salt(seed, 12);
+    }
+
+    /**
+     * Retrieves a check which is allowed.
+     *
+     * @param n Any non-negative number. Numbers greater than or equal to the number of grants wrap around.
+     * @return The user, relation, and object to check.
+     */
+    public ClientTupleKey allowed(final long n) {
+        final long grant = Math.floorMod(n, grants);
+        return tuple(user(grant), RELATION, document(grant));
+    }
+
+    /**
+     * Retrieves a check which is denied.
+     *
+     * @param n Any non-negative number. Numbers greater than or equal to the number of grants wrap around.
+     * @return The user, relation, and object to check.
+     */
+    public ClientTupleKey denied(final long n) {
+        final long grant = Math.floorMod(n, grants);
+        return tuple(decoy(grant), RELATION, document(grant));
+    }
+
+    /**
+     * Renders the tuple at an index.
+     *
+     * @param index Index of the tuple.
+     * @return The tuple.
+     */
+    public ClientTupleKey tuple(final long index) {
+        final long grant = index / operator.getTuplesPerGrant();
+        final int offset = (int) (index % operator.getTuplesPerGrant());
+
+        return switch (operator) {
+            case DIRECT -> tuple(user(grant), "viewer", document(grant));
+            case COMPUTED_USERSET -> tuple(user(grant), "editor", document(grant));
+            case TUPLE_TO_USERSET -> switch (offset) {
+                case 0 -> tuple(folder(grant), "parent", document(grant));
+                default -> tuple(user(grant), "viewer", folder(grant));
+            };
+            case INTERSECTION -> switch (offset) {
+                case 0 -> tuple(user(grant), "allowed", document(grant));
+                case 1 -> tuple(user(grant), "assignee", document(grant));
+                default -> tuple(decoy(grant), "allowed", document(grant));
+            };
+            case EXCLUSION -> switch (offset) {
+                case 0 -> tuple(user(grant), "reader", document(grant));
+                case 1 -> tuple(decoy(grant), "reader", document(grant));
+                default -> tuple(decoy(grant), "blocked", document(grant));
+            };
+        };
+    }
+
+    /**
+     * Renders the user who is granted the relation to a document.
+     *
+     * @param grant Index of the grant.
+     * @return The user.
+     */
+    private String user(final long grant) {
+        return "user:" + Ids.render(Ids.id(userSalt, grant));
+    }
+
+    /**
+     * Renders the decoy of a document. Decoys are drawn from the same stream as the users, after the last user.
+     *
+     * @param grant Index of the grant.
+     * @return The decoy.
+     */
+    private String decoy(final long grant) {
+        return "user:" + Ids.render(Ids.id(userSalt, grants + grant));
+    }
+
+    /**
+     * Renders a document.
+     *
+     * @param grant Index of the grant.
+     * @return The document.
+     */
+    private String document(final long grant) {
+        return "document:" + Ids.render(Ids.id(documentSalt, grant));
+    }
+
+    /**
+     * Renders the folder of a document.
+     *
+     * @param grant Index of the grant.
+     * @return The folder.
+     */
+    private String folder(final long grant) {
+        return "folder:" + Ids.render(Ids.id(folderSalt, grant));
+    }
+
+    /**
+     * Constructs a tuple.
+     *
+     * @param user User of the tuple.
+     * @param relation Relation of the tuple.
+     * @param object Object of the tuple.
+     * @return The tuple.
+     */
+    private static ClientTupleKey tuple(final String user, final String relation, final String object) {
+        final var tuple = new ClientTupleKey();
+        tuple.user(user);
+        tuple.relation(relation);
+        tuple._object(object);
+        return tuple;
+    }
+
+    @Override
+    public String name() {
+        return "rewrite-" + operator.getModel() + "-" + seed + "-" + size;
+    }
+
+    /** @return An iterator over all tuples in the dataset. */
+    @Override
+    public Iterator<ClientTupleKey> iterator() {
+        return new Iterator<>() {
+            private long index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public ClientTupleKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return tuple(index++);
+            }
+        };
+    }
+}
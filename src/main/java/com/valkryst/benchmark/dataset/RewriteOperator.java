@@ -0,0 +1,48 @@
+package com.valkryst.benchmark.dataset;
+
+import lombok.Getter;
+
+/**
+ * <p>
+ *     An operator, which an authorization model uses to derive a relation from other relations, along with the model
+ *     that uses it. The model is loaded from the resources, see {@code com.valkryst.benchmark.model.AuthorizationModels}.
+ * </p>
+ *
+ * <p>
+ *     Each model defines {@code document#viewer} with its operator, and {@link RewriteDataset} generates the tuples
+ *     which grant users that relation.
+ * </p>
+ */
+public enum RewriteOperator {
+    /** {@code define viewer: [user]} */
+    DIRECT("direct", 1),
+
+    /** {@code define editor: [user]}, and {@code define viewer: editor} */
+    COMPUTED_USERSET("computed-userset", 1),
+
+    /** {@code define parent: [folder]}, and {@code define viewer: viewer from parent}, where {@code folder#viewer} is {@code [user]} */
+    TUPLE_TO_USERSET("tuple-to-userset", 2),
+
+    /** {@code define allowed: [user]}, {@code define assignee: [user]}, and {@code define viewer: allowed and assignee} */
+    INTERSECTION("intersection", 3),
+
+    /** {@code define reader: [user]}, {@code define blocked: [user]}, and {@code define viewer: reader but not blocked} */
+    EXCLUSION("exclusion", 3);
+
+    /** Name of the authorization model which uses the operator. */
+    @Getter private final String model;
+
+    /** Number of tuples which {@link RewriteDataset} writes for each user that it grants the relation to. */
+    @Getter private final int tuplesPerGrant;
+
+    /**
+     * Constructs a new RewriteOperator.
+     *
+     * @param model Name of the authorization model which uses the operator.
+     * @param tuplesPerGrant Number of tuples which are written for each user that is granted the relation.
+     */
+    RewriteOperator(final String model, final int tuplesPerGrant) {
+        this.model = model;
+        this.tuplesPerGrant = tuplesPerGrant;
+    }
+}
@@ -0,0 +1,132 @@
+package com.valkryst.benchmark.dataset;
+
+import dev.openfga.sdk.api.client.model.ClientRelationshipCondition;
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ *     A dataset of the same users and reports as a {@link UserReportDataset}, where each user's access to their report
+ *     is granted for a limited time by the {@value #CONDITION} condition of the {@code time-bound-grant} model.
+ * </p>
+ *
+ * <p>
+ *     Every grant begins at {@link #GRANT_TIME}, and the checks are sent with a {@link #CONTEXT} of one hour later.
+ *     Grants at even indices last for two hours, so they're still active, while grants at odd indices last for thirty
+ *     minutes, so they've expired. Both kinds of check evaluate the condition.
+ * </p>
+ */
+public class TimeBoundGrantDataset implements Dataset {
+    /** Name of the condition, in the {@code time-bound-grant} model. */
+    public static final String CONDITION = "non_expired_grant";
+
+    /** Time at which every grant begins. */
+    public static final String GRANT_TIME = "2024-01-01T00:00:00Z";
+
+    /** Context of each check, which supplies the current time. */
+    public static final Map<String, Object> CONTEXT = Map.of("current_time", "2024-01-01T01:00:00Z");
+
+    /** Users, and reports, of the dataset. */
+    private final UserReportDataset grants;
+
+    /** Seed used to derive the IDs of the dataset. */
+    @Getter private final long seed;
+
+    /** Number of tuples in the dataset. */
+    @Getter private final long size;
+
+    /**
+     * Constructs a new TimeBoundGrantDataset.
+     *
+     * @param seed Seed used to derive the IDs of the dataset.
+     * @param size Number of tuples in the dataset. It's rounded down to an even number, so that half of the grants are
+     *             active.
+     */
+    public TimeBoundGrantDataset(final long seed, final long size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("size must be greater than or equal to 2.");
+        }
+
+        this.seed = seed;
+        this.size = size - (size % 2);
+        this.grants = new UserReportDataset(seed, this.size);
+    }
+
+    /**
+     * Retrieves a check whose grant is active.
+     *
+     * @param n Any non-negative number. Numbers greater than or equal to the number of active grants wrap around.
+     * @return The user, relation, and object to check.
+     */
+    public ClientTupleKey active(final long n) {
+        return grants.tuple(2 * Math.floorMod(n, size / 2));
+    }
+
+    /**
+     * Retrieves a check whose grant has expired.
+     *
+     * @param n Any non-negative number. Numbers greater than or equal to the number of expired grants wrap around.
+     * @return The user, relation, and object to check.
+     */
+    public ClientTupleKey expired(final long n) {
+        return grants.tuple(2 * Math.floorMod(n, size / 2) + 1);
+    }
+
+    /**
+     * Retrieves a check for which no grant exists.
+     *
+     * @param n Any non-negative number. Each number maps to a different check.
+     * @return The user, relation, and object to check.
+     */
+    public ClientTupleKey nonExistent(final long n) {
+        return grants.nonExistent(n);
+    }
+
+    /**
+     * Renders the tuple at an index, along with its condition.
+     *
+     * @param index Index of the tuple.
+     * @return The tuple.
+     */
+    public ClientTupleKey tuple(final long index) {
+        final var condition = new ClientRelationshipCondition();
+        condition.name(CONDITION);
+        condition.context(Map.of(
+            "grant_time", GRANT_TIME,
+            "grant_duration", index % 2 == 0 ? "2h" : "30m"
+        ));
+
+        return grants.tuple(index).condition(condition);
+    }
+
+    @Override
+    public String name() {
+        return "time-bound-grant-" + seed + "-" + size;
+    }
+
+    /** @return An iterator over all tuples in the dataset. */
+    @Override
+    public Iterator<ClientTupleKey> iterator() {
+        return new Iterator<>() {
+            private long index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public ClientTupleKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return tuple(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.valkryst.benchmark.dataset;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Selects every key with equal probability. */
+public class UniformKeySelector implements KeySelector {
+    /** Number of keys to select from. */
+    private final long keys;
+
+    /**
+     * Constructs a new UniformKeySelector.
+     *
+     * @param keys Number of keys to select from.
+     */
+    public UniformKeySelector(final long keys) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("keys must be greater than or equal to 1.");
+        }
+
+        this.keys = keys;
+    }
+
+    @Override
+    public long next() {
+        return ThreadLocalRandom.current().nextLong(keys);
+    }
+}
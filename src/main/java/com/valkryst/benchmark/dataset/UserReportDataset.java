@@ -0,0 +1,162 @@
+package com.valkryst.benchmark.dataset;
+
+import dev.openfga.sdk.api.client.model.ClientTupleKey;
+import dev.openfga.sdk.api.client.model.ClientTupleKeyWithoutCondition;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>A dataset of {@code user:<id> reader report:<id>} tuples, where each user can read exactly one report.</p>
+ *
+ * <p>
+ *     The dataset is described entirely by its seed and size. The tuple at any index is derived on demand, so the
+ *     tuples are only rendered as strings when they're needed, and the same seed always produces the same tuples.
+ * </p>
+ *
+ * <p>
+ *     Tuples at indices in the range {@code [0, size)} are the tuples which exist (i.e. which have been written to the
+ *     OpenFGA API). Tuples at any index greater than or equal to the size do not exist, so the same dataset can be used
+ *     for both existent and non-existent lookups.
+ * </p>
+ */
+public class UserReportDataset implements Dataset {
+    /** Relation between each user and their report. */
+    public static final String RELATION = "reader";
+
+    /** Seed used to derive the IDs of the dataset. */
+    @Getter private final long seed;
+
+    /** Number of tuples which exist in the dataset. */
+    @Getter private final long size;
+
+    /** Salt used to derive the user IDs. */
+    private final long userSalt;
+
+    /** Salt used to derive the report IDs. */
+    private final long reportSalt;
+
+    /**
+     * Constructs a new UserReportDataset.
+     *
+     * @param seed Seed used to derive the IDs of the dataset.
+     * @param size Number of tuples which exist in the dataset.
+     */
+    public UserReportDataset(final long seed, final long size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be greater than or equal to 1.");
+        }
+
+        this.seed = seed;
+        this.size = size;
+        this.userSalt = Ids.salt(seed, 0);
+        this.reportSalt = Ids.salt(seed, 1);
+    }
+
+    /**
+     * Retrieves a tuple which exists in the dataset.
+     *
+     * @param n Any non-negative number. Numbers greater than or equal to the size of the dataset wrap around.
+     * @return The tuple.
+     */
+    public ClientTupleKey existent(final long n) {
+        return tuple(Math.floorMod(n, size));
+    }
+
+    /**
+     * Retrieves a tuple which does not exist in the dataset.
+     *
+     * @param n Any non-negative number. Each number maps to a different tuple.
+     * @return The tuple.
+     */
+    public ClientTupleKey nonExistent(final long n) {
+        if (n < 0 || n > Long.MAX_VALUE - size) {
+            throw new IllegalArgumentException("n must be in the range [0, " + (Long.MAX_VALUE - size) + "].");
+        }
+
+        return tuple(size + n);
+    }
+
+    /**
+     * Determines whether a tuple exists in the dataset.
+     *
+     * @param tuple Tuple to check.
+     * @return Whether the tuple exists.
+     */
+    public boolean exists(final @NonNull ClientTupleKeyWithoutCondition tuple) {
+        if (!RELATION.equals(tuple.getRelation())) {
+            return false;
+        }
+
+        final var user = tuple.getUser();
+        final var object = tuple.getObject();
+        if (user == null || !user.startsWith("user:") || object == null || !object.startsWith("report:")) {
+            return false;
+        }
+
+        final long index;
+        final long reportId;
+        try {
+            index = Ids.index(userSalt, Ids.parse(user.substring(5)));
+            reportId = Ids.parse(object.substring(7));
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+
+        return index >= 0 && index < size && Ids.id(reportSalt, index) == reportId;
+    }
+
+    /**
+     * Renders the tuple at an index.
+     *
+     * @param index Index of the tuple.
+     * @return The tuple.
+     */
+    public ClientTupleKey tuple(final long index) {
+        final var tuple = new ClientTupleKey();
+        tuple.user("user:" + Ids.render(Ids.id(userSalt, index)));
+        tuple.relation(RELATION);
+        tuple._object("report:" + Ids.render(Ids.id(reportSalt, index)));
+        return tuple;
+    }
+
+    /**
+     * Iterates over the tuples in the range {@code [start, end)}, rendering each one as it's reached.
+     *
+     * @param start Index of the first tuple.
+     * @param end Index after the last tuple.
+     * @return The iterator.
+     */
+    public Iterator<ClientTupleKey> iterator(final long start, final long end) {
+        return new Iterator<>() {
+            private long index = start;
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public ClientTupleKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return tuple(index++);
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "user-report-" + seed + "-" + size;
+    }
+
+    /** @return An iterator over all tuples which exist in the dataset. */
+    @Override
+    public Iterator<ClientTupleKey> iterator() {
+        return iterator(0, size);
+    }
+}
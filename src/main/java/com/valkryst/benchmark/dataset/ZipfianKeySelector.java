@@ -0,0 +1,83 @@
+package com.valkryst.benchmark.dataset;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ *     Selects keys according to a Zipfian distribution, where key {@code 0} is the most popular, key {@code 1} is the
+ *     next most popular, and so on.
+ * </p>
+ *
+ * <p>
+ *     This uses the algorithm from "Quickly Generating Billion-Record Synthetic Databases" by Gray et al., which is also
+ *     used by YCSB. Construction takes time proportional to the number of keys, but each selection takes constant
+ *     time.
+ * </p>
+ */
+public class ZipfianKeySelector implements KeySelector {
+    /** Default skew of the distribution. This is the value used by YCSB. */
+    public static final double DEFAULT_THETA = 0.99;
+
+    /** Number of keys to select from. */
+    private final long keys;
+
+    /** Skew of the distribution. */
+    private final double theta;
+
+    /** Precomputed constants of the distribution. */
+    private final double alpha, zetaN, eta;
+
+    /**
+     * Constructs a new ZipfianKeySelector.
+     *
+     * @param keys Number of keys to select from.
+     * @param theta Skew of the distribution. Larger values concentrate more selections on the most popular keys.
+     */
+    public ZipfianKeySelector(final long keys, final double theta) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("keys must be greater than or equal to 1.");
+        }
+
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("theta must be in the range (0, 1).");
+        }
+
+        this.keys = keys;
+        this.theta = theta;
+
+        alpha = 1 / (1 - theta);
+        zetaN = zeta(keys, theta);
+        eta = (1 - Math.pow(2d / keys, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+    }
+
+    @Override
+    public long next() {
+        final double u = ThreadLocalRandom.current().nextDouble();
+        final double uz = u * zetaN;
+
+        if (uz < 1) {
+            return 0;
+        }
+
+        if (uz < 1 + Math.pow(0.5, theta)) {
+            return Math.min(1, keys - 1);
+        }
+
+        return Math.min((long) (keys * Math.pow(eta * u - eta + 1, alpha)), keys - 1);
+    }
+
+    /**
+     * Computes the generalized harmonic number of order {@code theta}.
+     *
+     * @param n Number of terms.
+     * @param theta Order.
+     * @return The sum of {@code 1 / i^theta} for {@code i} in the range {@code [1, n]}.
+     */
+    private static double zeta(final long n, final double theta) {
+        double sum = 0;
+        for (long i = 1 ; i <= n ; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
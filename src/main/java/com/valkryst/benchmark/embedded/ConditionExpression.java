@@ -0,0 +1,544 @@
+package com.valkryst.benchmark.embedded;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>
+ *     A compiled condition of an authorization model, which the {@link EmbeddedStore} evaluates against the context of a
+ *     tuple, and of a check.
+ * </p>
+ *
+ * <p>
+ *     OpenFGA's conditions are written in CEL. Only the subset of CEL which the benchmarks' models use is supported:
+ * </p>
+ *
+ * <ul>
+ *     <li>Parameters of the {@code bool}, {@code int}, {@code uint}, {@code double}, {@code string}, {@code timestamp}, and {@code duration} types.</li>
+ *     <li>Integer, double, string, and boolean literals, and the {@code timestamp("...")}, and {@code duration("...")}, functions.</li>
+ *     <li>The {@code + - * /}, {@code < <= > >= == !=}, and {@code && || !} operators, and parentheses.</li>
+ * </ul>
+ */
+public final class ConditionExpression {
+    /** Type of each parameter, by name, e.g. {@code TYPE_NAME_TIMESTAMP}. */
+    private final Map<String, String> parameters;
+
+    /** Root of the expression. */
+    private final Node root;
+
+    /**
+     * Constructs a new ConditionExpression, by parsing a condition of an authorization model.
+     *
+     * @param condition The condition, as it appears in the {@code conditions} of a model.
+     * @throws IllegalArgumentException If the expression, or the type of a parameter, is not supported.
+     */
+    public ConditionExpression(final @NonNull JsonNode condition) {
+        final var name = condition.path("name").asText();
+
+        parameters = new HashMap<>();
+        condition.path("parameters").fields().forEachRemaining(parameter -> {
+            final var type = parameter.getValue().path("type_name").asText();
+            switch (type) {
+                case "TYPE_NAME_BOOL", "TYPE_NAME_INT", "TYPE_NAME_UINT", "TYPE_NAME_DOUBLE", "TYPE_NAME_STRING", "TYPE_NAME_TIMESTAMP", "TYPE_NAME_DURATION" -> parameters.put(parameter.getKey(), type);
+                default -> throw new IllegalArgumentException("condition '" + name + "' has a parameter of type " + type + ", which is not supported");
+            }
+        });
+
+        try {
+            root = new Parser(condition.path("expression").asText()).parse();
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("condition '" + name + "' could not be parsed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates the condition.
+     *
+     * @param tupleContext Context of the tuple, or a missing node if it has none. It takes precedence over the context
+     *                     of the check.
+     * @param requestContext Context of the check, or a missing node if it has none.
+     * @return Whether the condition is met.
+     * @throws IllegalArgumentException If a parameter is missing, or the expression cannot be evaluated.
+     */
+    public boolean evaluate(final @NonNull JsonNode tupleContext, final @NonNull JsonNode requestContext) {
+        final var variables = new HashMap<String, Object>();
+        for (final var parameter : parameters.entrySet()) {
+            var value = tupleContext.get(parameter.getKey());
+            if (value == null) {
+                value = requestContext.get(parameter.getKey());
+            }
+
+            if (value == null) {
+                throw new IllegalArgumentException("failed to evaluate relationship condition: context is missing parameter '" + parameter.getKey() + "'");
+            }
+
+            variables.put(parameter.getKey(), convert(value, parameter.getValue()));
+        }
+
+        if (root.evaluate(variables) instanceof Boolean result) {
+            return result;
+        }
+
+        throw new IllegalArgumentException("failed to evaluate relationship condition: the expression did not evaluate to a bool");
+    }
+
+    /**
+     * Converts a value of the context into the type of its parameter.
+     *
+     * @param value The value.
+     * @param type Type of the parameter.
+     * @return The converted value.
+     */
+    private static Object convert(final JsonNode value, final String type) {
+        return switch (type) {
+            case "TYPE_NAME_BOOL" -> value.asBoolean();
+            case "TYPE_NAME_INT", "TYPE_NAME_UINT" -> value.asLong();
+            case "TYPE_NAME_DOUBLE" -> value.asDouble();
+            case "TYPE_NAME_TIMESTAMP" -> timestamp(value.asText());
+            case "TYPE_NAME_DURATION" -> duration(value.asText());
+            default -> value.asText();
+        };
+    }
+
+    /**
+     * Parses an RFC 3339 timestamp.
+     *
+     * @param value The timestamp, e.g. {@code 2024-01-01T00:00:00Z}.
+     * @return The timestamp.
+     */
+    private static Instant timestamp(final String value) {
+        try {
+            return Instant.parse(value);
+        } catch (final DateTimeParseException e) {
+            throw new IllegalArgumentException("'" + value + "' is not a valid timestamp");
+        }
+    }
+
+    /**
+     * Parses a duration, in the format of Go's {@code time.ParseDuration}, which CEL uses.
+     *
+     * @param value The duration, e.g. {@code 1h30m} or {@code 1.5s}.
+     * @return The duration.
+     */
+    private static Duration duration(final String value) {
+        final boolean negative = value.startsWith("-");
+        final var text = (negative || value.startsWith("+")) ? value.substring(1) : value;
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("'" + value + "' is not a valid duration");
+        }
+
+        if (text.equals("0")) {
+            return Duration.ZERO;
+        }
+
+        var nanos = BigDecimal.ZERO;
+        int i = 0;
+        while (i < text.length()) {
+            final int numberStart = i;
+            while (i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+                i++;
+            }
+
+            final int unitStart = i;
+            while (i < text.length() && !Character.isDigit(text.charAt(i)) && text.charAt(i) != '.') {
+                i++;
+            }
+
+            if (numberStart == unitStart || unitStart == i) {
+                throw new IllegalArgumentException("'" + value + "' is not a valid duration");
+            }
+
+            final long unit = switch (text.substring(unitStart, i)) {
+                case "ns" -> 1L;
+                case "us", "µs" -> 1_000L;
+                case "ms" -> 1_000_000L;
+                case "s" -> 1_000_000_000L;
+                case "m" -> 60_000_000_000L;
+                case "h" -> 3_600_000_000_000L;
+                default -> throw new IllegalArgumentException("'" + value + "' has an unknown unit");
+            };
+
+            nanos = nanos.add(new BigDecimal(text.substring(numberStart, unitStart)).multiply(BigDecimal.valueOf(unit)));
+        }
+
+        final var duration = Duration.ofNanos(nanos.longValue());
+        return negative ? duration.negated() : duration;
+    }
+
+    /** A node of a parsed expression. */
+    @FunctionalInterface
+    private interface Node {
+        /**
+         * Evaluates the node.
+         *
+         * @param variables Value of each parameter, by name.
+         * @return The value of the node.
+         */
+        Object evaluate(Map<String, Object> variables);
+    }
+
+    /**
+     * A recursive descent parser, which follows CEL's operator precedence, from lowest to highest: {@code ||},
+     * {@code &&}, the relations, {@code + -}, {@code * /}, and then the unary operators.
+     */
+    private static class Parser {
+        /** The expression. */
+        private final String expression;
+
+        /** Position of the next character to parse. */
+        private int position = 0;
+
+        /**
+         * Constructs a new Parser.
+         *
+         * @param expression The expression.
+         */
+        private Parser(final String expression) {
+            this.expression = expression;
+        }
+
+        /** @return Root of the expression. */
+        private Node parse() {
+            final var node = parseOr();
+
+            skipWhitespace();
+            if (position != expression.length()) {
+                throw new IllegalArgumentException("unexpected '" + expression.substring(position) + "'");
+            }
+
+            return node;
+        }
+
+        /** @return A disjunction, or any expression of higher precedence. */
+        private Node parseOr() {
+            var node = parseAnd();
+            while (accept("||")) {
+                final var left = node;
+                final var right = parseAnd();
+                node = variables -> bool(left.evaluate(variables)) || bool(right.evaluate(variables));
+            }
+            return node;
+        }
+
+        /** @return A conjunction, or any expression of higher precedence. */
+        private Node parseAnd() {
+            var node = parseRelation();
+            while (accept("&&")) {
+                final var left = node;
+                final var right = parseRelation();
+                node = variables -> bool(left.evaluate(variables)) && bool(right.evaluate(variables));
+            }
+            return node;
+        }
+
+        /** @return A comparison, or any expression of higher precedence. */
+        private Node parseRelation() {
+            final var left = parseAdditive();
+
+            for (final var operator : new String[] { "<=", ">=", "==", "!=", "<", ">" }) {
+                if (accept(operator)) {
+                    final var right = parseAdditive();
+                    return variables -> compare(operator, left.evaluate(variables), right.evaluate(variables));
+                }
+            }
+
+            return left;
+        }
+
+        /** @return A sum or difference, or any expression of higher precedence. */
+        private Node parseAdditive() {
+            var node = parseMultiplicative();
+            while (true) {
+                final String operator;
+                if (accept("+")) {
+                    operator = "+";
+                } else if (accept("-")) {
+                    operator = "-";
+                } else {
+                    return node;
+                }
+
+                final var left = node;
+                final var right = parseMultiplicative();
+                node = variables -> arithmetic(operator, left.evaluate(variables), right.evaluate(variables));
+            }
+        }
+
+        /** @return A product or quotient, or any expression of higher precedence. */
+        private Node parseMultiplicative() {
+            var node = parseUnary();
+            while (true) {
+                final String operator;
+                if (accept("*")) {
+                    operator = "*";
+                } else if (accept("/")) {
+                    operator = "/";
+                } else {
+                    return node;
+                }
+
+                final var left = node;
+                final var right = parseUnary();
+                node = variables -> arithmetic(operator, left.evaluate(variables), right.evaluate(variables));
+            }
+        }
+
+        /** @return A negation, or any expression of higher precedence. */
+        private Node parseUnary() {
+            if (accept("!")) {
+                final var operand = parseUnary();
+                return variables -> !bool(operand.evaluate(variables));
+            }
+
+            if (accept("-")) {
+                final var operand = parseUnary();
+                return variables -> arithmetic("-", 0L, operand.evaluate(variables));
+            }
+
+            return parsePrimary();
+        }
+
+        /** @return A literal, function call, parameter, or parenthesized expression. */
+        private Node parsePrimary() {
+            skipWhitespace();
+            if (position >= expression.length()) {
+                throw new IllegalArgumentException("unexpected end of expression");
+            }
+
+            if (accept("(")) {
+                final var node = parseOr();
+                expect(")");
+                return node;
+            }
+
+            final char c = expression.charAt(position);
+
+            if (c == '"' || c == '\'') {
+                final var value = parseString();
+                return variables -> value;
+            }
+
+            if (Character.isDigit(c)) {
+                final int start = position;
+                while (position < expression.length() && (Character.isDigit(expression.charAt(position)) || expression.charAt(position) == '.')) {
+                    position++;
+                }
+
+                final var literal = expression.substring(start, position);
+                final Object value = literal.contains(".") ? (Object) Double.parseDouble(literal) : (Object) Long.parseLong(literal);
+                return variables -> value;
+            }
+
+            if (Character.isJavaIdentifierStart(c)) {
+                final int start = position;
+                while (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+                    position++;
+                }
+
+                final var identifier = expression.substring(start, position);
+                switch (identifier) {
+                    case "true" -> { return variables -> true; }
+                    case "false" -> { return variables -> false; }
+                    case "timestamp", "duration" -> {
+                        expect("(");
+                        skipWhitespace();
+                        final var literal = parseString();
+                        expect(")");
+
+                        final Object value = identifier.equals("timestamp") ? timestamp(literal) : duration(literal);
+                        return variables -> value;
+                    }
+                    default -> {
+                        return variables -> {
+                            if (!variables.containsKey(identifier)) {
+                                throw new IllegalArgumentException("failed to evaluate relationship condition: undeclared reference to '" + identifier + "'");
+                            }
+
+                            return variables.get(identifier);
+                        };
+                    }
+                }
+            }
+
+            throw new IllegalArgumentException("unexpected '" + c + "'");
+        }
+
+        /** @return The string literal at the current position, without its quotes. */
+        private String parseString() {
+            final char quote = expression.charAt(position);
+            final int end = expression.indexOf(quote, position + 1);
+            if (end == -1) {
+                throw new IllegalArgumentException("unterminated string");
+            }
+
+            final var value = expression.substring(position + 1, end);
+            position = end + 1;
+            return value;
+        }
+
+        /**
+         * Consumes a token, if it is next.
+         *
+         * @param token The token.
+         * @return Whether the token was consumed.
+         */
+        private boolean accept(final String token) {
+            skipWhitespace();
+            if (!expression.startsWith(token, position)) {
+                return false;
+            }
+
+            // Don't mistake the first character of a two character operator, e.g. '<' of '<=', for the whole operator.
+            if (token.length() == 1 && position + 1 < expression.length() && "<>=!&|".indexOf(token.charAt(0)) != -1 && expression.charAt(position + 1) == '=') {
+                return false;
+            }
+
+            position += token.length();
+            return true;
+        }
+
+        /**
+         * Consumes a token, which must be next.
+         *
+         * @param token The token.
+         */
+        private void expect(final String token) {
+            if (!accept(token)) {
+                throw new IllegalArgumentException("expected '" + token + "' at position " + position);
+            }
+        }
+
+        /** Advances past any whitespace at the current position. */
+        private void skipWhitespace() {
+            while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Converts a value to a boolean.
+     *
+     * @param value The value.
+     * @return The boolean.
+     */
+    private static boolean bool(final Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        }
+
+        throw new IllegalArgumentException("failed to evaluate relationship condition: expected a bool, but got " + value);
+    }
+
+    /**
+     * Applies an arithmetic operator to two values.
+     *
+     * @param operator The operator.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return The result.
+     */
+    private static Object arithmetic(final String operator, final Object left, final Object right) {
+        if (left instanceof Instant l && right instanceof Duration r) {
+            return switch (operator) {
+                case "+" -> l.plus(r);
+                case "-" -> l.minus(r);
+                default -> throw unsupported(operator, left, right);
+            };
+        }
+
+        if (left instanceof Duration l && right instanceof Instant r && operator.equals("+")) {
+            return r.plus(l);
+        }
+
+        if (left instanceof Instant l && right instanceof Instant r && operator.equals("-")) {
+            return Duration.between(r, l);
+        }
+
+        if (left instanceof Duration l && right instanceof Duration r) {
+            return switch (operator) {
+                case "+" -> l.plus(r);
+                case "-" -> l.minus(r);
+                default -> throw unsupported(operator, left, right);
+            };
+        }
+
+        if (left instanceof Long l && right instanceof Long r) {
+            return switch (operator) {
+                case "+" -> l + r;
+                case "-" -> l - r;
+                case "*" -> l * r;
+                default -> l / r;
+            };
+        }
+
+        if (left instanceof Number l && right instanceof Number r) {
+            return switch (operator) {
+                case "+" -> l.doubleValue() + r.doubleValue();
+                case "-" -> l.doubleValue() - r.doubleValue();
+                case "*" -> l.doubleValue() * r.doubleValue();
+                default -> l.doubleValue() / r.doubleValue();
+            };
+        }
+
+        if (left instanceof String l && right instanceof String r && operator.equals("+")) {
+            return l + r;
+        }
+
+        throw unsupported(operator, left, right);
+    }
+
+    /**
+     * Applies a relational operator to two values.
+     *
+     * @param operator The operator.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return The result.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean compare(final String operator, final Object left, final Object right) {
+        final int comparison;
+        if (left instanceof Number l && right instanceof Number r && left.getClass() != right.getClass()) {
+            comparison = Double.compare(l.doubleValue(), r.doubleValue());
+        } else if (left instanceof Comparable l && left.getClass() == right.getClass()) {
+            comparison = l.compareTo(right);
+        } else if (operator.equals("==") || operator.equals("!=")) {
+            return operator.equals("==") == Objects.equals(left, right);
+        } else {
+            throw unsupported(operator, left, right);
+        }
+
+        return switch (operator) {
+            case "<" -> comparison < 0;
+            case "<=" -> comparison <= 0;
+            case ">" -> comparison > 0;
+            case ">=" -> comparison >= 0;
+            case "==" -> comparison == 0;
+            default -> comparison != 0;
+        };
+    }
+
+    /**
+     * Constructs the exception thrown when an operator can't be applied to its operands.
+     *
+     * @param operator The operator.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return The exception.
+     */
+    private static IllegalArgumentException unsupported(final String operator, final Object left, final Object right) {
+        return new IllegalArgumentException(
+            "failed to evaluate relationship condition: no such overload '" + operator + "' for "
+            + left.getClass().getSimpleName() + " and " + right.getClass().getSimpleName()
+        );
+    }
+}
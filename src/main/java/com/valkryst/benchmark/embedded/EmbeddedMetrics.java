@@ -0,0 +1,142 @@
+package com.valkryst.benchmark.embedded;
+
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     The metrics of the {@link EmbeddedOpenFgaServer}, which it exposes at {@code GET /metrics} in Prometheus' text
+ *     exposition format, under the same names as OpenFGA's own metrics. This allows the
+ *     {@link com.valkryst.benchmark.metrics.ServerMetricsProfiler} to be exercised without the docker-compose stack.
+ * </p>
+ *
+ * <p>
+ *     Each {@code object#relation} which a check resolves is counted as a dispatch, and each lookup of the users of an
+ *     {@code object#relation} as a datastore query. They're only comparable to OpenFGA's counts in their trend, and not
+ *     in their absolute values.
+ * </p>
+ */
+public final class EmbeddedMetrics {
+    /** Upper bounds of the buckets of the request duration histogram, in milliseconds. */
+    private static final double[] DURATION_BUCKETS = { 1, 3, 5, 10, 25, 50, 100, 200, 300, 1000, 2000, 5000, 10000 };
+
+    /** Upper bounds of the buckets of the datastore query, and dispatch, count histograms. */
+    private static final double[] COUNT_BUCKETS = { 1, 5, 20, 50, 100, 150, 225, 400, 500, 750, 1000 };
+
+    /** Duration of the requests to each endpoint, by the name of its gRPC method. */
+    private final Map<String, Histogram> requestDurations = new ConcurrentHashMap<>();
+
+    /** Number of datastore queries made by each request, by the name of its gRPC method. */
+    private final Map<String, Histogram> datastoreQueries = new ConcurrentHashMap<>();
+
+    /** Number of dispatches made by each request, by the name of its gRPC method. */
+    private final Map<String, Histogram> dispatches = new ConcurrentHashMap<>();
+
+    /**
+     * Records the duration of a request.
+     *
+     * @param method Name of the gRPC method of the request, e.g. {@code Check}.
+     * @param milliseconds Duration of the request.
+     */
+    public void recordRequest(final @NonNull String method, final double milliseconds) {
+        requestDurations.computeIfAbsent(method, key -> new Histogram(DURATION_BUCKETS)).observe(milliseconds);
+    }
+
+    /**
+     * Records the work done to resolve a request.
+     *
+     * @param method Name of the gRPC method of the request, e.g. {@code Check}.
+     * @param datastoreQueries Number of datastore queries made by the request.
+     * @param dispatches Number of dispatches made by the request.
+     */
+    public void recordResolution(final @NonNull String method, final long datastoreQueries, final long dispatches) {
+        this.datastoreQueries.computeIfAbsent(method, key -> new Histogram(COUNT_BUCKETS)).observe(datastoreQueries);
+        this.dispatches.computeIfAbsent(method, key -> new Histogram(COUNT_BUCKETS)).observe(dispatches);
+    }
+
+    /** @return The metrics, in Prometheus' text exposition format. */
+    public String render() {
+        final var text = new StringBuilder();
+        render(text, "openfga_request_duration_ms", "grpc_method", requestDurations);
+        render(text, "openfga_datastore_query_count", "method", datastoreQueries);
+        render(text, "openfga_dispatch_count", "grpc_method", dispatches);
+        return text.toString();
+    }
+
+    /**
+     * Renders a histogram, with a series for each of its labels.
+     *
+     * @param text Text to append the histogram to.
+     * @param name Name of the histogram.
+     * @param label Name of the label which distinguishes its series.
+     * @param series Series of the histogram, by the value of its label.
+     */
+    private static void render(final StringBuilder text, final String name, final String label, final Map<String, Histogram> series) {
+        text.append("# TYPE ").append(name).append(" histogram\n");
+
+        series.forEach((value, histogram) -> {
+            final var labels = label + "=\"" + value + "\"";
+
+            long cumulativeCount = 0;
+            for (int i = 0 ; i < histogram.bounds.length ; i++) {
+                cumulativeCount += histogram.buckets[i].sum();
+                text.append(name).append("_bucket{").append(labels).append(",le=\"").append(histogram.bounds[i]).append("\"} ").append(cumulativeCount).append('\n');
+            }
+
+            // The count is read after the buckets, so that a concurrent observation can't make +Inf less than a bucket.
+            final long count = Math.max(cumulativeCount, histogram.count.sum());
+            text.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+            text.append(name).append("_sum{").append(labels).append("} ").append(histogram.sum.sum()).append('\n');
+            text.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+        });
+    }
+
+    /** A histogram, whose observations may be recorded concurrently. */
+    private static class Histogram {
+        /** Upper bound of each bucket, excluding {@code +Inf}. */
+        private final double[] bounds;
+
+        /** Number of observations in each bucket, which aren't in any earlier bucket. */
+        private final LongAdder[] buckets;
+
+        /** Number of observations. */
+        private final LongAdder count = new LongAdder();
+
+        /** Sum of the observations. */
+        private final DoubleAdder sum = new DoubleAdder();
+
+        /**
+         * Constructs a new Histogram.
+         *
+         * @param bounds Upper bound of each bucket, in ascending order, excluding {@code +Inf}.
+         */
+        private Histogram(final double[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length];
+            for (int i = 0 ; i < bounds.length ; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records an observation.
+         *
+         * @param value The observation.
+         */
+        private void observe(final double value) {
+            for (int i = 0 ; i < bounds.length ; i++) {
+                if (value <= bounds[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+
+            count.increment();
+            sum.add(value);
+        }
+    }
+}
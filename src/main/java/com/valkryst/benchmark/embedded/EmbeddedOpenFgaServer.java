@@ -0,0 +1,585 @@
+package com.valkryst.benchmark.embedded;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ *     An in-process stand-in for the OpenFGA server, which speaks the subset of the OpenFGA HTTP API that the
+ *     benchmarks use. Tuples are held in memory by an {@link EmbeddedStore}.
+ * </p>
+ *
+ * <p>
+ *     Its purpose is to measure the overhead of the SDK, the HTTP client, and the benchmarks themselves, without any
+ *     time being spent in OpenFGA or its datastore. The results of a benchmark run against this server are a floor,
+ *     which can be subtracted from the results of the same benchmark run against a real server. It also allows the
+ *     benchmarks to be run without the docker-compose stack, e.g. in CI.
+ * </p>
+ *
+ * <p>The following endpoints are supported:</p>
+ *
+ * <ul>
+ *     <li>{@code POST /stores}</li>
+ *     <li>{@code GET /stores/{store_id}}</li>
+ *     <li>{@code DELETE /stores/{store_id}}</li>
+ *     <li>{@code POST /stores/{store_id}/authorization-models}</li>
+ *     <li>{@code POST /stores/{store_id}/write}</li>
+ *     <li>
+ *         {@code POST /stores/{store_id}/read}, but only of a single tuple, by its user, relation, and object, or of
+ *         every tuple in the store.
+ *     </li>
+ *     <li>{@code GET /stores/{store_id}/changes}</li>
+ *     <li>{@code POST /stores/{store_id}/check}, which is also used by the SDK's batch check.</li>
+ *     <li>{@code POST /stores/{store_id}/list-objects}</li>
+ *     <li>{@code GET /metrics}, see {@link EmbeddedMetrics}.</li>
+ * </ul>
+ *
+ * <p>
+ *     Authentication is not checked, and only plaintext HTTP/1.1 is supported. The server is started by
+ *     {@link #url()}, the first time that it is called, and runs until the JVM exits. Its threads are daemons, so it
+ *     doesn't prevent the JVM from exiting.
+ * </p>
+ *
+ * <p>
+ *     It can also be run in its own JVM, so that its allocation isn't counted by the GC profiler of the benchmarks:
+ * </p>
+ *
+ * <pre>{@code java -cp benchmarks.jar com.valkryst.benchmark.embedded.EmbeddedOpenFgaServer 8080}</pre>
+ */
+public final class EmbeddedOpenFgaServer {
+    /**
+     * Maximum number of tuples in a single write request. This is the default value of OpenFGA's
+     * {@code --max-tuples-per-write} setting.
+     */
+    private static final int MAX_TUPLES_PER_WRITE = 100;
+
+    /** Number of tuples, or changes, in a page when the request doesn't specify a page size, as in OpenFGA. */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Maximum number of tuples, or changes, in a page, as in OpenFGA. */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /** Characters of the Crockford base 32 encoding, which OpenFGA uses for its IDs. */
+    private static final char[] CROCKFORD_BASE_32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    /** URL of the running server. */
+    private static String url;
+
+    /** Used to serialize, and deserialize, the request and response bodies. */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Used to generate IDs. */
+    private final SecureRandom random = new SecureRandom();
+
+    /** Stores, by ID. */
+    private final Map<String, EmbeddedStore> stores = new ConcurrentHashMap<>();
+
+    /** Metrics of the server, and its stores. */
+    private final EmbeddedMetrics metrics = new EmbeddedMetrics();
+
+    /** Name of the gRPC method of each store endpoint, by the last segment of its path. */
+    private static final Map<String, String> GRPC_METHODS = Map.of(
+        "authorization-models", "WriteAuthorizationModel",
+        "write", "Write",
+        "read", "Read",
+        "changes", "ReadChanges",
+        "check", "Check",
+        "list-objects", "ListObjects"
+    );
+
+    private EmbeddedOpenFgaServer() {}
+
+    /**
+     * Runs the server until the JVM is stopped.
+     *
+     * @param args The port on which to listen. Defaults to a random port.
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        url(args.length == 0 ? 0 : Integer.parseInt(args[0]));
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Retrieves the URL of the server, and starts the server, on a random port, if it isn't already running.
+     *
+     * @return URL of the server, e.g. {@code http://127.0.0.1:12345}.
+     */
+    public static String url() {
+        return url(0);
+    }
+
+    /**
+     * Retrieves the URL of the server, and starts the server if it isn't already running.
+     *
+     * @param port Port on which to listen, if the server is started, or {@code 0} for a random port.
+     * @return URL of the server, e.g. {@code http://127.0.0.1:12345}.
+     */
+    private static synchronized String url(final int port) {
+        if (url == null) {
+            // The headers and body of each response are written separately, so without this, Nagle's algorithm delays
+            // the body until the client acknowledges the headers. This must be set before the first server is created.
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+
+            try {
+                final var httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                httpServer.createContext("/", new EmbeddedOpenFgaServer()::handle);
+                httpServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+
+                // The server's dispatcher thread inherits whether it's a daemon from the thread which starts it. If it
+                // isn't a daemon, then it keeps the JVM of each fork alive after its benchmark has finished.
+                final var starter = Thread.ofPlatform().daemon().start(httpServer::start);
+                starter.join();
+
+                url = "http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort();
+                System.out.println("Started embedded OpenFGA server at " + url + ".");
+            } catch (final IOException | InterruptedException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+
+        return url;
+    }
+
+    /**
+     * Handles a request, and sends its response.
+     *
+     * @param exchange The request and response.
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        final long start = System.nanoTime();
+
+        try {
+            route(exchange);
+        } catch (final IllegalArgumentException e) {
+            send(exchange, 400, error("validation_error", e.getMessage()));
+        } catch (final RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, error("internal_error", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+
+            final var segments = exchange.getRequestURI().getPath().split("/");
+            final var method = GRPC_METHODS.get(segments[segments.length - 1]);
+            if (method != null) {
+                metrics.recordRequest(method, (System.nanoTime() - start) / 1_000_000d);
+            }
+        }
+    }
+
+    /**
+     * Routes a request to its endpoint, and sends the endpoint's response.
+     *
+     * @param exchange The request and response.
+     */
+    private void route(final HttpExchange exchange) throws IOException {
+        final var segments = exchange.getRequestURI().getPath().substring(1).split("/");
+        final var method = exchange.getRequestMethod();
+
+        if (segments.length == 1 && segments[0].equals("metrics") && method.equals("GET")) {
+            sendText(exchange, metrics.render());
+            return;
+        }
+
+        if (!segments[0].equals("stores")) {
+            send(exchange, 404, error("undefined_endpoint", "Not Found"));
+            return;
+        }
+
+        if (segments.length == 1 && method.equals("POST")) {
+            send(exchange, 201, createStore(read(exchange)));
+            return;
+        }
+
+        final var store = segments.length > 1 ? stores.get(segments[1]) : null;
+        if (store == null) {
+            send(exchange, 404, error("store_id_not_found", "store_id not found"));
+            return;
+        }
+
+        final var endpoint = segments.length > 2 ? segments[2] : "";
+        switch (method + " " + endpoint) {
+            case "GET " -> send(exchange, 200, storeToJson(store));
+            case "DELETE " -> {
+                stores.remove(store.getId());
+                send(exchange, 204, null);
+            }
+            case "POST authorization-models" -> send(exchange, 201, writeAuthorizationModel(store, read(exchange)));
+            case "POST write" -> send(exchange, 200, write(store, read(exchange)));
+            case "POST read" -> send(exchange, 200, readTuples(store, read(exchange)));
+            case "GET changes" -> send(exchange, 200, readChanges(store, queryParameters(exchange)));
+            case "POST check" -> send(exchange, 200, check(store, read(exchange)));
+            case "POST list-objects" -> send(exchange, 200, listObjects(store, read(exchange)));
+            default -> send(exchange, 404, error("undefined_endpoint", "Not Found"));
+        }
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param body Request body.
+     * @return Response body.
+     */
+    private JsonNode createStore(final JsonNode body) {
+        final var store = new EmbeddedStore(generateId(), body.path("name").asText(), metrics);
+        stores.put(store.getId(), store);
+        return storeToJson(store);
+    }
+
+    /**
+     * Writes an authorization model.
+     *
+     * @param store Store to write the model to.
+     * @param body Request body.
+     * @return Response body.
+     */
+    private JsonNode writeAuthorizationModel(final EmbeddedStore store, final JsonNode body) {
+        final var modelId = generateId();
+        store.addModel(modelId, body);
+        return mapper.createObjectNode().put("authorization_model_id", modelId);
+    }
+
+    /**
+     * Writes, and deletes, tuples.
+     *
+     * @param store Store to write the tuples to.
+     * @param body Request body.
+     * @return Response body.
+     */
+    private JsonNode write(final EmbeddedStore store, final JsonNode body) {
+        final var writes = tuples(body.path("writes").path("tuple_keys"));
+        final var deletes = tupleKeys(body.path("deletes").path("tuple_keys"));
+
+        if (writes.size() + deletes.size() > MAX_TUPLES_PER_WRITE) {
+            throw new IllegalArgumentException("number of write operations exceeds the allowed limit of " + MAX_TUPLES_PER_WRITE);
+        }
+
+        store.write(writes, deletes);
+        return mapper.createObjectNode();
+    }
+
+    /**
+     * Reads tuples.
+     *
+     * @param store Store to read the tuples from.
+     * @param body Request body.
+     * @return Response body.
+     */
+    private JsonNode readTuples(final EmbeddedStore store, final JsonNode body) {
+        final var tupleKey = body.path("tuple_key");
+        // The SDK sends null fields, rather than omitting them, when reading every tuple.
+        final var user = tupleKey.path("user").asText("");
+        final var relation = tupleKey.path("relation").asText("");
+        final var object = tupleKey.path("object").asText("");
+
+        final var response = mapper.createObjectNode();
+        final var tuples = response.putArray("tuples");
+        final var timestamp = OffsetDateTime.now(ZoneOffset.UTC).toString();
+
+        if (user.isEmpty() && relation.isEmpty() && object.isEmpty()) {
+            final var page = store.readAll(body.path("continuation_token").asText(""), pageSize(body.path("page_size").asText("")));
+            for (final var tuple : page.items()) {
+                final var json = tuples.addObject();
+                tupleToJson(json.putObject("key"), tuple);
+                json.put("timestamp", timestamp);
+            }
+
+            response.put("continuation_token", page.continuationToken());
+            return response;
+        }
+
+        if (user.isEmpty() || relation.isEmpty() || object.isEmpty() || object.endsWith(":")) {
+            throw new IllegalArgumentException("the embedded server only supports reads of a single tuple, by its user, relation, and object, or of every tuple");
+        }
+
+        final var tuple = store.read(new EmbeddedStore.TupleKey(user, relation, object));
+        if (tuple != null) {
+            final var json = tuples.addObject();
+            tupleToJson(json.putObject("key"), tuple);
+            json.put("timestamp", timestamp);
+        }
+
+        response.put("continuation_token", "");
+        return response;
+    }
+
+    /**
+     * Reads the changes to a store.
+     *
+     * @param store Store to read the changes of.
+     * @param parameters Query parameters of the request.
+     * @return Response body.
+     */
+    private JsonNode readChanges(final EmbeddedStore store, final Map<String, String> parameters) {
+        final var page = store.readChanges(
+            parameters.getOrDefault("type", ""),
+            parameters.getOrDefault("continuation_token", ""),
+            pageSize(parameters.getOrDefault("page_size", ""))
+        );
+
+        final var response = mapper.createObjectNode();
+        final var changes = response.putArray("changes");
+        for (final var change : page.items()) {
+            final var json = changes.addObject();
+            tupleToJson(json.putObject("tuple_key"), change.tuple());
+            json.put("operation", change.write() ? "TUPLE_OPERATION_WRITE" : "TUPLE_OPERATION_DELETE");
+            json.put("timestamp", change.timestamp().atOffset(ZoneOffset.UTC).toString());
+        }
+
+        response.put("continuation_token", page.continuationToken());
+        return response;
+    }
+
+    /**
+     * Checks whether a user has a relation to an object.
+     *
+     * @param store Store to check.
+     * @param body Request body.
+     * @return Response body.
+     */
+    private JsonNode check(final EmbeddedStore store, final JsonNode body) {
+        final var tuple = body.path("tuple_key");
+        final boolean allowed = store.check(
+            body.path("authorization_model_id").asText(null),
+            tuple.path("user").asText(),
+            tuple.path("relation").asText(),
+            tuple.path("object").asText(),
+            tuples(body.path("contextual_tuples").path("tuple_keys")),
+            body.path("context")
+        );
+
+        return mapper.createObjectNode().put("allowed", allowed).put("resolution", "");
+    }
+
+    /**
+     * Lists the objects of a type, to which a user has a relation.
+     *
+     * @param store Store to check.
+     * @param body Request body.
+     * @return Response body.
+     */
+    private JsonNode listObjects(final EmbeddedStore store, final JsonNode body) {
+        final var objects = store.listObjects(
+            body.path("authorization_model_id").asText(null),
+            body.path("user").asText(),
+            body.path("relation").asText(),
+            body.path("type").asText(),
+            tuples(body.path("contextual_tuples").path("tuple_keys")),
+            body.path("context")
+        );
+
+        final var response = mapper.createObjectNode();
+        objects.forEach(response.putArray("objects")::add);
+        return response;
+    }
+
+    /**
+     * Converts an array of tuple keys, and their conditions, from a request body.
+     *
+     * @param tupleKeys The tuple keys, or a missing node if there are none.
+     * @return The tuples.
+     */
+    private static List<EmbeddedStore.Tuple> tuples(final JsonNode tupleKeys) {
+        final var keys = tupleKeys(tupleKeys);
+
+        final var tuples = new ArrayList<EmbeddedStore.Tuple>(keys.size());
+        for (int i = 0 ; i < keys.size() ; i++) {
+            final var condition = tupleKeys.get(i).get("condition");
+            tuples.add(new EmbeddedStore.Tuple(
+                keys.get(i),
+                condition == null ? null : new EmbeddedStore.RelationshipCondition(condition.path("name").asText(), condition.path("context"))
+            ));
+        }
+        return tuples;
+    }
+
+    /**
+     * Converts an array of tuple keys, from a request body.
+     *
+     * @param tupleKeys The tuple keys, or a missing node if there are none.
+     * @return The tuple keys.
+     */
+    private static List<EmbeddedStore.TupleKey> tupleKeys(final JsonNode tupleKeys) {
+        final var tuples = new ArrayList<EmbeddedStore.TupleKey>(tupleKeys.size());
+        for (final var tupleKey : tupleKeys) {
+            tuples.add(new EmbeddedStore.TupleKey(
+                tupleKey.path("user").asText(),
+                tupleKey.path("relation").asText(),
+                tupleKey.path("object").asText()
+            ));
+        }
+        return tuples;
+    }
+
+    /**
+     * Converts a tuple, and its condition, to a tuple key of a response body.
+     *
+     * @param json Tuple key to populate.
+     * @param tuple The tuple.
+     */
+    private static void tupleToJson(final ObjectNode json, final EmbeddedStore.Tuple tuple) {
+        json.put("user", tuple.key().user());
+        json.put("relation", tuple.key().relation());
+        json.put("object", tuple.key().object());
+
+        if (tuple.condition() != null) {
+            json.putObject("condition").put("name", tuple.condition().name()).set("context", tuple.condition().context());
+        }
+    }
+
+    /**
+     * Parses, and validates, the page size of a request.
+     *
+     * @param pageSize The page size, or an empty string if the request doesn't specify one.
+     * @return The page size.
+     * @throws IllegalArgumentException If the page size is invalid.
+     */
+    private static int pageSize(final String pageSize) {
+        if (pageSize.isEmpty()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        try {
+            final int size = Integer.parseInt(pageSize);
+            if (size >= 1 && size <= MAX_PAGE_SIZE) {
+                return size;
+            }
+        } catch (final NumberFormatException ignored) {}
+
+        throw new IllegalArgumentException("page_size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Converts a store to its response body.
+     *
+     * @param store The store.
+     * @return Response body.
+     */
+    private JsonNode storeToJson(final EmbeddedStore store) {
+        final var now = OffsetDateTime.now(ZoneOffset.UTC).toString();
+
+        final ObjectNode json = mapper.createObjectNode();
+        json.put("id", store.getId());
+        json.put("name", store.getName());
+        json.put("created_at", now);
+        json.put("updated_at", now);
+        return json;
+    }
+
+    /**
+     * Constructs an error response body, in the same format as OpenFGA.
+     *
+     * @param code Error code.
+     * @param message Error message.
+     * @return Response body.
+     */
+    private JsonNode error(final String code, final String message) {
+        return mapper.createObjectNode().put("code", code).put("message", message);
+    }
+
+    /**
+     * Reads a request body.
+     *
+     * @param exchange The request.
+     * @return Request body.
+     */
+    private JsonNode read(final HttpExchange exchange) throws IOException {
+        final var body = mapper.readTree(exchange.getRequestBody());
+        return body == null ? mapper.createObjectNode() : body;
+    }
+
+    /**
+     * Parses the query parameters of a request.
+     *
+     * @param exchange The request.
+     * @return The query parameters, by name.
+     */
+    private static Map<String, String> queryParameters(final HttpExchange exchange) {
+        final var parameters = new HashMap<String, String>();
+
+        final var query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+
+        for (final var parameter : query.split("&")) {
+            final int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(
+                    URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Sends a response.
+     *
+     * @param exchange The request and response.
+     * @param status HTTP status code.
+     * @param body Response body, or {@code null} if there is none.
+     */
+    private void send(final HttpExchange exchange, final int status, final JsonNode body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        final var bytes = mapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Sends a plain text response.
+     *
+     * @param exchange The request and response.
+     * @param body Response body.
+     */
+    private void sendText(final HttpExchange exchange, final String body) throws IOException {
+        final var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /** @return A new, random, 26 character ID, in the same format as OpenFGA's ULIDs. */
+    private String generateId() {
+        final var id = new char[26];
+
+        // The first 10 characters encode the current time, in milliseconds, as in a ULID.
+        long time = System.currentTimeMillis();
+        for (int i = 9 ; i >= 0 ; i--) {
+            id[i] = CROCKFORD_BASE_32[(int) (time & 31)];
+            time >>>= 5;
+        }
+
+        for (int i = 10 ; i < id.length ; i++) {
+            id[i] = CROCKFORD_BASE_32[random.nextInt(32)];
+        }
+
+        return new String(id);
+    }
+}
@@ -0,0 +1,575 @@
+package com.valkryst.benchmark.embedded;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>An in-memory OpenFGA store, which holds the tuples and authorization models of the {@link EmbeddedOpenFgaServer}.</p>
+ *
+ * <p>
+ *     Tuples are indexed by their object and relation, so that each step of a check is a single lookup. Writes are
+ *     validated and applied under a lock, so that a write is all-or-nothing, but reads don't take the lock and may
+ *     observe a write which is being applied.
+ * </p>
+ *
+ * <p>
+ *     Checks are evaluated against the authorization model, and support the {@code this}, {@code computedUserset},
+ *     {@code tupleToUserset}, {@code union}, {@code intersection}, and {@code difference} rewrites. Conditions are
+ *     supported, so long as their expressions are within the subset of CEL supported by {@link ConditionExpression}.
+ *     The types of the tuples aren't validated against the model.
+ * </p>
+ */
+public class EmbeddedStore {
+    /** ID of the store. */
+    @Getter private final String id;
+
+    /** Name of the store. */
+    @Getter private final String name;
+
+    /** Authorization models, by ID. */
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+
+    /** ID of the most recently written authorization model. */
+    private volatile String latestModelId;
+
+    /** Users of each tuple, by {@code object#relation}. */
+    private final Map<String, Set<String>> tuples = new ConcurrentHashMap<>();
+
+    /** Conditions of the tuples which have one. */
+    private final Map<TupleKey, RelationshipCondition> conditions = new ConcurrentHashMap<>();
+
+    /** Objects which appear in at least one tuple, by type. */
+    private final Map<String, Set<String>> objectsByType = new ConcurrentHashMap<>();
+
+    /** Tuples, in the order in which they're read, by {@code object#relation@user}. Guarded by {@code this}. */
+    private final TreeMap<String, TupleKey> orderedTuples = new TreeMap<>();
+
+    /** Every write, and delete, in the order in which they were applied. Guarded by {@code this}. */
+    private final List<Change> changes = new ArrayList<>();
+
+    /** Metrics to which the work done by each check, and list objects request, is recorded. */
+    private final EmbeddedMetrics metrics;
+
+    /**
+     * Constructs a new EmbeddedStore.
+     *
+     * @param id ID of the store.
+     * @param name Name of the store.
+     * @param metrics Metrics to which the work done by each check, and list objects request, is recorded.
+     */
+    public EmbeddedStore(final @NonNull String id, final @NonNull String name, final @NonNull EmbeddedMetrics metrics) {
+        this.id = id;
+        this.name = name;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds an authorization model, and makes it the latest model.
+     *
+     * @param modelId ID of the model.
+     * @param model The model, as it was sent to the {@code authorization-models} endpoint.
+     */
+    public void addModel(final @NonNull String modelId, final @NonNull JsonNode model) {
+        final var rewrites = new HashMap<String, JsonNode>();
+        for (final var typeDefinition : model.path("type_definitions")) {
+            final var type = typeDefinition.path("type").asText();
+            typeDefinition.path("relations").fields().forEachRemaining(relation -> {
+                rewrites.put(type + "#" + relation.getKey(), relation.getValue());
+            });
+        }
+
+        final var conditions = new HashMap<String, ConditionExpression>();
+        model.path("conditions").fields().forEachRemaining(condition -> {
+            conditions.put(condition.getKey(), new ConditionExpression(condition.getValue()));
+        });
+
+        models.put(modelId, new Model(rewrites, conditions));
+        latestModelId = modelId;
+    }
+
+    /**
+     * Writes, and deletes, tuples. Either all of the changes are applied, or none of them are.
+     *
+     * @param writes Tuples to write.
+     * @param deletes Tuples to delete.
+     * @throws IllegalArgumentException If a tuple to write already exists, or a tuple to delete does not exist.
+     */
+    public synchronized void write(final @NonNull List<Tuple> writes, final @NonNull List<TupleKey> deletes) {
+        final var seen = new HashSet<TupleKey>();
+
+        for (final var write : writes) {
+            final var tuple = write.key();
+            if (!seen.add(tuple)) {
+                throw new IllegalArgumentException("duplicate tuple in write: " + tuple);
+            }
+
+            if (contains(tuple)) {
+                throw new IllegalArgumentException("cannot write a tuple which already exists: " + tuple + ": invalid write input");
+            }
+        }
+
+        for (final var tuple : deletes) {
+            if (!seen.add(tuple)) {
+                throw new IllegalArgumentException("duplicate tuple in write: " + tuple);
+            }
+
+            if (!contains(tuple)) {
+                throw new IllegalArgumentException("cannot delete a tuple which does not exist: " + tuple + ": invalid write input");
+            }
+        }
+
+        final var timestamp = Instant.now();
+
+        for (final var write : writes) {
+            final var tuple = write.key();
+            if (write.condition() != null) {
+                conditions.put(tuple, write.condition());
+            }
+
+            tuples.computeIfAbsent(tuple.object() + "#" + tuple.relation(), key -> ConcurrentHashMap.newKeySet()).add(tuple.user());
+            objectsByType.computeIfAbsent(typeOf(tuple.object()), key -> ConcurrentHashMap.newKeySet()).add(tuple.object());
+            orderedTuples.put(orderKey(tuple), tuple);
+            changes.add(new Change(write, true, timestamp));
+        }
+
+        for (final var tuple : deletes) {
+            tuples.get(tuple.object() + "#" + tuple.relation()).remove(tuple.user());
+            orderedTuples.remove(orderKey(tuple));
+            changes.add(new Change(new Tuple(tuple, conditions.remove(tuple)), false, timestamp));
+        }
+    }
+
+    /**
+     * Determines whether a user has a relation to an object.
+     *
+     * @param modelId ID of the authorization model to evaluate, or {@code null} to use the latest model.
+     * @param user User of the check.
+     * @param relation Relation of the check.
+     * @param object Object of the check.
+     * @param contextualTuples Tuples which are treated as if they were written, for this check only.
+     * @param context Context of the check, used to evaluate the conditions of tuples, or a missing node if it has none.
+     * @return Whether the user has the relation to the object.
+     * @throws IllegalArgumentException If the model, type, relation, or a condition does not exist, or a condition
+     *                                  cannot be evaluated.
+     */
+    public boolean check(final String modelId, final @NonNull String user, final @NonNull String relation, final @NonNull String object, final @NonNull List<Tuple> contextualTuples, final @NonNull JsonNode context) {
+        final var evaluation = new Evaluation(model(modelId), contextualTuples, context);
+        final boolean allowed = evaluation.check(user, relation, object, new HashSet<>());
+        metrics.recordResolution("Check", evaluation.datastoreQueries, evaluation.dispatches);
+        return allowed;
+    }
+
+    /**
+     * Lists the objects of a type, to which a user has a relation.
+     *
+     * @param modelId ID of the authorization model to evaluate, or {@code null} to use the latest model.
+     * @param user User of the check.
+     * @param relation Relation of the check.
+     * @param type Type of the objects.
+     * @param contextualTuples Tuples which are treated as if they were written, for this request only.
+     * @param context Context of the request, used to evaluate the conditions of tuples, or a missing node if it has none.
+     * @return The objects.
+     * @throws IllegalArgumentException If the model, type, relation, or a condition does not exist, or a condition
+     *                                  cannot be evaluated.
+     */
+    public List<String> listObjects(final String modelId, final @NonNull String user, final @NonNull String relation, final @NonNull String type, final @NonNull List<Tuple> contextualTuples, final @NonNull JsonNode context) {
+        final var evaluation = new Evaluation(model(modelId), contextualTuples, context);
+
+        final var candidates = new HashSet<>(objectsByType.getOrDefault(type, Set.of()));
+        for (final var contextualTuple : contextualTuples) {
+            final var tuple = contextualTuple.key();
+            if (typeOf(tuple.object()).equals(type)) {
+                candidates.add(tuple.object());
+            }
+        }
+
+        final var objects = new ArrayList<String>();
+        for (final var object : candidates) {
+            if (evaluation.check(user, relation, object, new HashSet<>())) {
+                objects.add(object);
+            }
+        }
+
+        metrics.recordResolution("ListObjects", evaluation.datastoreQueries, evaluation.dispatches);
+        return objects;
+    }
+
+    /**
+     * Reads a tuple, along with its condition.
+     *
+     * @param key User, relation, and object of the tuple.
+     * @return The tuple, or {@code null} if it has not been written.
+     */
+    public Tuple read(final @NonNull TupleKey key) {
+        return contains(key) ? new Tuple(key, conditions.get(key)) : null;
+    }
+
+    /**
+     * Reads a page of every tuple in the store.
+     *
+     * @param continuationToken Token returned with the previous page, or an empty string to read the first page.
+     * @param pageSize Maximum number of tuples in the page.
+     * @return The page. Its continuation token is empty if there are no more tuples.
+     */
+    public synchronized Page<Tuple> readAll(final @NonNull String continuationToken, final int pageSize) {
+        final var remaining = continuationToken.isEmpty() ? orderedTuples : orderedTuples.tailMap(continuationToken, false);
+
+        final var page = new ArrayList<Tuple>(Math.min(pageSize, remaining.size()));
+        String lastKey = null;
+        for (final var entry : remaining.entrySet()) {
+            if (page.size() == pageSize) {
+                break;
+            }
+
+            page.add(new Tuple(entry.getValue(), conditions.get(entry.getValue())));
+            lastKey = entry.getKey();
+        }
+
+        final boolean hasMore = lastKey != null && orderedTuples.higherKey(lastKey) != null;
+        return new Page<>(page, hasMore ? lastKey : "");
+    }
+
+    /**
+     * Reads a page of the changes to the store, oldest first.
+     *
+     * @param type Type of the objects of the changes, or an empty string to read the changes of every type.
+     * @param continuationToken Token returned with the previous page, or an empty string to read the first page.
+     * @param pageSize Maximum number of changes in the page.
+     * @return The page. Its continuation token is always set, so that later changes can be read by a consumer which
+     *         has caught up, as with OpenFGA.
+     * @throws IllegalArgumentException If the continuation token is invalid.
+     */
+    public synchronized Page<Change> readChanges(final @NonNull String type, final @NonNull String continuationToken, final int pageSize) {
+        int index;
+        try {
+            index = continuationToken.isEmpty() ? 0 : Integer.parseInt(continuationToken);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("invalid continuation token");
+        }
+
+        final var page = new ArrayList<Change>(pageSize);
+        for ( ; index < changes.size() && page.size() < pageSize ; index++) {
+            final var change = changes.get(index);
+            if (type.isEmpty() || typeOf(change.tuple().key().object()).equals(type)) {
+                page.add(change);
+            }
+        }
+
+        return new Page<>(page, String.valueOf(index));
+    }
+
+    /**
+     * Determines the key by which a tuple is ordered, when reading every tuple.
+     *
+     * @param tuple The tuple.
+     * @return The key.
+     */
+    private static String orderKey(final TupleKey tuple) {
+        return tuple.object() + "#" + tuple.relation() + "@" + tuple.user();
+    }
+
+    /**
+     * Determines whether a tuple has been written.
+     *
+     * @param tuple The tuple.
+     * @return Whether the tuple has been written.
+     */
+    private boolean contains(final TupleKey tuple) {
+        final var users = tuples.get(tuple.object() + "#" + tuple.relation());
+        return users != null && users.contains(tuple.user());
+    }
+
+    /**
+     * Retrieves an authorization model.
+     *
+     * @param modelId ID of the model, or {@code null} to use the latest model.
+     * @return The model.
+     * @throws IllegalArgumentException If the model does not exist.
+     */
+    private Model model(final String modelId) {
+        final var id = (modelId == null || modelId.isEmpty()) ? latestModelId : modelId;
+        final var model = id == null ? null : models.get(id);
+
+        if (model == null) {
+            throw new IllegalArgumentException("authorization model '" + id + "' not found");
+        }
+
+        return model;
+    }
+
+    /**
+     * Determines the type of an object, or of a userset.
+     *
+     * @param object The object, e.g. {@code group:1} or {@code group:1#member}.
+     * @return The type, e.g. {@code group}.
+     */
+    private static String typeOf(final String object) {
+        final int separator = object.indexOf(':');
+        return separator == -1 ? object : object.substring(0, separator);
+    }
+
+    /**
+     * A tuple, without a condition.
+     *
+     * @param user User of the tuple.
+     * @param relation Relation of the tuple.
+     * @param object Object of the tuple.
+     */
+    public record TupleKey(@NonNull String user, @NonNull String relation, @NonNull String object) {
+        @Override
+        public String toString() {
+            return "user: '" + user + "', relation: '" + relation + "', object: '" + object + "'";
+        }
+    }
+
+    /**
+     * A tuple, with an optional condition.
+     *
+     * @param key User, relation, and object of the tuple.
+     * @param condition Condition of the tuple, or {@code null} if it has none.
+     */
+    public record Tuple(@NonNull TupleKey key, RelationshipCondition condition) {}
+
+    /**
+     * A write, or delete, of a tuple.
+     *
+     * @param tuple The tuple.
+     * @param write Whether the tuple was written, rather than deleted.
+     * @param timestamp Time at which the change was applied.
+     */
+    public record Change(@NonNull Tuple tuple, boolean write, @NonNull Instant timestamp) {}
+
+    /**
+     * A page of the results of a read.
+     *
+     * @param items Results in the page.
+     * @param continuationToken Token with which to read the next page.
+     */
+    public record Page<T>(@NonNull List<T> items, @NonNull String continuationToken) {}
+
+    /**
+     * The condition of a tuple.
+     *
+     * @param name Name of the condition, in the authorization model.
+     * @param context Values of some, or all, of the condition's parameters, or a missing node if there are none.
+     */
+    public record RelationshipCondition(@NonNull String name, @NonNull JsonNode context) {}
+
+    /**
+     * An authorization model.
+     *
+     * @param rewrites Rewrite of each relation, by {@code type#relation}.
+     * @param conditions Conditions, by name.
+     */
+    private record Model(Map<String, JsonNode> rewrites, Map<String, ConditionExpression> conditions) {}
+
+    /** The evaluation of one or more checks, against a single model, set of contextual tuples, and context. */
+    private class Evaluation {
+        /** The authorization model to evaluate. */
+        private final Model model;
+
+        /** Users of each contextual tuple, by {@code object#relation}. */
+        private final Map<String, Set<String>> contextualTuples = new HashMap<>();
+
+        /** Conditions of the contextual tuples which have one. */
+        private final Map<TupleKey, RelationshipCondition> contextualConditions = new HashMap<>();
+
+        /** Context of the request. */
+        private final JsonNode context;
+
+        /** Number of {@code object#relation}s which have been resolved. */
+        private long dispatches = 0;
+
+        /** Number of times that the users of an {@code object#relation} have been looked up. */
+        private long datastoreQueries = 0;
+
+        /**
+         * Constructs a new Evaluation.
+         *
+         * @param model The authorization model to evaluate.
+         * @param contextualTuples Tuples which are treated as if they were written.
+         * @param context Context of the request, or a missing node if it has none.
+         */
+        private Evaluation(final Model model, final List<Tuple> contextualTuples, final JsonNode context) {
+            this.model = model;
+            this.context = context;
+
+            for (final var contextualTuple : contextualTuples) {
+                final var tuple = contextualTuple.key();
+                this.contextualTuples.computeIfAbsent(tuple.object() + "#" + tuple.relation(), key -> new HashSet<>()).add(tuple.user());
+
+                if (contextualTuple.condition() != null) {
+                    contextualConditions.put(tuple, contextualTuple.condition());
+                }
+            }
+        }
+
+        /**
+         * Determines whether a user has a relation to an object.
+         *
+         * @param user User of the check.
+         * @param relation Relation of the check.
+         * @param object Object of the check.
+         * @param visited Every {@code object#relation} on the path to this check, used to break cycles.
+         * @return Whether the user has the relation to the object.
+         */
+        private boolean check(final String user, final String relation, final String object, final Set<String> visited) {
+            final var key = object + "#" + relation;
+            if (!visited.add(key)) {
+                return false;
+            }
+
+            dispatches++;
+
+            final var rewrite = model.rewrites().get(typeOf(object) + "#" + relation);
+            if (rewrite == null) {
+                throw new IllegalArgumentException("relation '" + typeOf(object) + "#" + relation + "' not found");
+            }
+
+            try {
+                return evaluate(rewrite, user, relation, object, visited);
+            } finally {
+                visited.remove(key);
+            }
+        }
+
+        /**
+         * Evaluates a rewrite of a relation.
+         *
+         * @param rewrite The rewrite.
+         * @param user User of the check.
+         * @param relation Relation of the check.
+         * @param object Object of the check.
+         * @param visited Every {@code object#relation} on the path to this check, used to break cycles.
+         * @return Whether the user has the relation to the object.
+         */
+        private boolean evaluate(final JsonNode rewrite, final String user, final String relation, final String object, final Set<String> visited) {
+            if (rewrite.has("this")) {
+                for (final var candidate : users(object, relation)) {
+                    if ((candidate.equals(user) || candidate.equals(typeOf(user) + ":*")) && isConditionMet(candidate, relation, object)) {
+                        return true;
+                    }
+
+                    final int separator = candidate.indexOf('#');
+                    if (separator != -1 && check(user, candidate.substring(separator + 1), candidate.substring(0, separator), visited) && isConditionMet(candidate, relation, object)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            if (rewrite.has("computedUserset")) {
+                return check(user, rewrite.path("computedUserset").path("relation").asText(), object, visited);
+            }
+
+            if (rewrite.has("tupleToUserset")) {
+                final var tupleset = rewrite.path("tupleToUserset").path("tupleset").path("relation").asText();
+                final var computedRelation = rewrite.path("tupleToUserset").path("computedUserset").path("relation").asText();
+
+                for (final var parent : users(object, tupleset)) {
+                    if (!parent.contains("#") && check(user, computedRelation, parent, visited) && isConditionMet(parent, tupleset, object)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            if (rewrite.has("union")) {
+                for (final var child : rewrite.path("union").path("child")) {
+                    if (evaluate(child, user, relation, object, visited)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            if (rewrite.has("intersection")) {
+                for (final var child : rewrite.path("intersection").path("child")) {
+                    if (!evaluate(child, user, relation, object, visited)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+
+            if (rewrite.has("difference")) {
+                final var difference = rewrite.path("difference");
+                return evaluate(difference.path("base"), user, relation, object, visited)
+                    && !evaluate(difference.path("subtract"), user, relation, object, visited);
+            }
+
+            throw new IllegalArgumentException("unsupported rewrite: " + rewrite);
+        }
+
+        /**
+         * Determines whether the condition of a tuple, written or contextual, is met. Contextual tuples take precedence
+         * over written tuples.
+         *
+         * @param user User of the tuple.
+         * @param relation Relation of the tuple.
+         * @param object Object of the tuple.
+         * @return Whether the tuple has no condition, or its condition is met.
+         * @throws IllegalArgumentException If the condition does not exist in the model, or cannot be evaluated.
+         */
+        private boolean isConditionMet(final String user, final String relation, final String object) {
+            if (conditions.isEmpty() && contextualConditions.isEmpty()) {
+                return true;
+            }
+
+            final var tuple = new TupleKey(user, relation, object);
+            var condition = contextualConditions.get(tuple);
+            if (condition == null && !contextualTuples.getOrDefault(object + "#" + relation, Set.of()).contains(user)) {
+                condition = conditions.get(tuple);
+            }
+
+            if (condition == null) {
+                return true;
+            }
+
+            final var expression = model.conditions().get(condition.name());
+            if (expression == null) {
+                throw new IllegalArgumentException("condition '" + condition.name() + "' not found");
+            }
+
+            return expression.evaluate(condition.context(), context);
+        }
+
+        /**
+         * Retrieves the users of the tuples, written and contextual, with an object and relation.
+         *
+         * @param object Object of the tuples.
+         * @param relation Relation of the tuples.
+         * @return The users.
+         */
+        private Set<String> users(final String object, final String relation) {
+            datastoreQueries++;
+
+            final var key = object + "#" + relation;
+            final var written = tuples.getOrDefault(key, Set.of());
+            final var contextual = contextualTuples.get(key);
+
+            if (contextual == null) {
+                return written;
+            }
+
+            final var users = new HashSet<>(written);
+            users.addAll(contextual);
+            return users;
+        }
+    }
+}
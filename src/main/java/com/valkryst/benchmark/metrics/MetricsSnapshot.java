@@ -0,0 +1,247 @@
+package com.valkryst.benchmark.metrics;
+
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ *     The value of every series exposed by a Prometheus endpoint, at a single point in time. The difference between the
+ *     snapshots taken before, and after, an iteration is the work which the server did during that iteration.
+ * </p>
+ *
+ * <p>
+ *     Only the parts of the text exposition format which OpenFGA uses are supported. Comments, e.g. {@code # HELP} and
+ *     {@code # TYPE}, and timestamps are ignored.
+ * </p>
+ */
+public final class MetricsSnapshot {
+    /** Value of each series, by its name and labels, exactly as they were written by the endpoint. */
+    private final Map<String, Double> series;
+
+    /**
+     * Constructs a new MetricsSnapshot.
+     *
+     * @param series Value of each series, by its name and labels.
+     */
+    private MetricsSnapshot(final Map<String, Double> series) {
+        this.series = series;
+    }
+
+    /**
+     * Parses the response of a Prometheus endpoint.
+     *
+     * @param text The response, in the text exposition format.
+     * @return The snapshot.
+     * @throws IllegalArgumentException If a line cannot be parsed.
+     */
+    public static MetricsSnapshot parse(final @NonNull String text) {
+        final var series = new HashMap<String, Double>();
+
+        for (final var rawLine : text.split("\n")) {
+            final var line = rawLine.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            // Label values may contain spaces, so the end of the labels must be found before the value.
+            int end = line.indexOf('{');
+            if (end != -1) {
+                boolean quoted = false;
+                for (end++ ; end < line.length() ; end++) {
+                    final char c = line.charAt(end);
+                    if (c == '\\') {
+                        end++;
+                    } else if (c == '"') {
+                        quoted = !quoted;
+                    } else if (c == '}' && !quoted) {
+                        break;
+                    }
+                }
+                end++;
+            } else {
+                end = line.indexOf(' ');
+            }
+
+            if (end <= 0 || end >= line.length()) {
+                throw new IllegalArgumentException("'" + line + "' is not a valid sample");
+            }
+
+            final var value = line.substring(end).trim().split("\\s+")[0];
+            series.put(line.substring(0, end), parseValue(value));
+        }
+
+        return new MetricsSnapshot(series);
+    }
+
+    /**
+     * Subtracts an earlier snapshot from this one. Series which weren't in the earlier snapshot, or which have been
+     * reset since, e.g. because the server restarted, keep their value.
+     *
+     * @param earlier The earlier snapshot.
+     * @return The difference.
+     */
+    public MetricsSnapshot minus(final @NonNull MetricsSnapshot earlier) {
+        final var difference = new HashMap<String, Double>(series.size());
+        series.forEach((key, value) -> {
+            final double previous = earlier.series.getOrDefault(key, 0d);
+            difference.put(key, value >= previous ? value - previous : value);
+        });
+        return new MetricsSnapshot(difference);
+    }
+
+    /**
+     * Sums the series of a metric, across all of their labels.
+     *
+     * @param name Name of the metric, e.g. {@code openfga_datastore_query_count_sum}.
+     * @return The sum, or zero if the metric has no series.
+     */
+    public double sum(final @NonNull String name) {
+        double sum = 0;
+        for (final var entry : series.entrySet()) {
+            if (nameOf(entry.getKey()).equals(name)) {
+                sum += entry.getValue();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Determines whether a metric has any series.
+     *
+     * @param name Name of the metric.
+     * @return Whether the metric has at least one series.
+     */
+    public boolean contains(final @NonNull String name) {
+        for (final var key : series.keySet()) {
+            if (nameOf(key).equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimates a quantile of a histogram, across all of its labels, by linear interpolation within the bucket which
+     * contains it, as Prometheus' {@code histogram_quantile} does.
+     *
+     * @param histogram Name of the histogram, without the {@code _bucket} suffix.
+     * @param quantile The quantile, between {@code 0} and {@code 1}.
+     * @return The estimate, or {@code NaN} if the histogram has no observations.
+     */
+    public double quantile(final @NonNull String histogram, final double quantile) {
+        // Cumulative count of each bucket, by its upper bound.
+        final var buckets = new TreeMap<Double, Double>();
+        for (final var entry : series.entrySet()) {
+            if (nameOf(entry.getKey()).equals(histogram + "_bucket")) {
+                final var bound = label(entry.getKey(), "le");
+                if (bound != null) {
+                    buckets.merge(parseValue(bound), entry.getValue(), Double::sum);
+                }
+            }
+        }
+
+        if (buckets.isEmpty() || buckets.lastEntry().getValue() == 0) {
+            return Double.NaN;
+        }
+
+        final double rank = quantile * buckets.lastEntry().getValue();
+        double lowerBound = 0;
+        double lowerCount = 0;
+        for (final var bucket : buckets.entrySet()) {
+            if (bucket.getValue() >= rank) {
+                if (bucket.getKey().isInfinite()) {
+                    return lowerBound;
+                }
+
+                final double width = bucket.getValue() - lowerCount;
+                return width == 0 ? bucket.getKey() : lowerBound + (bucket.getKey() - lowerBound) * ((rank - lowerCount) / width);
+            }
+
+            lowerBound = bucket.getKey();
+            lowerCount = bucket.getValue();
+        }
+
+        return lowerBound;
+    }
+
+    /**
+     * Retrieves the name of a series.
+     *
+     * @param key Name and labels of the series.
+     * @return The name.
+     */
+    private static String nameOf(final String key) {
+        final int labels = key.indexOf('{');
+        return labels == -1 ? key : key.substring(0, labels);
+    }
+
+    /**
+     * Retrieves the value of a label of a series.
+     *
+     * @param key Name and labels of the series.
+     * @param label Name of the label.
+     * @return The value, or {@code null} if the series doesn't have the label.
+     */
+    private static String label(final String key, final String label) {
+        int position = key.indexOf('{') + 1;
+        if (position == 0) {
+            return null;
+        }
+
+        while (position < key.length() && key.charAt(position) != '}') {
+            final int equals = key.indexOf('=', position);
+            if (equals == -1 || equals + 1 >= key.length() || key.charAt(equals + 1) != '"') {
+                return null;
+            }
+
+            final var name = key.substring(position, equals).trim();
+
+            // Label values may contain escaped quotes, so the value ends at the first quote which isn't escaped.
+            final var value = new StringBuilder();
+            position = equals + 2;
+            while (position < key.length() && key.charAt(position) != '"') {
+                if (key.charAt(position) == '\\' && position + 1 < key.length()) {
+                    position++;
+                }
+
+                value.append(key.charAt(position++));
+            }
+
+            if (name.equals(label)) {
+                return value.toString();
+            }
+
+            // Skip the closing quote, and the comma before the next label.
+            position++;
+            if (position < key.length() && key.charAt(position) == ',') {
+                position++;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parses the value of a sample.
+     *
+     * @param value The value, e.g. {@code 1.5e3} or {@code +Inf}.
+     * @return The value.
+     */
+    private static double parseValue(final String value) {
+        return switch (value) {
+            case "+Inf", "Inf" -> Double.POSITIVE_INFINITY;
+            case "-Inf" -> Double.NEGATIVE_INFINITY;
+            case "NaN" -> Double.NaN;
+            default -> {
+                try {
+                    yield Double.parseDouble(value);
+                } catch (final NumberFormatException e) {
+                    throw new IllegalArgumentException("'" + value + "' is not a valid sample value");
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.valkryst.benchmark.metrics;
+
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * <p>
+ *     Reads the totals of Postgres' {@code pg_stat_statements} view, so that the queries which OpenFGA sent to its
+ *     datastore during an iteration can be counted, and timed.
+ * </p>
+ *
+ * <p>
+ *     The view is only available when the {@code pg_stat_statements} library has been preloaded, see the
+ *     {@code postgres} container of the docker-compose file. The extension is created if it doesn't exist.
+ * </p>
+ */
+public final class PostgresStatements implements AutoCloseable {
+    /** Sums the statistics of every statement, except for those of this class. */
+    private static final String TOTALS_QUERY = """
+        SELECT COALESCE(SUM(calls), 0), COALESCE(SUM(total_exec_time), 0), COALESCE(SUM(rows), 0), COALESCE(SUM(shared_blks_read), 0)
+        FROM pg_stat_statements
+        WHERE query NOT LIKE '%pg_stat_statements%'
+        """;
+
+    /** Connection to the datastore. */
+    private final Connection connection;
+
+    /**
+     * Constructs a new PostgresStatements.
+     *
+     * @param connection Connection to the datastore.
+     */
+    private PostgresStatements(final Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Connects to a datastore, and ensures that its {@code pg_stat_statements} view can be read.
+     *
+     * @param jdbcUrl JDBC URL of the datastore, including its credentials.
+     * @return The connection, or an empty optional if the datastore can't be reached, or the view isn't available.
+     */
+    public static Optional<PostgresStatements> connect(final @NonNull String jdbcUrl) {
+        try {
+            final var connection = DriverManager.getConnection(jdbcUrl);
+
+            try (final var statement = connection.createStatement()) {
+                statement.execute("CREATE EXTENSION IF NOT EXISTS pg_stat_statements");
+                statement.executeQuery(TOTALS_QUERY).close();
+            } catch (final SQLException e) {
+                connection.close();
+                throw e;
+            }
+
+            return Optional.of(new PostgresStatements(connection));
+        } catch (final SQLException e) {
+            System.err.println("pg_stat_statements is not available, so datastore statistics won't be recorded: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the totals of every statement, since the statistics were last reset.
+     *
+     * @return The totals.
+     * @throws SQLException If the view cannot be read.
+     */
+    public Totals read() throws SQLException {
+        try (final var statement = connection.createStatement(); final var resultSet = statement.executeQuery(TOTALS_QUERY)) {
+            resultSet.next();
+            return new Totals(resultSet.getDouble(1), resultSet.getDouble(2), resultSet.getDouble(3), resultSet.getDouble(4));
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * The totals of every statement.
+     *
+     * @param calls Number of times that the statements were executed.
+     * @param executionTime Time spent executing the statements, in milliseconds.
+     * @param rows Number of rows retrieved, or affected, by the statements.
+     * @param blocksRead Number of shared blocks which were read from disk, rather than from Postgres' buffer cache.
+     */
+    public record Totals(double calls, double executionTime, double rows, double blocksRead) {
+        /**
+         * Subtracts earlier totals from these.
+         *
+         * @param earlier The earlier totals.
+         * @return The difference.
+         */
+        public Totals minus(final @NonNull Totals earlier) {
+            return new Totals(calls - earlier.calls, executionTime - earlier.executionTime, rows - earlier.rows, blocksRead - earlier.blocksRead);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.valkryst.benchmark.metrics;
+
+import com.valkryst.benchmark.Environment;
+import com.valkryst.benchmark.embedded.EmbeddedOpenFgaServer;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>
+ *     A JMH profiler which records the work done by OpenFGA, and its datastore, during each iteration, so that a slow
+ *     check can be attributed to dispatch fan-out, datastore round trips, or neither. The results are attached to each
+ *     benchmark's results as secondary results, e.g. {@code server.dispatches.norm}.
+ * </p>
+ *
+ * <p>
+ *     OpenFGA's Prometheus endpoint is scraped before, and after, each iteration. Its URL is read from the
+ *     {@code OPENFGA_METRICS_URL} environment variable, or from {@code OPENFGA_METRICS_URL_PLAINTEXT} for benchmarks
+ *     which send their requests to the plaintext server, i.e. those with a {@code tls} parameter of {@code false}. When
+ *     the {@link EmbeddedOpenFgaServer} is used, and the variable isn't set, the embedded server's own endpoint is
+ *     scraped instead. The following are recorded, when the server exposes them:
+ * </p>
+ *
+ * <ul>
+ *     <li>The number of requests, and the mean, median, and 99th percentile of their durations.</li>
+ *     <li>The number of datastore queries, and dispatches, per operation.</li>
+ *     <li>The hit ratio of the check query cache.</li>
+ * </ul>
+ *
+ * <p>
+ *     When the {@code PG_STAT_STATEMENTS_URL} environment variable holds the JDBC URL of the datastore, the number of
+ *     statements, their execution time, the rows they returned, and the blocks they read from disk are also recorded
+ *     per operation, from the {@link PostgresStatements}.
+ * </p>
+ */
+public class ServerMetricsProfiler implements InternalProfiler {
+    /** Prefix of the name of each result. */
+    private static final String PREFIX = "server.";
+
+    /** Used to scrape the Prometheus endpoint. */
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    /** URL of the Prometheus endpoint which overrides the one in the environment, or {@code null} if there is none. */
+    private final String fixedMetricsUrl;
+
+    /** URL of the Prometheus endpoint of the current benchmark's server, or {@code null} if it isn't scraped. */
+    private String metricsUrl;
+
+    /** Statistics of the datastore, or {@code null} if they aren't read. */
+    private PostgresStatements postgresStatements;
+
+    /** Whether the datastore has been connected to. It's connected to once, before the first iteration. */
+    private boolean initialized = false;
+
+    /** Snapshot taken before the current iteration, or {@code null} if it couldn't be taken. */
+    private MetricsSnapshot metricsBefore;
+
+    /** Totals read before the current iteration, or {@code null} if they couldn't be read. */
+    private PostgresStatements.Totals statementsBefore;
+
+    /** Constructs a new ServerMetricsProfiler, which scrapes the endpoint in the environment. */
+    public ServerMetricsProfiler() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new ServerMetricsProfiler.
+     *
+     * @param fixedMetricsUrl URL of the Prometheus endpoint to scrape, instead of the one in the environment, or
+     *                        {@code null} to use the one in the environment.
+     */
+    ServerMetricsProfiler(final String fixedMetricsUrl) {
+        this.fixedMetricsUrl = fixedMetricsUrl;
+    }
+
+    /**
+     * Determines whether there is anything for the profiler to record. This doesn't start the embedded server, so it's
+     * safe to call outside of a benchmark's JVM.
+     *
+     * @return Whether any of the environment variables is set, or the embedded server is used.
+     */
+    public static boolean isEnabled() {
+        return Environment.getString("OPENFGA_METRICS_URL", null) != null
+            || Environment.getString("OPENFGA_METRICS_URL_PLAINTEXT", null) != null
+            || Environment.getString("PG_STAT_STATEMENTS_URL", null) != null
+            || "embedded".equals(System.getenv("OPENFGA_API_URL"));
+    }
+
+    @Override
+    public String getDescription() {
+        return "OpenFGA's Prometheus metrics, and Postgres' pg_stat_statements, per iteration.";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+        if (!initialized) {
+            initialize();
+        }
+
+        metricsUrl = fixedMetricsUrl == null ? resolveMetricsUrl(benchmarkParams) : fixedMetricsUrl;
+
+        metricsBefore = scrape().orElse(null);
+        statementsBefore = readStatements().orElse(null);
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        final var results = new ArrayList<ScalarResult>();
+        final double operations = Math.max(1, result.getMetadata().getAllOps());
+
+        final var metricsAfter = scrape();
+        if (metricsBefore != null && metricsAfter.isPresent()) {
+            addMetrics(results, metricsAfter.get().minus(metricsBefore), operations);
+        }
+
+        final var statementsAfter = readStatements();
+        if (statementsBefore != null && statementsAfter.isPresent()) {
+            final var delta = statementsAfter.get().minus(statementsBefore);
+            results.add(new ScalarResult(PREFIX + "postgres.calls.norm", delta.calls() / operations, "calls/op", AggregationPolicy.AVG));
+            results.add(new ScalarResult(PREFIX + "postgres.time.norm", delta.executionTime() / operations, "ms/op", AggregationPolicy.AVG));
+            results.add(new ScalarResult(PREFIX + "postgres.rows.norm", delta.rows() / operations, "rows/op", AggregationPolicy.AVG));
+            results.add(new ScalarResult(PREFIX + "postgres.blocks.read.norm", delta.blocksRead() / operations, "blocks/op", AggregationPolicy.AVG));
+        }
+
+        return results;
+    }
+
+    /**
+     * Converts the difference between two scrapes into results. Metrics which the server doesn't expose are skipped.
+     *
+     * @param results Results to add to.
+     * @param delta Difference between the scrapes.
+     * @param operations Number of operations performed during the iteration.
+     */
+    private static void addMetrics(final List<ScalarResult> results, final MetricsSnapshot delta, final double operations) {
+        if (delta.contains("openfga_request_duration_ms_count")) {
+            final double requests = delta.sum("openfga_request_duration_ms_count");
+            results.add(new ScalarResult(PREFIX + "requests", requests, "requests", AggregationPolicy.SUM));
+
+            if (requests > 0) {
+                results.add(new ScalarResult(PREFIX + "request.duration.avg", delta.sum("openfga_request_duration_ms_sum") / requests, "ms", AggregationPolicy.AVG));
+                results.add(new ScalarResult(PREFIX + "request.duration.p50", delta.quantile("openfga_request_duration_ms", 0.5), "ms", AggregationPolicy.AVG));
+                results.add(new ScalarResult(PREFIX + "request.duration.p99", delta.quantile("openfga_request_duration_ms", 0.99), "ms", AggregationPolicy.AVG));
+            }
+        }
+
+        if (delta.contains("openfga_datastore_query_count_sum")) {
+            results.add(new ScalarResult(PREFIX + "datastore.queries.norm", delta.sum("openfga_datastore_query_count_sum") / operations, "queries/op", AggregationPolicy.AVG));
+        }
+
+        if (delta.contains("openfga_dispatch_count_sum")) {
+            results.add(new ScalarResult(PREFIX + "dispatches.norm", delta.sum("openfga_dispatch_count_sum") / operations, "dispatches/op", AggregationPolicy.AVG));
+        }
+
+        // Depending on the version of OpenFGA, these counters may, or may not, have the _total suffix.
+        final double cacheLookups = delta.sum("openfga_check_cache_total_count") + delta.sum("openfga_check_cache_total_count_total");
+        if (cacheLookups > 0) {
+            final double cacheHits = delta.sum("openfga_check_cache_hit_count") + delta.sum("openfga_check_cache_hit_count_total");
+            results.add(new ScalarResult(PREFIX + "cache.hit.ratio", cacheHits / cacheLookups, "ratio", AggregationPolicy.AVG));
+        }
+    }
+
+    /**
+     * Resolves the URL of the Prometheus endpoint of the server which a benchmark sends its requests to.
+     *
+     * @param benchmarkParams Parameters of the benchmark.
+     * @return The URL, or {@code null} if the endpoint isn't scraped.
+     */
+    private static String resolveMetricsUrl(final BenchmarkParams benchmarkParams) {
+        final boolean embedded = "embedded".equals(System.getenv("OPENFGA_API_URL"));
+
+        // TransportComparison sends its plaintext requests to a second server, unless the embedded server is used.
+        final boolean plaintext = !embedded && "false".equals(benchmarkParams.getParam("tls"));
+
+        final var url = Environment.getString(plaintext ? "OPENFGA_METRICS_URL_PLAINTEXT" : "OPENFGA_METRICS_URL", null);
+        if (url == null && embedded) {
+            return EmbeddedOpenFgaServer.url() + "/metrics";
+        }
+
+        return url;
+    }
+
+    /** Connects to the datastore. */
+    private void initialize() {
+        initialized = true;
+
+        final var jdbcUrl = Environment.getString("PG_STAT_STATEMENTS_URL", null);
+        if (jdbcUrl != null) {
+            postgresStatements = PostgresStatements.connect(jdbcUrl).orElse(null);
+        }
+    }
+
+    /** @return A snapshot of the Prometheus endpoint, or an empty optional if it isn't scraped, or can't be reached. */
+    private Optional<MetricsSnapshot> scrape() {
+        if (metricsUrl == null) {
+            return Optional.empty();
+        }
+
+        try {
+            final var request = HttpRequest.newBuilder(URI.create(metricsUrl)).timeout(Duration.ofSeconds(5)).GET().build();
+            final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                System.err.println("Failed to scrape " + metricsUrl + ", it responded with status " + response.statusCode() + ".");
+                return Optional.empty();
+            }
+
+            return Optional.of(MetricsSnapshot.parse(response.body()));
+        } catch (final IOException | IllegalArgumentException e) {
+            System.err.println("Failed to scrape " + metricsUrl + ": " + e.getMessage());
+            return Optional.empty();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /** @return The totals of the datastore's statements, or an empty optional if they aren't read, or can't be. */
+    private Optional<PostgresStatements.Totals> readStatements() {
+        if (postgresStatements == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(postgresStatements.read());
+        } catch (final SQLException e) {
+            System.err.println("Failed to read pg_stat_statements: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.valkryst.benchmark.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.openfga.sdk.api.model.RelationMetadata;
+import dev.openfga.sdk.api.model.RelationReference;
+import dev.openfga.sdk.api.model.Userset;
+import dev.openfga.sdk.api.model.WriteAuthorizationModelRequest;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Loads authorization models from the {@code models} directory of the resources, where each model is stored as the
+ *     JSON body of a {@code WriteAuthorizationModel} request, e.g. {@code models/tuple-to-userset.json}.
+ * </p>
+ *
+ * <p>
+ *     The SDK has no parser for the modeling language, so the models are stored as JSON. The {@code fga model
+ *     transform} command of the OpenFGA CLI converts a model from the modeling language into this format.
+ * </p>
+ */
+public final class AuthorizationModels {
+    /** Name of the model used by the benchmarks, unless they choose another. */
+    public static final String DEFAULT = "default";
+
+    private AuthorizationModels() {}
+
+    /**
+     * Loads a model.
+     *
+     * @param name Name of the model, e.g. {@code tuple-to-userset}.
+     * @return The model, as JSON.
+     * @throws IllegalArgumentException If there is no model with the name.
+     * @throws IOException If the model cannot be read.
+     */
+    public static String load(final @NonNull String name) throws IOException {
+        try (final InputStream inputStream = AuthorizationModels.class.getResourceAsStream("/models/" + name + ".json")) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("There is no authorization model named '" + name + "'.");
+            }
+
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * <p>
+     *     Generates a model with a given number of types, for benchmarks which measure how the cost of writing, and of
+     *     resolving, a model grows with its size.
+     * </p>
+     *
+     * <p>
+     *     The model contains every type of the {@link #DEFAULT default} model, so the tuples written by the benchmarks
+     *     remain valid, followed by {@code resource_<n>} types. Each resource has an {@code owner}, an {@code editor}
+     *     which includes the owner, and a {@code viewer} which includes the editor and the viewers of its
+     *     {@code parent}, which is the previous resource type.
+     * </p>
+     *
+     * @param types Total number of types in the model.
+     * @return The model, as JSON.
+     * @throws IllegalArgumentException If there are fewer types than in the default model.
+     * @throws IOException If the default model cannot be read.
+     */
+    public static String generate(final int types) throws IOException {
+        final var mapper = new ObjectMapper();
+        final var model = (ObjectNode) mapper.readTree(load(DEFAULT));
+        final var typeDefinitions = (ArrayNode) model.path("type_definitions");
+
+        final int resources = types - typeDefinitions.size();
+        if (resources < 0) {
+            throw new IllegalArgumentException("types must be greater than or equal to " + typeDefinitions.size() + ".");
+        }
+
+        for (int i = 0 ; i < resources ; i++) {
+            final var type = "resource_" + i;
+            final var typeDefinition = typeDefinitions.addObject();
+            typeDefinition.put("type", type);
+
+            final var relations = typeDefinition.putObject("relations");
+            final var metadata = typeDefinition.putObject("metadata").putObject("relations");
+
+            relations.putObject("owner").putObject("this");
+            final var ownerTypes = metadata.putObject("owner").putArray("directly_related_user_types");
+            ownerTypes.addObject().put("type", "user");
+            ownerTypes.addObject().put("type", "group").put("relation", "member");
+
+            final var editor = relations.putObject("editor").putObject("union").putArray("child");
+            editor.addObject().putObject("this");
+            editor.addObject().putObject("computedUserset").put("relation", "owner");
+            metadata.putObject("editor").putArray("directly_related_user_types").addObject().put("type", "user");
+
+            final var viewer = relations.putObject("viewer").putObject("union").putArray("child");
+            viewer.addObject().putObject("this");
+            viewer.addObject().putObject("computedUserset").put("relation", "editor");
+            metadata.putObject("viewer").putArray("directly_related_user_types").addObject().put("type", "user");
+
+            if (i > 0) {
+                relations.putObject("parent").putObject("this");
+                metadata.putObject("parent").putArray("directly_related_user_types").addObject().put("type", "resource_" + (i - 1));
+
+                final var tupleToUserset = viewer.addObject().putObject("tupleToUserset");
+                tupleToUserset.putObject("tupleset").put("relation", "parent");
+                tupleToUserset.putObject("computedUserset").put("relation", "viewer");
+            }
+        }
+
+        return mapper.writeValueAsString(model);
+    }
+
+    /**
+     * <p>
+     *     Finds the types of a model whose relations are only ever directly assigned, so that writing, or deleting, a
+     *     tuple whose object is of one of these types only changes the result of the check for that same tuple.
+     * </p>
+     *
+     * <p>
+     *     A type qualifies when each of its relations is defined only as {@code this}, and no relation of the model can
+     *     reach its objects, either through a userset such as {@code report#reader}, or through a tuple to userset.
+     * </p>
+     *
+     * @param model The model.
+     * @return The types.
+     */
+    public static Set<String> directTypes(final @NonNull WriteAuthorizationModelRequest model) {
+        final var types = new HashSet<String>();
+        final var reachableTypes = new HashSet<String>();
+
+        for (final var typeDefinition : model.getTypeDefinitions()) {
+            final Map<String, Userset> relations = Objects.requireNonNullElse(typeDefinition.getRelations(), Map.of());
+            final Map<String, RelationMetadata> metadata = typeDefinition.getMetadata() == null ? Map.of() : Objects.requireNonNullElse(typeDefinition.getMetadata().getRelations(), Map.of());
+
+            if (!relations.isEmpty() && relations.values().stream().allMatch(AuthorizationModels::isDirect)) {
+                types.add(typeDefinition.getType());
+            }
+
+            for (final var relation : metadata.values()) {
+                for (final var userType : directlyRelatedUserTypes(relation)) {
+                    if (userType.getRelation() != null) {
+                        reachableTypes.add(userType.getType());
+                    }
+                }
+            }
+
+            // A tuple to userset continues from the users of its tupleset's tuples, so every type of user is reached.
+            final var tuplesets = new HashSet<String>();
+            relations.values().forEach(userset -> collectTuplesets(userset, tuplesets));
+            for (final var tupleset : tuplesets) {
+                for (final var userType : directlyRelatedUserTypes(metadata.get(tupleset))) {
+                    reachableTypes.add(userType.getType());
+                }
+            }
+        }
+
+        types.removeAll(reachableTypes);
+        return types;
+    }
+
+    /**
+     * Determines whether a relation is defined only as {@code this}.
+     *
+     * @param userset Definition of the relation.
+     * @return Whether the relation is only directly assigned.
+     */
+    private static boolean isDirect(final Userset userset) {
+        return userset.getThis() != null
+            && userset.getComputedUserset() == null
+            && userset.getTupleToUserset() == null
+            && userset.getUnion() == null
+            && userset.getIntersection() == null
+            && userset.getDifference() == null;
+    }
+
+    /**
+     * Collects the tupleset relations of every tuple to userset in a relation's definition.
+     *
+     * @param userset Definition of the relation.
+     * @param tuplesets Set to add the names of the tupleset relations to.
+     */
+    private static void collectTuplesets(final Userset userset, final Set<String> tuplesets) {
+        if (userset == null) {
+            return;
+        }
+
+        if (userset.getTupleToUserset() != null) {
+            tuplesets.add(userset.getTupleToUserset().getTupleset().getRelation());
+        }
+
+        if (userset.getUnion() != null) {
+            userset.getUnion().getChild().forEach(child -> collectTuplesets(child, tuplesets));
+        }
+
+        if (userset.getIntersection() != null) {
+            userset.getIntersection().getChild().forEach(child -> collectTuplesets(child, tuplesets));
+        }
+
+        if (userset.getDifference() != null) {
+            collectTuplesets(userset.getDifference().getBase(), tuplesets);
+            collectTuplesets(userset.getDifference().getSubtract(), tuplesets);
+        }
+    }
+
+    /**
+     * @param relation Metadata of a relation, or {@code null}.
+     * @return Types of user which can be directly related to the relation.
+     */
+    private static List<RelationReference> directlyRelatedUserTypes(final RelationMetadata relation) {
+        if (relation == null || relation.getDirectlyRelatedUserTypes() == null) {
+            return List.of();
+        }
+
+        return relation.getDirectlyRelatedUserTypes();
+    }
+}
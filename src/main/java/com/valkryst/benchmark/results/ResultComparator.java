@@ -0,0 +1,327 @@
+package com.valkryst.benchmark.results;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.valkryst.benchmark.Environment;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ *     Compares the results of a run against those of a baseline run, e.g. a run against the next version of OpenFGA
+ *     against a run against the current version, and flags each benchmark whose score changed significantly.
+ * </p>
+ *
+ * <p>
+ *     Results are matched by their benchmark, mode, thread count, and parameters. The score of each iteration is
+ *     treated as one sample, and the samples of the two runs are compared with Welch's t-test. When either run has
+ *     fewer than two iterations, the runs are instead compared by whether JMH's confidence intervals overlap. A change
+ *     is only flagged when it is both statistically significant, and larger than a minimum change.
+ * </p>
+ *
+ * <p>
+ *     The mean of a {@code SampleTime} result can hide a regression in its tail, so the 99th percentiles of those
+ *     results are also compared. JMH only reports one 99th percentile per run, so it can't be tested for significance,
+ *     and a change is instead flagged when it is larger than a maximum change.
+ * </p>
+ *
+ * <p>It is configured with the following environment variables:</p>
+ *
+ * <ul>
+ *     <li>{@code RESULTS_CONFIDENCE} - Confidence level of the t-test, as a percentage. Defaults to {@code 95}.</li>
+ *     <li>{@code RESULTS_MIN_CHANGE_PERCENT} - Minimum change in the score to flag. Defaults to {@code 5}.</li>
+ *     <li>{@code RESULTS_MAX_P99_CHANGE_PERCENT} - Maximum change in the 99th percentile. Defaults to {@code 10}.</li>
+ * </ul>
+ *
+ * <p>
+ *     Each argument is either the directory of a run in the {@link ResultsStore}, or a JMH JSON results file. If the
+ *     candidate isn't given, then the latest run in the {@link ResultsStore} is used. The process exits with a non-zero
+ *     status if any benchmark, or 99th percentile, regressed.
+ * </p>
+ *
+ * <pre>{@code java -cp benchmarks.jar com.valkryst.benchmark.results.ResultComparator <baseline> [candidate]}</pre>
+ */
+public class ResultComparator {
+    /** Used to read the results and metadata. */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Significance level of the t-test. */
+    private final double alpha;
+
+    /** Minimum change in the score, as a fraction of the baseline's score, to flag. */
+    private final double minChange;
+
+    /** Maximum change in the 99th percentile, as a fraction of the baseline's 99th percentile, to not flag. */
+    private final double maxP99Change;
+
+    /**
+     * Constructs a new ResultComparator.
+     *
+     * @param confidencePercent Confidence level of the t-test, as a percentage.
+     * @param minChangePercent Minimum change in the score to flag, as a percentage.
+     * @param maxP99ChangePercent Maximum change in the 99th percentile to not flag, as a percentage.
+     */
+    public ResultComparator(final int confidencePercent, final int minChangePercent, final int maxP99ChangePercent) {
+        if (confidencePercent <= 0 || confidencePercent >= 100) {
+            throw new IllegalArgumentException("confidencePercent must be between 0 and 100, exclusive.");
+        }
+
+        if (minChangePercent < 0) {
+            throw new IllegalArgumentException("minChangePercent must be greater than or equal to 0.");
+        }
+
+        if (maxP99ChangePercent < 0) {
+            throw new IllegalArgumentException("maxP99ChangePercent must be greater than or equal to 0.");
+        }
+
+        this.alpha = 1 - confidencePercent / 100.0;
+        this.minChange = minChangePercent / 100.0;
+        this.maxP99Change = maxP99ChangePercent / 100.0;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ResultComparator <baseline> [candidate]");
+            System.exit(1);
+        }
+
+        final var baseline = Path.of(args[0]);
+        final var candidate = args.length == 2 ? Path.of(args[1]) : ResultsStore.latestRunDirectory().orElse(null);
+        if (candidate == null) {
+            System.err.println("There are no runs in " + ResultsStore.directory().toAbsolutePath() + ", so a candidate must be given.");
+            System.exit(1);
+        }
+
+        final var comparator = new ResultComparator(
+            Environment.getInt("RESULTS_CONFIDENCE", 95),
+            Environment.getInt("RESULTS_MIN_CHANGE_PERCENT", 5),
+            Environment.getInt("RESULTS_MAX_P99_CHANGE_PERCENT", 10)
+        );
+
+        System.exit(comparator.compare(baseline, candidate) ? 0 : 1);
+    }
+
+    /**
+     * Compares two runs, and prints the change in each benchmark's score.
+     *
+     * @param baseline Directory, or JMH JSON results file, of the baseline run.
+     * @param candidate Directory, or JMH JSON results file, of the run to compare against the baseline.
+     * @return Whether no benchmark, or 99th percentile, regressed.
+     * @throws IOException If either run cannot be read.
+     */
+    public boolean compare(final @NonNull Path baseline, final @NonNull Path candidate) throws IOException {
+        printMetadata("Baseline", baseline);
+        printMetadata("Candidate", candidate);
+
+        final var baselineResults = readResults(baseline);
+        final var candidateResults = readResults(candidate);
+
+        final var keys = new ArrayList<>(baselineResults.keySet());
+        candidateResults.keySet().stream().filter(key -> !baselineResults.containsKey(key)).forEach(keys::add);
+
+        boolean regressed = false;
+
+        System.out.println();
+        System.out.printf("%-90s %28s %28s %9s %8s %10s%n", "Benchmark", "Baseline", "Candidate", "Change", "p", "Verdict");
+
+        for (final var key : keys) {
+            final var before = baselineResults.get(key);
+            final var after = candidateResults.get(key);
+
+            if (before == null || after == null) {
+                System.out.printf(
+                    "%-90s %28s %28s %9s %8s %10s%n",
+                    key,
+                    before == null ? "-" : before.format(),
+                    after == null ? "-" : after.format(),
+                    "-",
+                    "-",
+                    before == null ? "NEW" : "MISSING"
+                );
+                continue;
+            }
+
+            final double change = (after.score - before.score) / before.score;
+            final double p = Statistics.welchTTest(before.samples, after.samples);
+
+            final boolean significant;
+            if (Double.isNaN(p)) {
+                significant = !Double.isNaN(before.lowerBound) && !Double.isNaN(after.lowerBound) && (after.lowerBound > before.upperBound || after.upperBound < before.lowerBound);
+            } else {
+                significant = p < alpha;
+            }
+
+            final String verdict;
+            if (!significant || Math.abs(change) < minChange) {
+                verdict = "~";
+            } else if ((change > 0) == before.higherIsBetter()) {
+                verdict = "IMPROVED";
+            } else {
+                verdict = "REGRESSED";
+                regressed = true;
+            }
+
+            System.out.printf(
+                "%-90s %28s %28s %+8.1f%% %8s %10s%n",
+                key,
+                before.format(),
+                after.format(),
+                change * 100,
+                Double.isNaN(p) ? "-" : String.format("%.4f", p),
+                verdict
+            );
+
+            if (!Double.isNaN(before.p99) && !Double.isNaN(after.p99)) {
+                final double p99Change = (after.p99 - before.p99) / before.p99;
+
+                // Only SampleTime results have a 99th percentile, and their scores are times, so lower is better.
+                final String p99Verdict;
+                if (Math.abs(p99Change) <= maxP99Change) {
+                    p99Verdict = "~";
+                } else if (p99Change < 0) {
+                    p99Verdict = "IMPROVED";
+                } else {
+                    p99Verdict = "REGRESSED";
+                    regressed = true;
+                }
+
+                System.out.printf(
+                    "%-90s %28s %28s %+8.1f%% %8s %10s%n",
+                    "  p99",
+                    String.format("%.3f %s", before.p99, before.unit),
+                    String.format("%.3f %s", after.p99, after.unit),
+                    p99Change * 100,
+                    "-",
+                    p99Verdict
+                );
+            }
+        }
+
+        if (regressed) {
+            System.err.println("One or more benchmarks regressed.");
+        }
+
+        return !regressed;
+    }
+
+    /**
+     * Prints the metadata of a run, if it has any.
+     *
+     * @param label Label of the run.
+     * @param run Directory, or JMH JSON results file, of the run.
+     * @throws IOException If the metadata cannot be read.
+     */
+    private static void printMetadata(final String label, final Path run) throws IOException {
+        final var metadataFile = Files.isDirectory(run) ? run.resolve(ResultsStore.METADATA_FILE) : run.resolveSibling(ResultsStore.METADATA_FILE);
+        if (!Files.isRegularFile(metadataFile)) {
+            System.out.println(label + ": " + run + " (no metadata)");
+            return;
+        }
+
+        final var metadata = MAPPER.readTree(metadataFile.toFile());
+        System.out.println(
+            label + ": " + run
+            + " (OpenFGA " + metadata.path("openfgaImageTag").asText()
+            + ", " + metadata.path("threads").asText() + " thread(s)"
+            + ", " + metadata.path("timestamp").asText() + ")"
+        );
+    }
+
+    /**
+     * Reads the results of a run.
+     *
+     * @param run Directory, or JMH JSON results file, of the run.
+     * @return The results, by a key which identifies their benchmark, mode, thread count, and parameters.
+     * @throws IOException If the results cannot be read.
+     */
+    private static Map<String, Score> readResults(final Path run) throws IOException {
+        final var file = Files.isDirectory(run) ? run.resolve(ResultsStore.RESULTS_FILE) : run;
+
+        final var results = new LinkedHashMap<String, Score>();
+        for (final var result : MAPPER.readTree(file.toFile())) {
+            final var benchmark = result.path("benchmark").asText();
+
+            final var key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+            key.append(" [").append(result.path("mode").asText()).append(", ").append(result.path("threads").asInt()).append("t]");
+            final var params = new TreeMap<String, String>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+
+            results.put(key.toString(), Score.of(result.path("mode").asText(), result.path("primaryMetric")));
+        }
+        return results;
+    }
+
+    /**
+     * The primary score of a benchmark.
+     *
+     * @param mode JMH's benchmark mode, e.g. {@code thrpt} or {@code avgt}.
+     * @param score The score.
+     * @param lowerBound Lower bound of JMH's confidence interval, or {@code NaN} if there is none.
+     * @param upperBound Upper bound of JMH's confidence interval, or {@code NaN} if there is none.
+     * @param unit Unit of the score.
+     * @param samples Score of each measurement iteration, of each fork.
+     * @param p99 99th percentile of the score, or {@code NaN} if it isn't meaningful in this mode.
+     */
+    private record Score(String mode, double score, double lowerBound, double upperBound, String unit, double[] samples, double p99) {
+        /**
+         * Reads a score from a JMH JSON result.
+         *
+         * @param mode JMH's benchmark mode.
+         * @param metric The {@code primaryMetric} of the result.
+         * @return The score.
+         */
+        private static Score of(final String mode, final JsonNode metric) {
+            final var samples = new ArrayList<Double>();
+
+            // Each fork has a list of iterations. In sample mode, each iteration is a histogram of [value, count] pairs,
+            // so its mean is used as the iteration's score.
+            for (final var fork : metric.path("rawData")) {
+                fork.forEach(iteration -> samples.add(iteration.asDouble()));
+            }
+
+            for (final var fork : metric.path("rawDataHistogram")) {
+                for (final var iteration : fork) {
+                    double sum = 0;
+                    long count = 0;
+                    for (final var bucket : iteration) {
+                        sum += bucket.get(0).asDouble() * bucket.get(1).asLong();
+                        count += bucket.get(1).asLong();
+                    }
+                    samples.add(sum / count);
+                }
+            }
+
+            return new Score(
+                mode,
+                metric.path("score").asDouble(),
+                metric.path("scoreConfidence").path(0).asDouble(Double.NaN),
+                metric.path("scoreConfidence").path(1).asDouble(Double.NaN),
+                metric.path("scoreUnit").asText(),
+                samples.stream().mapToDouble(Double::doubleValue).toArray(),
+                mode.equals("sample") ? metric.path("scorePercentiles").path("99.0").asDouble(Double.NaN) : Double.NaN
+            );
+        }
+
+        /** @return Whether a higher score is better, which is only the case for throughput. */
+        private boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+
+        /** @return The score, and the half-width of its confidence interval, with its unit. */
+        private String format() {
+            if (Double.isNaN(lowerBound)) {
+                return String.format("%.3f %s", score, unit);
+            }
+
+            return String.format("%.3f ± %.3f %s", score, (upperBound - lowerBound) / 2, unit);
+        }
+    }
+}
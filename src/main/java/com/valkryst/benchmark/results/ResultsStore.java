@@ -0,0 +1,122 @@
+package com.valkryst.benchmark.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.valkryst.benchmark.Environment;
+import lombok.NonNull;
+import org.openjdk.jmh.runner.options.Options;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ *     A local directory of benchmark runs. Each run has its own subdirectory, which holds JMH's JSON results
+ *     ({@value #RESULTS_FILE}) and the metadata of the run ({@value #METADATA_FILE}), so that runs against different
+ *     versions of OpenFGA can be compared by the {@link ResultComparator}.
+ * </p>
+ *
+ * <p>
+ *     The directory is read from the {@code RESULTS_DIR} environment variable, and defaults to {@code results}. The
+ *     version of OpenFGA is read from the {@code OPENFGA_IMAGE_TAG} environment variable.
+ * </p>
+ */
+public final class ResultsStore {
+    /** Name of the file, within a run's directory, which holds JMH's results. */
+    public static final String RESULTS_FILE = "results.json";
+
+    /** Name of the file, within a run's directory, which holds the metadata of the run. */
+    public static final String METADATA_FILE = "metadata.json";
+
+    /** Prefixes of the environment variables which configure a run, and which are recorded in its metadata. */
+    private static final String[] RECORDED_ENVIRONMENT_PREFIXES = { "OPENFGA_", "OPEN_LOOP_", "ALLOCATION_" };
+
+    /** Format of the timestamp which begins the name of each run's directory. */
+    private static final DateTimeFormatter DIRECTORY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private ResultsStore() {}
+
+    /** @return Path of the directory which holds all runs. */
+    public static Path directory() {
+        return Path.of(Environment.getString("RESULTS_DIR", "results"));
+    }
+
+    /** @return Version of OpenFGA which is being benchmarked, or {@code unknown} if it wasn't specified. */
+    public static String imageTag() {
+        return Environment.getString("OPENFGA_IMAGE_TAG", "unknown");
+    }
+
+    /**
+     * Creates the directory of a new run.
+     *
+     * @return Path of the directory.
+     * @throws IOException If the directory cannot be created.
+     */
+    public static Path createRunDirectory() throws IOException {
+        final var name = LocalDateTime.now().format(DIRECTORY_TIMESTAMP) + "-" + imageTag().replaceAll("[^A-Za-z0-9._-]", "_");
+        return Files.createDirectories(directory().resolve(name));
+    }
+
+    /**
+     * Finds the most recent run, by the name of its directory.
+     *
+     * @return Path of the run's directory, or an empty optional if there are no runs.
+     * @throws IOException If the directory of runs cannot be read.
+     */
+    public static Optional<Path> latestRunDirectory() throws IOException {
+        if (!Files.isDirectory(directory())) {
+            return Optional.empty();
+        }
+
+        try (final Stream<Path> runs = Files.list(directory())) {
+            return runs.filter(run -> Files.isRegularFile(run.resolve(RESULTS_FILE)))
+                       .max(Comparator.comparing(run -> run.getFileName().toString()));
+        }
+    }
+
+    /**
+     * Writes the metadata of a run.
+     *
+     * @param runDirectory Directory of the run.
+     * @param options Options with which JMH was run.
+     * @param args Command line arguments of the run.
+     * @throws IOException If the metadata cannot be written.
+     */
+    public static void writeMetadata(final @NonNull Path runDirectory, final @NonNull Options options, final @NonNull String[] args) throws IOException {
+        final var mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        final var metadata = mapper.createObjectNode();
+        metadata.put("timestamp", OffsetDateTime.now().toString());
+        metadata.put("openfgaImageTag", imageTag());
+        metadata.put("openfgaApiUrl", System.getenv("OPENFGA_API_URL"));
+        metadata.put("threads", options.getThreads().orElse(1));
+
+        // These are null when they weren't given on the command line, so each benchmark's annotations apply.
+        metadata.put("forks", options.getForkCount().orElse(null));
+        metadata.put("warmupIterations", options.getWarmupIterations().orElse(null));
+        metadata.put("measurementIterations", options.getMeasurementIterations().orElse(null));
+        metadata.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        metadata.put("javaVersion", System.getProperty("java.version"));
+        metadata.put("arguments", String.join(" ", args));
+
+        // The dataset sizes, transport profiles, etc. of each benchmark are its @Params, which are in the results.
+        final Map<String, String> environment = new TreeMap<>();
+        System.getenv().forEach((name, value) -> {
+            if (!name.contains("TOKEN") && Stream.of(RECORDED_ENVIRONMENT_PREFIXES).anyMatch(name::startsWith)) {
+                environment.put(name, value);
+            }
+        });
+        metadata.set("environment", mapper.valueToTree(environment));
+
+        mapper.writeValue(runDirectory.resolve(METADATA_FILE).toFile(), metadata);
+    }
+}
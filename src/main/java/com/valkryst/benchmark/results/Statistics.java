@@ -0,0 +1,169 @@
+package com.valkryst.benchmark.results;
+
+import lombok.NonNull;
+
+/** Statistical functions used to compare the results of two runs. */
+public final class Statistics {
+    /** Maximum number of terms to evaluate, of the incomplete beta function's continued fraction. */
+    private static final int MAX_ITERATIONS = 300;
+
+    /** Relative error at which the incomplete beta function's continued fraction is considered to have converged. */
+    private static final double EPSILON = 1e-14;
+
+    /** Lanczos coefficients, used to approximate the log gamma function. */
+    private static final double[] LANCZOS = {
+        76.18009172947146, -86.50532032941677, 24.01409824083091,
+        -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5
+    };
+
+    private Statistics() {}
+
+    /**
+     * Calculates the arithmetic mean of a sample.
+     *
+     * @param sample The sample.
+     * @return The mean, or {@code NaN} if the sample is empty.
+     */
+    public static double mean(final @NonNull double[] sample) {
+        double sum = 0;
+        for (final double value : sample) {
+            sum += value;
+        }
+        return sum / sample.length;
+    }
+
+    /**
+     * Calculates the unbiased variance of a sample.
+     *
+     * @param sample The sample.
+     * @return The variance, or {@code NaN} if the sample has fewer than two values.
+     */
+    public static double variance(final @NonNull double[] sample) {
+        final double mean = mean(sample);
+
+        double sumOfSquares = 0;
+        for (final double value : sample) {
+            sumOfSquares += (value - mean) * (value - mean);
+        }
+        return sumOfSquares / (sample.length - 1);
+    }
+
+    /**
+     * Performs Welch's unequal variances t-test, which tests whether two samples have the same mean without assuming
+     * that they have the same variance.
+     *
+     * @param a The first sample.
+     * @param b The second sample.
+     * @return The two-sided p-value, or {@code NaN} if either sample has fewer than two values.
+     */
+    public static double welchTTest(final @NonNull double[] a, final @NonNull double[] b) {
+        if (a.length < 2 || b.length < 2) {
+            return Double.NaN;
+        }
+
+        final double varianceOfMeanA = variance(a) / a.length;
+        final double varianceOfMeanB = variance(b) / b.length;
+        final double standardError = Math.sqrt(varianceOfMeanA + varianceOfMeanB);
+
+        // When neither sample varies, the means are either identical or certainly different.
+        if (standardError == 0) {
+            return mean(a) == mean(b) ? 1 : 0;
+        }
+
+        final double t = (mean(a) - mean(b)) / standardError;
+        final double degreesOfFreedom = Math.pow(varianceOfMeanA + varianceOfMeanB, 2) / (
+            (varianceOfMeanA * varianceOfMeanA) / (a.length - 1) + (varianceOfMeanB * varianceOfMeanB) / (b.length - 1)
+        );
+
+        return regularizedIncompleteBeta(degreesOfFreedom / (degreesOfFreedom + t * t), degreesOfFreedom / 2, 0.5);
+    }
+
+    /**
+     * Calculates the regularized incomplete beta function, I<sub>x</sub>(a, b). The two-sided p-value of a t statistic,
+     * with v degrees of freedom, is I<sub>v / (v + t²)</sub>(v / 2, 1 / 2).
+     *
+     * @param x Upper limit of integration, between 0 and 1.
+     * @param a First shape parameter.
+     * @param b Second shape parameter.
+     * @return The value of the function.
+     */
+    private static double regularizedIncompleteBeta(final double x, final double a, final double b) {
+        if (x <= 0) {
+            return 0;
+        }
+
+        if (x >= 1) {
+            return 1;
+        }
+
+        final double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+
+        // The continued fraction converges quickly only on one side of this point, so the symmetry relation
+        // I_x(a, b) = 1 - I_(1-x)(b, a) is used on the other side.
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        } else {
+            return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+        }
+    }
+
+    /**
+     * Evaluates the continued fraction of the incomplete beta function, by the modified Lentz method.
+     *
+     * @param x Upper limit of integration, between 0 and 1.
+     * @param a First shape parameter.
+     * @param b Second shape parameter.
+     * @return The value of the continued fraction.
+     */
+    private static double betaContinuedFraction(final double x, final double a, final double b) {
+        final double tiny = 1e-300;
+
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double result = d;
+
+        for (int m = 1 ; m <= MAX_ITERATIONS ; m++) {
+            // Even step.
+            double numerator = m * (b - m) * x / ((a + 2 * m - 1) * (a + 2 * m));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < tiny ? tiny : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            result *= d * c;
+
+            // Odd step.
+            numerator = -(a + m) * (a + b + m) * x / ((a + 2 * m) * (a + 2 * m + 1));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < tiny ? tiny : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+
+            final double delta = d * c;
+            result *= delta;
+
+            if (Math.abs(delta - 1) < EPSILON) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Approximates the natural logarithm of the gamma function, by the Lanczos approximation.
+     *
+     * @param x A positive number.
+     * @return The natural logarithm of Γ(x).
+     */
+    private static double logGamma(final double x) {
+        double y = x;
+        double series = 1.000000000190015;
+        for (final double coefficient : LANCZOS) {
+            series += coefficient / ++y;
+        }
+
+        final double tmp = x + 5.5;
+        return (x + 0.5) * Math.log(tmp) - tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
@@ -0,0 +1,65 @@
+package com.valkryst.benchmark.trace;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * <p>
+ *     A JMH profiler which exports the histograms of the {@link ClientTracer} after each iteration, so that the time
+ *     spent in each {@link Phase} of the client's requests is attached to each benchmark's results as secondary
+ *     results, e.g. {@code client.roundTrip.p99}.
+ * </p>
+ *
+ * <p>
+ *     The mean, median, and 99th percentile of each phase are recorded, in microseconds, along with the number of
+ *     traced calls. Phases which weren't recorded during the iteration are skipped.
+ * </p>
+ */
+public class ClientTraceProfiler implements InternalProfiler {
+    /** Prefix of the name of each result. */
+    private static final String PREFIX = "client.";
+
+    @Override
+    public String getDescription() {
+        return "Time spent in each phase of the client's requests, per iteration.";
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+        // Discards the requests sent before the iteration, e.g. while the benchmark's dataset was written.
+        for (final var phase : Phase.values()) {
+            ClientTracer.intervalHistogram(phase);
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams, final IterationResult result) {
+        final var results = new ArrayList<ScalarResult>();
+
+        for (final var phase : Phase.values()) {
+            final var histogram = ClientTracer.intervalHistogram(phase);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+
+            final var name = PREFIX + phase.getName();
+            results.add(new ScalarResult(name + ".avg", histogram.getMean() / 1_000d, "us", AggregationPolicy.AVG));
+            results.add(new ScalarResult(name + ".p50", histogram.getValueAtPercentile(50) / 1_000d, "us", AggregationPolicy.AVG));
+            results.add(new ScalarResult(name + ".p99", histogram.getValueAtPercentile(99) / 1_000d, "us", AggregationPolicy.AVG));
+
+            if (phase == Phase.TOTAL) {
+                results.add(new ScalarResult(PREFIX + "calls", histogram.getTotalCount(), "calls", AggregationPolicy.SUM));
+            }
+        }
+
+        return results;
+    }
+}
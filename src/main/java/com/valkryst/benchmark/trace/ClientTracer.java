@@ -0,0 +1,201 @@
+package com.valkryst.benchmark.trace;
+
+import com.valkryst.benchmark.Environment;
+import lombok.NonNull;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Times each {@link Phase} of the requests sent through a {@link TracingApiClient}, or through any other HTTP
+ *     client which is {@link #wrap(HttpClient) wrapped} by the tracer, so that a regression in a benchmark can be
+ *     attributed to the client, the network, or the server. Each phase is timed with {@link System#nanoTime()}, and
+ *     recorded to its own histogram, which the {@link ClientTraceProfiler} exports with the benchmark's results.
+ * </p>
+ *
+ * <p>
+ *     Tracing is enabled by setting the {@code OPENFGA_CLIENT_TRACE} environment variable to {@code true}. When it's
+ *     disabled, the benchmarks use the SDK's own API client, and {@link #start()} does nothing, so a run with, and a
+ *     run without, tracing show its overhead.
+ * </p>
+ *
+ * <p>
+ *     A call is traced between {@link #start()} and {@link Trace#finish()}, which must be called by the same thread.
+ *     Requests which are sent outside of a trace, e.g. by a benchmark which calls the client directly, or when the SDK
+ *     retries a request, only have their {@link Phase#ROUND_TRIP} recorded.
+ * </p>
+ */
+public final class ClientTracer {
+    /** Whether tracing is enabled. */
+    private static final boolean ENABLED = Boolean.parseBoolean(Environment.getString("OPENFGA_CLIENT_TRACE", "false"));
+
+    /** Duration of each phase, in nanoseconds. */
+    private static final Map<Phase, Recorder> RECORDERS = new EnumMap<>(Phase.class);
+
+    /** Trace of the call which is in progress on each thread, if any. */
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    /** Durations of each phase when the recorders were frozen, which haven't been retrieved yet. */
+    private static final Map<Phase, Histogram> FROZEN = new EnumMap<>(Phase.class);
+
+    static {
+        for (final var phase : Phase.values()) {
+            RECORDERS.put(phase, new Recorder(3));
+        }
+    }
+
+    private ClientTracer() {}
+
+    /** @return Whether tracing is enabled. */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Wraps an HTTP client, so that the requests which it sends are timed.
+     *
+     * @param httpClient The HTTP client.
+     * @return A client which times the requests of the HTTP client, or the HTTP client itself if tracing is disabled.
+     */
+    public static HttpClient wrap(final @NonNull HttpClient httpClient) {
+        return ENABLED ? new TracingHttpClient(httpClient) : httpClient;
+    }
+
+    /**
+     * Starts tracing a call, on the current thread.
+     *
+     * @return The trace, or {@code null} if tracing is disabled.
+     */
+    public static Trace start() {
+        if (!ENABLED) {
+            return null;
+        }
+
+        final var trace = new Trace(System.nanoTime());
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Finishes a trace, if there is one.
+     *
+     * @param trace The trace returned by {@link #start()}, or {@code null}.
+     */
+    public static void finish(final Trace trace) {
+        if (trace != null) {
+            trace.finish();
+        }
+    }
+
+    /** @return Trace of the call which is in progress on the current thread, or {@code null} if there is none. */
+    static Trace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase The phase.
+     * @param nanoseconds Duration of the phase.
+     */
+    static void record(final Phase phase, final long nanoseconds) {
+        RECORDERS.get(phase).recordValue(Math.max(0, nanoseconds));
+    }
+
+    /**
+     * Retrieves the durations of a phase which have been recorded since the last call, and resets them.
+     *
+     * @param phase The phase.
+     * @return The durations, in nanoseconds.
+     */
+    public static Histogram intervalHistogram(final @NonNull Phase phase) {
+        final var histogram = RECORDERS.get(phase).getIntervalHistogram();
+
+        synchronized (FROZEN) {
+            final var frozen = FROZEN.remove(phase);
+            return frozen == null ? histogram : frozen;
+        }
+    }
+
+    /**
+     * Discards the durations which have been recorded so far, e.g. those of the requests which wrote a benchmark's
+     * dataset. JMH sets up a trial within its first iteration, after the profilers have begun it, so this must be
+     * called once the setup is complete.
+     */
+    public static void discard() {
+        synchronized (FROZEN) {
+            FROZEN.clear();
+
+            for (final var recorder : RECORDERS.values()) {
+                recorder.reset();
+            }
+        }
+    }
+
+    /**
+     * Holds the durations which have been recorded so far, so that {@link #intervalHistogram(Phase)} returns them, and
+     * discards anything recorded after them. JMH tears down a trial before its last iteration reaches the profilers,
+     * so this must be called before the teardown sends the requests which clean up after the benchmark.
+     */
+    public static void freeze() {
+        synchronized (FROZEN) {
+            for (final var phase : Phase.values()) {
+                FROZEN.put(phase, RECORDERS.get(phase).getIntervalHistogram());
+            }
+        }
+    }
+
+    /** The times at which a traced call reached each phase, in nanoseconds. */
+    public static final class Trace {
+        /** Time at which the call started. */
+        private final long started;
+
+        /** Time at which the request was handed to the HTTP client, or {@code 0} if it hasn't been. */
+        private long sent;
+
+        /**
+         * Time at which the whole response body was received, or {@code 0} if it hasn't been. It's written by the HTTP
+         * client's thread, before the call's future completes, so the calling thread sees it once the call returns.
+         */
+        private long received;
+
+        /**
+         * Constructs a new Trace.
+         *
+         * @param started Time at which the call started.
+         */
+        private Trace(final long started) {
+            this.started = started;
+        }
+
+        /** Records that the request was handed to the HTTP client. Only the first request of the call is recorded. */
+        void sent() {
+            if (sent == 0) {
+                sent = System.nanoTime();
+            }
+        }
+
+        /** Records that the whole response body was received. The last response of the call is recorded. */
+        void received() {
+            received = System.nanoTime();
+        }
+
+        /** Records the durations of the phases of the call, and ends the trace on the current thread. */
+        public void finish() {
+            final long finished = System.nanoTime();
+            CURRENT.remove();
+
+            if (sent != 0 && received != 0) {
+                record(Phase.BUILD, sent - started);
+                record(Phase.ROUND_TRIP, received - sent);
+                record(Phase.PARSE, finished - received);
+            }
+
+            record(Phase.TOTAL, finished - started);
+        }
+    }
+}
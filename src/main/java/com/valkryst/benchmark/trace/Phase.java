@@ -0,0 +1,39 @@
+package com.valkryst.benchmark.trace;
+
+import lombok.Getter;
+
+/** A phase of a request sent through a traced client, see {@link ClientTracer}. */
+public enum Phase {
+    /**
+     * From the start of the call, until the request is handed to the HTTP client. This covers the SDK's validation of
+     * the request, the serialization of its body to JSON, and the construction of the HTTP request.
+     */
+    BUILD("build"),
+
+    /**
+     * From the request being handed to the HTTP client, until the whole response body has been received. This covers
+     * the connection, any TLS handshake, encryption, and the time spent by the server.
+     */
+    ROUND_TRIP("roundTrip"),
+
+    /**
+     * From the whole response body being received, until the call returns. This covers the deserialization of the
+     * response from JSON, and the hand-off from the HTTP client's thread to the calling thread.
+     */
+    PARSE("parse"),
+
+    /** From the start of the call, until it returns. */
+    TOTAL("total");
+
+    /** Name of the phase, as it appears in the names of the results. */
+    @Getter private final String name;
+
+    /**
+     * Constructs a new Phase.
+     *
+     * @param name Name of the phase, as it appears in the names of the results.
+     */
+    Phase(final String name) {
+        this.name = name;
+    }
+}
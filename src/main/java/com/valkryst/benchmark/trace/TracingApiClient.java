@@ -0,0 +1,28 @@
+package com.valkryst.benchmark.trace;
+
+import dev.openfga.sdk.api.client.ApiClient;
+
+import java.net.http.HttpClient;
+
+/**
+ * An {@link ApiClient}, configured as the SDK's default, whose requests are timed by the {@link ClientTracer}.
+ */
+public class TracingApiClient extends ApiClient {
+    /** HTTP client which sends the requests, and records their timings. */
+    private final HttpClient httpClient;
+
+    /** Constructs a new TracingApiClient. */
+    public TracingApiClient() {
+        super(HttpClient.newBuilder(), null);
+
+        // The SDK's mapper is only available to subclasses, so it can't be passed to the constructor.
+        setObjectMapper(createDefaultObjectMapper());
+
+        httpClient = ClientTracer.wrap(super.getHttpClient());
+    }
+
+    @Override
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+}
@@ -0,0 +1,154 @@
+package com.valkryst.benchmark.trace;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link HttpClient} which delegates to another, and records the time at which each request is sent, and its
+ * response received, to the {@link ClientTracer}.
+ */
+class TracingHttpClient extends HttpClient {
+    /** Client which sends the requests. */
+    private final HttpClient delegate;
+
+    /**
+     * Constructs a new TracingHttpClient.
+     *
+     * @param delegate Client which sends the requests.
+     */
+    TracingHttpClient(final HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) throws IOException, InterruptedException {
+        final var trace = ClientTracer.current();
+        final long sent = System.nanoTime();
+        if (trace != null) {
+            trace.sent();
+        }
+
+        final var response = delegate.send(request, responseBodyHandler);
+        received(trace, sent);
+        return response;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+        return sendAsync(request, responseBodyHandler, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler, final HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        // The SDK sends the first attempt of each request from the calling thread, so this is the trace of its call.
+        final var trace = ClientTracer.current();
+        final long sent = System.nanoTime();
+        if (trace != null) {
+            trace.sent();
+        }
+
+        // The SDK's own stages depend on the returned future, so this runs before the response is deserialized.
+        return delegate.sendAsync(request, responseBodyHandler, pushPromiseHandler).whenComplete((response, exception) -> received(trace, sent));
+    }
+
+    /**
+     * Records that a response was received.
+     *
+     * @param trace Trace of the call which sent the request, or {@code null} if there was none.
+     * @param sent Time at which the request was sent.
+     */
+    private static void received(final ClientTracer.Trace trace, final long sent) {
+        if (trace == null) {
+            ClientTracer.record(Phase.ROUND_TRIP, System.nanoTime() - sent);
+        } else {
+            trace.received();
+        }
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() {
+        return delegate.newWebSocketBuilder();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(final Duration duration) throws InterruptedException {
+        return delegate.awaitTermination(duration);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public void shutdownNow() {
+        delegate.shutdownNow();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
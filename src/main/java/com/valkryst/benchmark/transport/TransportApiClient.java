@@ -0,0 +1,111 @@
+package com.valkryst.benchmark.transport;
+
+import com.valkryst.benchmark.trace.ClientTracer;
+import dev.openfga.sdk.api.client.ApiClient;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An {@link ApiClient} whose HTTP client is configured by a {@link TransportProfile}, and which must be closed once it
+ * is no longer needed. Its requests are timed by the {@link ClientTracer}, when it's enabled.
+ */
+public class TransportApiClient extends ApiClient implements AutoCloseable {
+    /** Profile which the HTTP client was configured with. */
+    @Getter private final TransportProfile profile;
+
+    /** Executor which the HTTP client uses, or {@code null} if it uses its own. */
+    private final ExecutorService executor;
+
+    /** HTTP client which sends the requests, before it was wrapped by the {@link ClientTracer}. */
+    private HttpClient unwrappedHttpClient;
+
+    /** HTTP client which sends the requests. */
+    private HttpClient httpClient;
+
+    /**
+     * Constructs a new TransportApiClient.
+     *
+     * @param profile Profile with which to configure the HTTP client.
+     */
+    public TransportApiClient(final @NonNull TransportProfile profile) {
+        this(profile, createExecutor(profile.getExecutorType()));
+    }
+
+    /**
+     * Constructs a new TransportApiClient.
+     *
+     * @param profile Profile with which to configure the HTTP client.
+     * @param executor Executor which the HTTP client uses, or {@code null} if it uses its own.
+     */
+    private TransportApiClient(final TransportProfile profile, final ExecutorService executor) {
+        super(createHttpClientBuilder(profile.getVersion(), executor), null);
+        this.profile = profile;
+        this.executor = executor;
+
+        // The SDK's mapper is only available to subclasses, so it can't be passed to the constructor.
+        setObjectMapper(createDefaultObjectMapper());
+
+        unwrappedHttpClient = super.getHttpClient();
+        httpClient = ClientTracer.wrap(unwrappedHttpClient);
+    }
+
+    /**
+     * Closes the HTTP client, and replaces it with a new one which is configured by the same profile, so that the next
+     * request opens a new connection. The object mapper, the executor, and any clients which use this API client are
+     * kept.
+     */
+    public void reconnect() {
+        unwrappedHttpClient.close();
+        unwrappedHttpClient = createHttpClientBuilder(profile.getVersion(), executor).build();
+        httpClient = ClientTracer.wrap(unwrappedHttpClient);
+    }
+
+    @Override
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public void close() {
+        unwrappedHttpClient.close();
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the builder of the HTTP client.
+     *
+     * @param version HTTP version which the client prefers.
+     * @param executor Executor which the client uses, or {@code null} if it uses its own.
+     * @return The builder.
+     */
+    private static HttpClient.Builder createHttpClientBuilder(final HttpClient.Version version, final ExecutorService executor) {
+        final var builder = HttpClient.newBuilder().version(version);
+
+        if (executor != null) {
+            builder.executor(executor);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Creates the executor which the HTTP client uses.
+     *
+     * @param executorType Type of the executor.
+     * @return The executor, or {@code null} if the HTTP client should use its own.
+     */
+    private static ExecutorService createExecutor(final TransportProfile.ExecutorType executorType) {
+        return switch (executorType) {
+            case DEFAULT -> null;
+            case FIXED -> Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+}
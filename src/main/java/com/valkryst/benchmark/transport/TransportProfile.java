@@ -0,0 +1,74 @@
+package com.valkryst.benchmark.transport;
+
+import lombok.Getter;
+
+import java.net.http.HttpClient;
+
+/**
+ * <p>A configuration of the HTTP client, which is used to send requests to the OpenFGA API.</p>
+ *
+ * <p>
+ *     {@link #HTTP_2_SHARED} is equivalent to the SDK's defaults, which are what the other benchmarks use. Over TLS,
+ *     HTTP/2 is negotiated with ALPN. Over plaintext, the client attempts to upgrade each new connection to HTTP/2, and
+ *     falls back to HTTP/1.1 if the server doesn't support it.
+ * </p>
+ */
+public enum TransportProfile {
+    HTTP_1_1_SHARED(HttpClient.Version.HTTP_1_1, Sharing.SHARED, ExecutorType.DEFAULT),
+    HTTP_2_SHARED(HttpClient.Version.HTTP_2, Sharing.SHARED, ExecutorType.DEFAULT),
+    HTTP_1_1_PER_THREAD(HttpClient.Version.HTTP_1_1, Sharing.PER_THREAD, ExecutorType.DEFAULT),
+    HTTP_2_PER_THREAD(HttpClient.Version.HTTP_2, Sharing.PER_THREAD, ExecutorType.DEFAULT),
+    HTTP_1_1_PER_REQUEST(HttpClient.Version.HTTP_1_1, Sharing.PER_REQUEST, ExecutorType.DEFAULT),
+    HTTP_2_PER_REQUEST(HttpClient.Version.HTTP_2, Sharing.PER_REQUEST, ExecutorType.DEFAULT),
+    HTTP_2_FIXED_EXECUTOR(HttpClient.Version.HTTP_2, Sharing.SHARED, ExecutorType.FIXED),
+    HTTP_2_VIRTUAL_EXECUTOR(HttpClient.Version.HTTP_2, Sharing.SHARED, ExecutorType.VIRTUAL);
+
+    /** HTTP version which the client prefers. */
+    @Getter private final HttpClient.Version version;
+
+    /** How the client is shared between requests. */
+    @Getter private final Sharing sharing;
+
+    /** Executor which the client uses to run its asynchronous tasks. */
+    @Getter private final ExecutorType executorType;
+
+    /**
+     * Constructs a new TransportProfile.
+     *
+     * @param version HTTP version which the client prefers.
+     * @param sharing How the client is shared between requests.
+     * @param executorType Executor which the client uses to run its asynchronous tasks.
+     */
+    TransportProfile(final HttpClient.Version version, final Sharing sharing, final ExecutorType executorType) {
+        this.version = version;
+        this.sharing = sharing;
+        this.executorType = executorType;
+    }
+
+    /** How a client is shared between requests. */
+    public enum Sharing {
+        /** A single client, and its connections, is used by all threads. */
+        SHARED,
+
+        /** Each benchmark thread has its own client, and its own connections. */
+        PER_THREAD,
+
+        /**
+         * A new HTTP client is created, and closed, before every request. Connections are never reused, so every
+         * request pays for a new connection and, when enabled, a TLS handshake. The rest of the client is reused.
+         */
+        PER_REQUEST
+    }
+
+    /** Executor which a client uses to run its asynchronous tasks. */
+    public enum ExecutorType {
+        /** The HTTP client's own cached thread pool. */
+        DEFAULT,
+
+        /** A thread pool with one thread per available processor. */
+        FIXED,
+
+        /** A new virtual thread for each task. */
+        VIRTUAL
+    }
+}
@@ -0,0 +1,185 @@
+package com.valkryst.benchmark.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsSnapshotTest {
+    /** Request durations of two methods, in the text exposition format, as OpenFGA writes them. */
+    private static final String HISTOGRAM = """
+        # HELP openfga_request_duration_ms The request duration (in ms) labeled by method.
+        # TYPE openfga_request_duration_ms histogram
+        openfga_request_duration_ms_bucket{grpc_method="Check",le="1"} 20
+        openfga_request_duration_ms_bucket{grpc_method="Check",le="5"} 60
+        openfga_request_duration_ms_bucket{grpc_method="Check",le="10"} 80
+        openfga_request_duration_ms_bucket{grpc_method="Check",le="+Inf"} 100
+        openfga_request_duration_ms_sum{grpc_method="Check"} 750
+        openfga_request_duration_ms_count{grpc_method="Check"} 100
+        openfga_request_duration_ms_bucket{grpc_method="Write",le="1"} 0
+        openfga_request_duration_ms_bucket{grpc_method="Write",le="5"} 0
+        openfga_request_duration_ms_bucket{grpc_method="Write",le="10"} 0
+        openfga_request_duration_ms_bucket{grpc_method="Write",le="+Inf"} 0
+        openfga_request_duration_ms_sum{grpc_method="Write"} 0
+        openfga_request_duration_ms_count{grpc_method="Write"} 0
+        """;
+
+    @Test
+    public void parseSkipsCommentsAndBlankLines() {
+        final var snapshot = MetricsSnapshot.parse("# HELP up Whether the server is up.\n\n# TYPE up gauge\nup 1\n");
+        assertTrue(snapshot.contains("up"));
+        assertFalse(snapshot.contains("HELP"));
+        assertEquals(1, snapshot.sum("up"));
+    }
+
+    @Test
+    public void parseIgnoresTimestamps() {
+        final var snapshot = MetricsSnapshot.parse("openfga_dispatch_count_sum 42 1700000000000\n");
+        assertEquals(42, snapshot.sum("openfga_dispatch_count_sum"));
+    }
+
+    @Test
+    public void parseHandlesWindowsLineEndings() {
+        final var snapshot = MetricsSnapshot.parse("a 1\r\nb 2\r\n");
+        assertEquals(1, snapshot.sum("a"));
+        assertEquals(2, snapshot.sum("b"));
+    }
+
+    @Test
+    public void parseHandlesSpecialValues() {
+        final var snapshot = MetricsSnapshot.parse("a +Inf\nb -Inf\nc NaN\nd 1.5e3\n");
+        assertEquals(Double.POSITIVE_INFINITY, snapshot.sum("a"));
+        assertEquals(Double.NEGATIVE_INFINITY, snapshot.sum("b"));
+        assertTrue(Double.isNaN(snapshot.sum("c")));
+        assertEquals(1500, snapshot.sum("d"));
+    }
+
+    @Test
+    public void parseHandlesLabelValuesWithSpacesBracesAndQuotes() {
+        final var snapshot = MetricsSnapshot.parse("""
+            a{path="/stores/{id}/check",reason="too slow"} 1
+            a{message="say \\"hi\\" }"} 2
+            """);
+        assertEquals(3, snapshot.sum("a"));
+    }
+
+    @Test
+    public void parseRejectsSamplesWithoutValues() {
+        assertThrows(IllegalArgumentException.class, () -> MetricsSnapshot.parse("openfga_dispatch_count_sum\n"));
+        assertThrows(IllegalArgumentException.class, () -> MetricsSnapshot.parse("a{method=\"Check\"}\n"));
+    }
+
+    @Test
+    public void parseRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> MetricsSnapshot.parse("a one\n"));
+    }
+
+    @Test
+    public void sumAddsEverySeriesOfAMetric() {
+        final var snapshot = MetricsSnapshot.parse(HISTOGRAM);
+        assertEquals(100, snapshot.sum("openfga_request_duration_ms_count"));
+        assertEquals(750, snapshot.sum("openfga_request_duration_ms_sum"));
+    }
+
+    @Test
+    public void sumDoesNotMatchMetricsWhichShareAPrefix() {
+        final var snapshot = MetricsSnapshot.parse("a_count 1\na_count_total 2\n");
+        assertEquals(1, snapshot.sum("a_count"));
+        assertEquals(2, snapshot.sum("a_count_total"));
+    }
+
+    @Test
+    public void sumOfAMissingMetricIsZero() {
+        assertEquals(0, MetricsSnapshot.parse(HISTOGRAM).sum("openfga_dispatch_count_sum"));
+    }
+
+    @Test
+    public void containsOnlyMatchesWholeNames() {
+        final var snapshot = MetricsSnapshot.parse(HISTOGRAM);
+        assertTrue(snapshot.contains("openfga_request_duration_ms_count"));
+        assertFalse(snapshot.contains("openfga_request_duration"));
+    }
+
+    @Test
+    public void minusSubtractsTheEarlierSnapshot() {
+        final var earlier = MetricsSnapshot.parse("a{method=\"Check\"} 10\na{method=\"Write\"} 5\n");
+        final var later = MetricsSnapshot.parse("a{method=\"Check\"} 25\na{method=\"Write\"} 5\n");
+
+        final var difference = later.minus(earlier);
+        assertEquals(15, difference.sum("a"));
+    }
+
+    @Test
+    public void minusKeepsSeriesWhichAreNew() {
+        final var earlier = MetricsSnapshot.parse("a{method=\"Check\"} 10\n");
+        final var later = MetricsSnapshot.parse("a{method=\"Check\"} 10\na{method=\"Write\"} 3\n");
+
+        assertEquals(3, later.minus(earlier).sum("a"));
+    }
+
+    @Test
+    public void minusKeepsSeriesWhichWereReset() {
+        final var earlier = MetricsSnapshot.parse("a 100\n");
+        final var later = MetricsSnapshot.parse("a 7\n");
+
+        assertEquals(7, later.minus(earlier).sum("a"));
+    }
+
+    @Test
+    public void quantileInterpolatesWithinTheBucket() {
+        final var snapshot = MetricsSnapshot.parse(HISTOGRAM);
+
+        // The 50th observation is three quarters of the way through the (1, 5] bucket, which holds the 21st to 60th.
+        assertEquals(4, snapshot.quantile("openfga_request_duration_ms", 0.5), 1e-9);
+
+        // The 10th observation is halfway through the [0, 1] bucket.
+        assertEquals(0.5, snapshot.quantile("openfga_request_duration_ms", 0.1), 1e-9);
+    }
+
+    @Test
+    public void quantileInTheInfiniteBucketIsItsLowerBound() {
+        assertEquals(10, MetricsSnapshot.parse(HISTOGRAM).quantile("openfga_request_duration_ms", 0.99), 1e-9);
+    }
+
+    @Test
+    public void quantileOfAnEmptyHistogramIsNaN() {
+        final var snapshot = MetricsSnapshot.parse(HISTOGRAM);
+        assertTrue(Double.isNaN(snapshot.minus(snapshot).quantile("openfga_request_duration_ms", 0.5)));
+        assertTrue(Double.isNaN(snapshot.quantile("openfga_dispatch_count", 0.5)));
+    }
+
+    @Test
+    public void quantileMergesTheBucketsOfEveryLabel() {
+        final var snapshot = MetricsSnapshot.parse("""
+            h_bucket{method="Check",le="10"} 10
+            h_bucket{method="Check",le="+Inf"} 10
+            h_bucket{method="Write",le="10"} 0
+            h_bucket{method="Write",le="+Inf"} 10
+            """);
+
+        // Half of the observations are at most 10, and the rest are in the infinite bucket.
+        assertEquals(10, snapshot.quantile("h", 0.5), 1e-9);
+        assertEquals(10, snapshot.quantile("h", 0.9), 1e-9);
+        assertEquals(5, snapshot.quantile("h", 0.25), 1e-9);
+    }
+
+    @Test
+    public void quantileFindsTheBoundWhereverItIsAmongTheLabels() {
+        final var snapshot = MetricsSnapshot.parse("""
+            h_bucket{le="2",method="Check"} 4
+            h_bucket{method="Check",note="le=\\"9\\"",le="+Inf"} 4
+            """);
+
+        assertEquals(1, snapshot.quantile("h", 0.5), 1e-9);
+    }
+
+    @Test
+    public void quantileIgnoresBucketsWithoutABound() {
+        final var snapshot = MetricsSnapshot.parse("""
+            h_bucket{le="2"} 4
+            h_bucket{le="+Inf"} 4
+            h_bucket{method="Check"} 100
+            """);
+
+        assertEquals(1, snapshot.quantile("h", 0.5), 1e-9);
+    }
+}
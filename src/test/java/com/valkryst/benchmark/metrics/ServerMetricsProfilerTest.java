@@ -0,0 +1,161 @@
+package com.valkryst.benchmark.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.IterationResultMetaData;
+import org.openjdk.jmh.results.Result;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerMetricsProfilerTest {
+    /** A fake Prometheus endpoint. */
+    private HttpServer server;
+
+    /** Body of the endpoint's next response. */
+    private volatile String body = "";
+
+    /** Status of the endpoint's next response. */
+    private volatile int status = 200;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void recordsTheDifferenceBetweenScrapes() {
+        final var profiler = new ServerMetricsProfiler(metricsUrl());
+
+        body = metrics(100, 5, 200, 50, 10, 20, 5);
+        profiler.beforeIteration(null, null);
+
+        body = metrics(300, 45, 1_200, 250, 40, 120, 80);
+        final var results = iterate(profiler, 200);
+
+        assertEquals(200, results.get("server.requests").getScore());
+        assertEquals(1_000 / 200d, results.get("server.request.duration.avg").getScore(), 1e-9);
+        assertEquals(200 / 200d, results.get("server.datastore.queries.norm").getScore(), 1e-9);
+        assertEquals(30 / 200d, results.get("server.dispatches.norm").getScore(), 1e-9);
+        assertEquals(75 / 100d, results.get("server.cache.hit.ratio").getScore(), 1e-9);
+
+        // Of the 200 new requests, 40 took at most 1 ms and the rest took at most 5 ms.
+        assertEquals(1 + 4 * ((100 - 40) / 160d), results.get("server.request.duration.p50").getScore(), 1e-9);
+    }
+
+    @Test
+    public void skipsMetricsWhichTheServerDoesNotExpose() {
+        final var profiler = new ServerMetricsProfiler(metricsUrl());
+
+        body = "openfga_dispatch_count_sum 10\n";
+        profiler.beforeIteration(null, null);
+
+        body = "openfga_dispatch_count_sum 30\n";
+        final var results = iterate(profiler, 10);
+
+        assertEquals(Map.of("server.dispatches.norm", 2d), scores(results));
+    }
+
+    @Test
+    public void recordsNothingWhenTheEndpointFails() {
+        final var profiler = new ServerMetricsProfiler(metricsUrl());
+
+        body = metrics(100, 5, 200, 50, 10, 20, 5);
+        profiler.beforeIteration(null, null);
+
+        status = 500;
+        assertTrue(iterate(profiler, 10).isEmpty());
+    }
+
+    @Test
+    public void recordsNothingWhenTheEndpointIsUnreachable() {
+        final var url = metricsUrl();
+        server.stop(0);
+
+        final var profiler = new ServerMetricsProfiler(url);
+        profiler.beforeIteration(null, null);
+        assertTrue(iterate(profiler, 10).isEmpty());
+    }
+
+    /** @return URL of the fake endpoint. */
+    private String metricsUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/metrics";
+    }
+
+    /**
+     * Ends an iteration.
+     *
+     * @param profiler The profiler.
+     * @param operations Number of operations performed during the iteration.
+     * @return The profiler's results, by name.
+     */
+    private static Map<String, Result> iterate(final ServerMetricsProfiler profiler, final long operations) {
+        final var iterationResult = new IterationResult(null, null, new IterationResultMetaData(operations, operations));
+
+        final var results = new HashMap<String, Result>();
+        for (final var result : profiler.afterIteration(null, null, iterationResult)) {
+            results.put(result.getLabel(), result);
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves the score of each result.
+     *
+     * @param results The results, by name.
+     * @return The score of each result, by name.
+     */
+    private static Map<String, Double> scores(final Map<String, Result> results) {
+        final var scores = new HashMap<String, Double>();
+        results.forEach((name, result) -> scores.put(name, result.getScore()));
+        return scores;
+    }
+
+    /**
+     * Formats the metrics of an OpenFGA server.
+     *
+     * @param requests Number of check requests.
+     * @param fastRequests Number of check requests which took at most 1 ms. The rest took at most 5 ms.
+     * @param duration Total duration of the check requests, in milliseconds.
+     * @param queries Number of datastore queries.
+     * @param dispatches Number of dispatches.
+     * @param cacheLookups Number of check cache lookups.
+     * @param cacheHits Number of check cache hits.
+     * @return The metrics, in the text exposition format.
+     */
+    private static String metrics(final int requests, final int fastRequests, final int duration, final int queries, final int dispatches, final int cacheLookups, final int cacheHits) {
+        return """
+            # TYPE openfga_request_duration_ms histogram
+            openfga_request_duration_ms_bucket{grpc_method="Check",le="1"} %d
+            openfga_request_duration_ms_bucket{grpc_method="Check",le="5"} %d
+            openfga_request_duration_ms_bucket{grpc_method="Check",le="+Inf"} %d
+            openfga_request_duration_ms_sum{grpc_method="Check"} %d
+            openfga_request_duration_ms_count{grpc_method="Check"} %d
+            openfga_datastore_query_count_sum{method="Check"} %d
+            openfga_dispatch_count_sum{method="Check"} %d
+            openfga_check_cache_total_count_total %d
+            openfga_check_cache_hit_count_total %d
+            """.formatted(fastRequests, requests, requests, duration, requests, queries, dispatches, cacheLookups, cacheHits);
+    }
+}